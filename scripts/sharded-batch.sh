@@ -0,0 +1,67 @@
+#!/bin/sh
+# Estimates a batch file in several JVMs on this machine and merges their totals.
+#
+#   scripts/sharded-batch.sh <shards> <file> [batch options...]
+#
+# Each shard's rows go to $OUT/rows-<i>.csv and its partial result to $OUT/shard-<i>.part; the merged totals are
+# printed. Can sizes and catalogues are applied to the merged total. Set JAR to use a different build and OUT to keep
+# the shard output somewhere other than a temporary directory.
+set -eu
+
+if [ $# -lt 2 ]; then
+    echo "Usage: $0 <shards> <file> [batch options...]" >&2
+    exit 2
+fi
+shards=$1
+file=$2
+shift 2
+
+JAR=${JAR:-target/paintcalculator-1.0-SNAPSHOT-jar-with-dependencies.jar}
+OUT=${OUT:-$(mktemp -d)}
+mkdir -p "$OUT"
+
+i=0
+pids=
+parts=
+while [ "$i" -lt "$shards" ]; do
+    # A partial result left over from an earlier run mustn't stand in for one this run failed to write
+    rm -f "$OUT/shard-$i.part"
+    parts="$parts $OUT/shard-$i.part"
+    java -jar "$JAR" --batch "$file" "$@" --shard "$i/$shards" --partial "$OUT/shard-$i.part" \
+        > "$OUT/rows-$i.csv" 2> "$OUT/errors-$i.txt" &
+    pids="$pids $!"
+    i=$((i + 1))
+done
+
+# A shard exits 1 if it rejected any records, which still leaves a partial result to merge. A JVM which dies with an
+# exception also exits 1, so a shard has only succeeded if its partial result was written.
+status=0
+for pid in $pids; do
+    code=0
+    wait "$pid" || code=$?
+    if [ "$code" -gt 1 ]; then
+        status=$code
+    fi
+done
+for part in $parts; do
+    if [ ! -f "$part" ]; then
+        status=1
+    fi
+done
+if [ "$status" -ne 0 ]; then
+    echo "A shard failed; see $OUT/errors-*.txt" >&2
+    exit "$status"
+fi
+
+# Only the options which apply to the totals are passed on
+merge_opts=
+while [ $# -gt 0 ]; do
+    case $1 in
+        --can-size|--catalogue|--objective) merge_opts="$merge_opts $1 $2"; shift 2 ;;
+        --simd|--exact) shift ;;
+        *) shift 2 ;;
+    esac
+done
+echo "Shard output is in $OUT" >&2
+# shellcheck disable=SC2086
+exec java -jar "$JAR" --merge $parts $merge_opts
@@ -0,0 +1,50 @@
+package uk.hpkns.paintcalculator.bench;
+
+import org.openjdk.jmh.annotations.*;
+import uk.hpkns.paintcalculator.geometry.WallStore;
+
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * Throughput of totalling generated walls, in walls per second. Run with {@code -prof gc} to see allocation.
+ * <p>
+ * The largest sets need a big heap; 10 million walls can be run with
+ * {@code -p walls=10000000 -p maxObstructions=10 -jvmArgsAppend -Xmx8g}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AreaBenchmark {
+    private static final int CHUNK = 4096;
+
+    @Param({"1", "1000", "1000000"})
+    public int walls;
+
+    @Param({"0", "10", "50"})
+    public int maxObstructions;
+
+    private WallStore store;
+
+    @Setup
+    public void setup() {
+        store = Datasets.store(walls, maxObstructions);
+    }
+
+    @Benchmark
+    public double singleThreaded() {
+        return store.totalArea();
+    }
+
+    @Benchmark
+    public double parallel() {
+        int chunks = (store.size() + CHUNK - 1) / CHUNK;
+        return IntStream.range(0, chunks)
+                .parallel()
+                .mapToDouble(c -> store.totalArea(c * CHUNK, Math.min(store.size(), (c + 1) * CHUNK)))
+                .sum();
+    }
+}
@@ -0,0 +1,62 @@
+package uk.hpkns.paintcalculator.bench;
+
+import org.openjdk.jmh.annotations.*;
+import uk.hpkns.paintcalculator.batch.BatchEstimator;
+import uk.hpkns.paintcalculator.batch.CsvWallReader;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of batch mode reading a generated CSV file, in files per second. Multiply by the number of walls for
+ * walls per second. Results are discarded rather than written, so this measures reading and calculating, in doubles
+ * or in whole millimetres with {@code --exact}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BatchFileBenchmark {
+    @Param({"1000", "100000"})
+    public int walls;
+
+    @Param({"0", "10", "50"})
+    public int maxObstructions;
+
+    private Path file;
+
+    @Setup
+    public void setup() throws IOException {
+        file = Files.createTempFile("walls", ".csv");
+        Datasets.writeCsv(file, walls, maxObstructions);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    @Benchmark
+    public double csv() throws IOException {
+        BatchEstimator estimator = new BatchEstimator(1, 0);
+        try (CsvWallReader reader = new CsvWallReader(Files.newBufferedReader(file, StandardCharsets.UTF_8))) {
+            estimator.estimate(reader, Writer.nullWriter());
+        }
+        return estimator.getTotalArea();
+    }
+
+    @Benchmark
+    public double csvExact() throws IOException {
+        BatchEstimator estimator = new BatchEstimator(1, 0, null, false, true);
+        try (CsvWallReader reader = new CsvWallReader(Files.newBufferedReader(file, StandardCharsets.UTF_8))) {
+            estimator.estimate(reader, Writer.nullWriter());
+        }
+        return estimator.getTotalArea();
+    }
+}
@@ -0,0 +1,50 @@
+package uk.hpkns.paintcalculator.bench;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import uk.hpkns.paintcalculator.cans.CanCatalogue;
+import uk.hpkns.paintcalculator.cans.Objective;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time to choose the best mix of cans for every room in a batch of 100000 rooms, each needing between 10 and 400
+ * litres, from typical trade catalogues. The catalogue's tables are built during warmup, as they would be by the
+ * first room of a real batch.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CanPackingBenchmark {
+    private static final int ROOMS = 100_000;
+
+    @Param({"0.75:899,2.5:1999,5:3299,10:5599", "0.5:650,1:1150,2.5:2400,5:4100,10:7000,15:9900,20:12500"})
+    public String catalogue;
+
+    @Param({"CHEAPEST", "LEAST_WASTE"})
+    public Objective objective;
+
+    private CanCatalogue cans;
+    private double[] litres;
+
+    @Setup
+    public void setup() {
+        cans = CanCatalogue.parse(catalogue);
+        SplittableRandom random = new SplittableRandom(Datasets.SEED);
+        litres = new double[ROOMS];
+        for (int i = 0; i < ROOMS; i++) {
+            litres[i] = 10 + random.nextDouble(390);
+        }
+    }
+
+    @Benchmark
+    public void packRooms(Blackhole bh) {
+        for (double l : litres) {
+            bh.consume(cans.pack(l, objective));
+        }
+    }
+}
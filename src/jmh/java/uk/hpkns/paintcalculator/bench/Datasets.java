@@ -0,0 +1,167 @@
+package uk.hpkns.paintcalculator.bench;
+
+import uk.hpkns.paintcalculator.building.Building;
+import uk.hpkns.paintcalculator.building.Floor;
+import uk.hpkns.paintcalculator.building.Room;
+import uk.hpkns.paintcalculator.geometry.Shape;
+import uk.hpkns.paintcalculator.geometry.WallStore;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.SplittableRandom;
+
+/**
+ * Generates reproducible sets of walls for the benchmarks: rooms between 2 and 8 metres wide and 2 and 4 metres
+ * tall, each with between 0 and a maximum number of obstructions drawn evenly from rectangles, circles and ovals.
+ * The same seed always gives the same walls.
+ */
+final class Datasets {
+    static final long SEED = 42;
+
+    private Datasets() {
+    }
+
+    /**
+     * Generate walls into a store.
+     * @param walls The number of walls.
+     * @param maxObstructions The most obstructions a wall may have.
+     * @return The store.
+     */
+    static WallStore store(int walls, int maxObstructions) {
+        SplittableRandom random = new SplittableRandom(SEED);
+        WallStore store = new WallStore(walls, walls * (maxObstructions / 2 + 1));
+        for (int i = 0; i < walls; i++) {
+            store.addWall(2 + random.nextDouble(6), 2 + random.nextDouble(2));
+            int obstructions = random.nextInt(maxObstructions + 1);
+            for (int j = 0; j < obstructions; j++) {
+                byte tag = (byte) (Shape.RECTANGULAR + random.nextInt(3));
+                double a = 0.01 + random.nextDouble(0.1);
+                double b = tag == Shape.CIRCULAR ? 0 : 0.01 + random.nextDouble(0.1);
+                store.addObstruction(tag, a, b);
+            }
+        }
+        return store;
+    }
+
+    /**
+     * Generate a facade with obstructions placed on it. On a grid, each 1.5 metre bay has a window, and every fifth
+     * bay also has a recess around its window; otherwise they're scattered at random over a 60 by 30 metre wall,
+     * overlapping each other much more often. Either way some hang off the edges.
+     * @param obstructions The number of obstructions.
+     * @param curved Whether a third each of the obstructions are circles and ovals rather than all rectangles.
+     * @param grid Whether to lay the obstructions out on a grid rather than scatter them.
+     * @return The store, holding just the facade.
+     */
+    static WallStore facade(int obstructions, boolean curved, boolean grid) {
+        SplittableRandom random = new SplittableRandom(SEED);
+        WallStore store = new WallStore(1, obstructions);
+        int columns = Math.max(1, (int) Math.sqrt(obstructions * 2.0));
+        int rows = (int) Math.ceil(obstructions / 1.2 / columns) + 1;
+        if (grid)
+            store.addWall(columns * 1.5, rows * 1.5);
+        else
+            store.addWall(60, 30);
+        for (int j = 0, bay = 0; j < obstructions; bay++) {
+            double x = grid ? (bay % columns) * 1.5 + random.nextDouble(0.2, 1.3) : random.nextDouble(60);
+            double y = grid ? (bay / columns) * 1.5 + random.nextDouble(0.2, 1.3) : random.nextDouble(30);
+            int shapes = grid && bay % 5 == 0 ? 2 : 1;
+            for (int k = 0; k < shapes && j < obstructions; k++, j++) {
+                byte tag = curved ? (byte) (Shape.RECTANGULAR + random.nextInt(3)) : Shape.RECTANGULAR;
+                double a = (0.05 + random.nextDouble(0.25)) * (shapes - k);
+                double b = tag == Shape.CIRCULAR ? 0 : (0.05 + random.nextDouble(0.25)) * (shapes - k);
+                store.addObstruction(tag, a, b, x, y);
+            }
+        }
+        return store;
+    }
+
+    /**
+     * Generate a building with the same number of rooms on each floor and walls in each room.
+     * @param floors The number of floors.
+     * @param rooms The number of rooms on each floor.
+     * @param walls The number of walls in each room.
+     * @param maxObstructions The most obstructions a wall may have.
+     * @return The building.
+     */
+    static Building building(int floors, int rooms, int walls, int maxObstructions) {
+        WallStore store = store(floors * rooms * walls, maxObstructions);
+        Building building = new Building("Building");
+        int next = 0;
+        for (int f = 0; f < floors; f++) {
+            Floor floor = building.add(new Floor("Floor " + (f + 1)));
+            for (int r = 0; r < rooms; r++) {
+                Room room = floor.add(new Room("Room " + (r + 1)));
+                for (int w = 0; w < walls; w++) {
+                    room.add(store.wall(next++));
+                }
+            }
+        }
+        return building;
+    }
+
+    /**
+     * Generate the answers to the questionnaire for rooms one after another, with measurements to the centimetre,
+     * two coats and 2.5 litre cans.
+     * @param rooms The number of rooms.
+     * @param walls The number of walls in each room.
+     * @param maxObstructions The most obstructions a wall may have.
+     * @return The answers.
+     */
+    static byte[] script(int rooms, int walls, int maxObstructions) {
+        WallStore store = store(rooms * walls, maxObstructions);
+        StringBuilder sb = new StringBuilder();
+        for (int r = 0; r < rooms; r++) {
+            sb.append(walls).append('\n');
+            for (int i = r * walls; i < (r + 1) * walls; i++) {
+                sb.append(centimetres(store.width(i))).append(' ').append(centimetres(store.height(i))).append('\n');
+                sb.append(store.obstructionEnd(i) - store.obstructionStart(i)).append('\n');
+                for (int j = store.obstructionStart(i); j < store.obstructionEnd(i); j++) {
+                    sb.append(store.tag(j)).append(' ').append(centimetres(store.dimA(j)));
+                    if (store.tag(j) != Shape.CIRCULAR)
+                        sb.append(' ').append(centimetres(store.dimB(j)));
+                    sb.append('\n');
+                }
+            }
+            sb.append(walls + 1).append("\n2\n2.5\n");
+        }
+        return sb.toString().getBytes(StandardCharsets.US_ASCII);
+    }
+
+    private static double centimetres(double metres) {
+        return Math.max(1, Math.round(metres * 100)) / 100d;
+    }
+
+    /**
+     * Write walls to a CSV file in the batch input format.
+     * @param file The file to write.
+     * @param walls The number of walls.
+     * @param maxObstructions The most obstructions a wall may have.
+     * @throws IOException If the file couldn't be written.
+     */
+    static void writeCsv(Path file, int walls, int maxObstructions) throws IOException {
+        SplittableRandom random = new SplittableRandom(SEED);
+        try (BufferedWriter out = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            for (int i = 0; i < walls; i++) {
+                out.write(Double.toString(2 + random.nextDouble(6)));
+                out.write(',');
+                out.write(Double.toString(2 + random.nextDouble(2)));
+                int obstructions = random.nextInt(maxObstructions + 1);
+                for (int j = 0; j < obstructions; j++) {
+                    byte tag = (byte) (Shape.RECTANGULAR + random.nextInt(3));
+                    out.write(',');
+                    out.write(Byte.toString(tag));
+                    out.write(',');
+                    out.write(Double.toString(0.01 + random.nextDouble(0.1)));
+                    if (tag != Shape.CIRCULAR) {
+                        out.write(',');
+                        out.write(Double.toString(0.01 + random.nextDouble(0.1)));
+                    }
+                }
+                out.write('\n');
+            }
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package uk.hpkns.paintcalculator.bench;
+
+import org.openjdk.jmh.annotations.*;
+import uk.hpkns.paintcalculator.geometry.ExactSum;
+import uk.hpkns.paintcalculator.geometry.MillimetreStore;
+import uk.hpkns.paintcalculator.geometry.WallStore;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of totalling generated walls in whole millimetres against doubles, in totals per second. Doubles are
+ * totalled both plainly, which depends on the order, and with {@link ExactSum}, which is what batch mode does to make
+ * them independent of it.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ExactAreaBenchmark {
+    @Param({"1000", "1000000"})
+    public int walls;
+
+    @Param({"0", "10"})
+    public int maxObstructions;
+
+    private WallStore store;
+    private MillimetreStore millimetres;
+
+    @Setup
+    public void setup() {
+        store = Datasets.store(walls, maxObstructions);
+        millimetres = new MillimetreStore(store.size(), store.obstructionCount());
+        for (int i = 0; i < store.size(); i++) {
+            millimetres.add(store, i);
+        }
+    }
+
+    @Benchmark
+    public double doubles() {
+        return store.totalArea();
+    }
+
+    @Benchmark
+    public double doublesExactSum() {
+        ExactSum sum = new ExactSum();
+        for (int i = 0; i < store.size(); i++) {
+            sum.add(store.area(i));
+        }
+        return sum.result();
+    }
+
+    @Benchmark
+    public long millimetres() {
+        return millimetres.totalArea();
+    }
+}
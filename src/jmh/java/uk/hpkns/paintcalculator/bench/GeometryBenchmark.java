@@ -0,0 +1,81 @@
+package uk.hpkns.paintcalculator.bench;
+
+import org.openjdk.jmh.annotations.*;
+import uk.hpkns.paintcalculator.geometry.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares totalling the same walls held as the legacy {@code double[][][]}, as {@link Wall} records and in a
+ * {@link WallStore}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GeometryBenchmark {
+    @Param({"1000", "100000"})
+    public int walls;
+
+    @Param({"4"})
+    public int obstructionsPerWall;
+
+    private double[][][] legacy;
+    private List<Wall> records;
+    private WallStore store;
+
+    @Setup
+    public void setup() {
+        SplittableRandom random = new SplittableRandom(42);
+        legacy = new double[walls][][];
+        records = new ArrayList<>(walls);
+        for (int i = 0; i < walls; i++) {
+            double width = 2 + random.nextDouble(6);
+            double height = 2 + random.nextDouble(2);
+            double[][] wall = new double[obstructionsPerWall + 1][];
+            wall[0] = new double[] {width, height};
+            List<Shape> obstructions = new ArrayList<>(obstructionsPerWall);
+            for (int j = 0; j < obstructionsPerWall; j++) {
+                double a = 0.05 + random.nextDouble(0.3);
+                double b = 0.05 + random.nextDouble(0.3);
+                switch (random.nextInt(3)) {
+                    case 0 -> {
+                        wall[j + 1] = new double[] {LegacyGeometry.SHAPE_RECTANGULAR, a, b};
+                        obstructions.add(new Rectangle(a, b));
+                    }
+                    case 1 -> {
+                        wall[j + 1] = new double[] {LegacyGeometry.SHAPE_CIRCULAR, a};
+                        obstructions.add(new Circle(a));
+                    }
+                    default -> {
+                        wall[j + 1] = new double[] {LegacyGeometry.SHAPE_OVAL, a, b};
+                        obstructions.add(new Oval(a, b));
+                    }
+                }
+            }
+            legacy[i] = wall;
+            records.add(new Wall(width, height, obstructions));
+        }
+        store = WallStore.of(records);
+    }
+
+    @Benchmark
+    public double legacyArray() {
+        return LegacyGeometry.calculateArea(legacy);
+    }
+
+    @Benchmark
+    public double records() {
+        return Wall.totalArea(records);
+    }
+
+    @Benchmark
+    public double wallStore() {
+        return store.totalArea();
+    }
+}
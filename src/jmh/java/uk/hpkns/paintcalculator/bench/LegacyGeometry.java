@@ -0,0 +1,42 @@
+package uk.hpkns.paintcalculator.bench;
+
+/**
+ * The original {@code double[][][]} wall encoding and area loop, kept as a baseline for the geometry benchmarks.
+ * Each wall is {@code {width, height}} followed by obstructions of the form {@code {shape, dimension...}}.
+ */
+final class LegacyGeometry {
+    static final double SHAPE_RECTANGULAR = 1d;
+    static final double SHAPE_CIRCULAR = 2d;
+    static final double SHAPE_OVAL = 3d;
+
+    private LegacyGeometry() {
+    }
+
+    static double calculateArea(double[][][] walls) {
+        double total = 0d;
+        for (double[][] wall : walls) {
+            total += (wall[0][0] * wall[0][1]) - calculateObstructions(wall, 1);
+        }
+        return total;
+    }
+
+    static double calculateObstructions(double[][] obstructions, int startIndex) {
+        double total = 0d;
+        for (int i = startIndex; i < obstructions.length; i++) {
+            total += calculateObstruction(obstructions[i]);
+        }
+        return total;
+    }
+
+    static double calculateObstruction(double[] obs) {
+        if (obs[0] == SHAPE_RECTANGULAR) {
+            return obs[1] * obs[2];
+        } else if (obs[0] == SHAPE_CIRCULAR) {
+            return Math.PI * obs[1] * obs[1];
+        } else if (obs[0] == SHAPE_OVAL) {
+            return Math.PI * obs[1] * obs[2];
+        } else {
+            throw new IllegalArgumentException("Invalid shape");
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package uk.hpkns.paintcalculator.bench;
+
+import org.openjdk.jmh.annotations.*;
+import uk.hpkns.paintcalculator.geometry.ParallelArea;
+import uk.hpkns.paintcalculator.geometry.WallStore;
+import uk.hpkns.paintcalculator.metrics.Metrics;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The cost of recording metrics on the engine's hot path, with metrics turned off and on. Each parameter runs in its
+ * own fork, so the property is set before {@link Metrics} is loaded and its flag is a true constant.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MetricsOverheadBenchmark {
+    @Param({"false", "true"})
+    public boolean enabled;
+
+    @Param({"1000", "100000"})
+    public int walls;
+
+    private WallStore store;
+    private ForkJoinPool pool;
+
+    @Setup
+    public void setup() {
+        System.setProperty(Metrics.PROPERTY, Boolean.toString(enabled));
+        if (Metrics.ENABLED != enabled)
+            throw new IllegalStateException("Metrics were loaded before the property was set");
+        store = Datasets.store(walls, 10);
+        pool = new ForkJoinPool(1);
+    }
+
+    @TearDown
+    public void tearDown() {
+        pool.shutdown();
+    }
+
+    @Benchmark
+    public double totalArea() {
+        return ParallelArea.totalArea(store, pool);
+    }
+}
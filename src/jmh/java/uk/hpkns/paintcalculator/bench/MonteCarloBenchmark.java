@@ -0,0 +1,54 @@
+package uk.hpkns.paintcalculator.bench;
+
+import org.openjdk.jmh.annotations.*;
+import uk.hpkns.paintcalculator.geometry.WallStore;
+import uk.hpkns.paintcalculator.uncertainty.MonteCarlo;
+import uk.hpkns.paintcalculator.uncertainty.Percentiles;
+import uk.hpkns.paintcalculator.uncertainty.Tolerance;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time to estimate the spread in paint for a room with {@link MonteCarlo}, on one thread and on the common pool.
+ * Both give the same percentiles.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MonteCarloBenchmark {
+    @Param({"1000000"})
+    public int samples;
+
+    @Param({"4", "20"})
+    public int walls;
+
+    private WallStore store;
+    private MonteCarlo monteCarlo;
+    private ForkJoinPool single;
+
+    @Setup
+    public void setup() {
+        store = Datasets.store(walls, 4);
+        monteCarlo = new MonteCarlo(new Tolerance(0.03, 0.01), samples, Datasets.SEED);
+        single = new ForkJoinPool(1);
+    }
+
+    @TearDown
+    public void tearDown() {
+        single.shutdown();
+    }
+
+    @Benchmark
+    public Percentiles singleThread() {
+        return monteCarlo.litres(store, 2, single);
+    }
+
+    @Benchmark
+    public Percentiles commonPool() {
+        return monteCarlo.litres(store, 2);
+    }
+}
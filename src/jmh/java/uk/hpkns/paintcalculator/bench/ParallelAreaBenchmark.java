@@ -0,0 +1,48 @@
+package uk.hpkns.paintcalculator.bench;
+
+import org.openjdk.jmh.annotations.*;
+import uk.hpkns.paintcalculator.geometry.ParallelArea;
+import uk.hpkns.paintcalculator.geometry.WallStore;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Scaling of {@link ParallelArea} with the number of fork-join threads, to compare against the single-threaded
+ * {@link AreaBenchmark}. Pass {@code -p threads=...} to match the cores of the machine.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ParallelAreaBenchmark {
+    @Param({"1000000"})
+    public int walls;
+
+    @Param({"10"})
+    public int maxObstructions;
+
+    @Param({"1", "2", "4", "8", "16", "32"})
+    public int threads;
+
+    private WallStore store;
+    private ForkJoinPool pool;
+
+    @Setup
+    public void setup() {
+        store = Datasets.store(walls, maxObstructions);
+        pool = new ForkJoinPool(threads);
+    }
+
+    @TearDown
+    public void tearDown() {
+        pool.shutdown();
+    }
+
+    @Benchmark
+    public double forkJoin() {
+        return ParallelArea.totalArea(store, pool);
+    }
+}
@@ -0,0 +1,67 @@
+package uk.hpkns.paintcalculator.bench;
+
+import org.openjdk.jmh.annotations.*;
+import uk.hpkns.paintcalculator.batch.BatchEstimator;
+import uk.hpkns.paintcalculator.batch.CsvWallReader;
+import uk.hpkns.paintcalculator.io.MappedProject;
+import uk.hpkns.paintcalculator.io.ProjectFile;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time to open and total a project, from a mapped project file against parsing the same walls from CSV.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class ProjectFileBenchmark {
+    @Param({"100000", "1000000"})
+    public int walls;
+
+    @Param({"10"})
+    public int maxObstructions;
+
+    private Path csv;
+    private Path project;
+
+    @Setup
+    public void setup() throws IOException {
+        csv = Files.createTempFile("walls", ".csv");
+        Datasets.writeCsv(csv, walls, maxObstructions);
+        project = Files.createTempFile("walls", ProjectFile.EXTENSION);
+        ProjectFile.save(project, Datasets.store(walls, maxObstructions));
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(csv);
+        Files.deleteIfExists(project);
+    }
+
+    @Benchmark
+    public double mapped() throws IOException {
+        return MappedProject.open(project).totalArea();
+    }
+
+    @Benchmark
+    public int loadIntoStore() throws IOException {
+        return ProjectFile.load(project).size();
+    }
+
+    @Benchmark
+    public double csv() throws IOException {
+        BatchEstimator estimator = new BatchEstimator(1, 0);
+        try (CsvWallReader reader = new CsvWallReader(Files.newBufferedReader(csv, StandardCharsets.UTF_8))) {
+            estimator.estimate(reader, Writer.nullWriter());
+        }
+        return estimator.getTotalArea();
+    }
+}
@@ -0,0 +1,97 @@
+package uk.hpkns.paintcalculator.bench;
+
+import uk.hpkns.paintcalculator.server.QuoteServer;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A local load test for the quote server. Requests are sent at a fixed rate, whether or not earlier ones have been
+ * answered, and the latency percentiles are reported at the end.
+ * <pre>java -cp target/benchmarks.jar uk.hpkns.paintcalculator.bench.QuoteLoadTest [rate] [seconds] [url]</pre>
+ * The rate defaults to 2000 requests per second for 10 seconds. Without a URL, a server is started in-process on a
+ * free port.
+ */
+public class QuoteLoadTest {
+    private static final String REQUEST = "{\"coats\":2,\"canSize\":2.5,\"rooms\":["
+            + "{\"walls\":[{\"width\":4,\"height\":2.4,\"obstructions\":[{\"shape\":\"rectangular\",\"width\":0.9,\"height\":2}]},"
+            + "{\"width\":3,\"height\":2.4,\"obstructions\":[{\"shape\":\"oval\",\"semiMajor\":0.5,\"semiMinor\":0.3}]},"
+            + "{\"width\":4,\"height\":2.4},{\"width\":3,\"height\":2.4}]},"
+            + "{\"walls\":[{\"width\":2.5,\"height\":2.4,\"obstructions\":[{\"shape\":\"circular\",\"radius\":0.2}]},"
+            + "{\"width\":2,\"height\":2.4},{\"width\":2.5,\"height\":2.4},{\"width\":2,\"height\":2.4}]}]}";
+
+    public static void main(String[] args) throws Exception {
+        int rate = args.length > 0 ? Integer.parseInt(args[0]) : 2000;
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+
+        QuoteServer server = null;
+        URI uri;
+        if (args.length > 2) {
+            uri = URI.create(args[2]);
+        } else {
+            server = new QuoteServer(0);
+            uri = URI.create("http://localhost:" + server.getPort() + "/quote");
+        }
+
+        HttpClient client = HttpClient.newBuilder()
+                .executor(Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors()))
+                .build();
+        HttpRequest request = HttpRequest.newBuilder(uri)
+                .timeout(Duration.ofSeconds(30))
+                .POST(HttpRequest.BodyPublishers.ofString(REQUEST))
+                .build();
+
+        // Warm up the server and client
+        for (int i = 0; i < 2000; i++) {
+            client.send(request, HttpResponse.BodyHandlers.discarding());
+        }
+
+        int total = rate * seconds;
+        long[] latencies = new long[total];
+        AtomicInteger errors = new AtomicInteger();
+        CompletableFuture<?>[] futures = new CompletableFuture<?>[total];
+        long interval = TimeUnit.SECONDS.toNanos(1) / rate;
+        long start = System.nanoTime();
+        for (int i = 0; i < total; i++) {
+            long due = start + i * interval;
+            long wait;
+            while ((wait = due - System.nanoTime()) > 0) {
+                TimeUnit.NANOSECONDS.sleep(Math.min(wait, 1_000_000));
+            }
+
+            int index = i;
+            // Measured from when the request was due, so a stalled sender doesn't hide queueing
+            futures[i] = client.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                    .whenComplete((response, error) -> {
+                        latencies[index] = System.nanoTime() - due;
+                        if (error != null || response.statusCode() != 200)
+                            errors.incrementAndGet();
+                    });
+        }
+        CompletableFuture.allOf(futures).exceptionally(e -> null).join();
+        double elapsed = (System.nanoTime() - start) / 1e9;
+
+        Arrays.sort(latencies);
+        System.out.printf("%d requests in %.1f s (%.0f req/s), %d errors%n", total, elapsed, total / elapsed,
+                errors.get());
+        System.out.printf("p50 %.2f ms, p90 %.2f ms, p99 %.2f ms, max %.2f ms%n",
+                percentile(latencies, 0.50), percentile(latencies, 0.90), percentile(latencies, 0.99),
+                latencies[total - 1] / 1e6);
+
+        if (server != null)
+            server.stop();
+        System.exit(0);
+    }
+
+    private static double percentile(long[] sorted, double p) {
+        return sorted[(int) Math.min(sorted.length - 1, Math.ceil(p * sorted.length) - 1)] / 1e6;
+    }
+}
@@ -0,0 +1,82 @@
+package uk.hpkns.paintcalculator.bench;
+
+import org.openjdk.jmh.annotations.*;
+import uk.hpkns.paintcalculator.building.Building;
+import uk.hpkns.paintcalculator.building.Floor;
+import uk.hpkns.paintcalculator.building.Room;
+import uk.hpkns.paintcalculator.building.RollUp;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Totalling a building after every room has changed, on one thread and across a pool, against totalling it after a
+ * single wall has changed. The default building has 5000 rooms and 40000 walls.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RollUpBenchmark {
+    @State(Scope.Benchmark)
+    public static class Tree {
+        @Param({"20"})
+        public int floors;
+
+        @Param({"250"})
+        public int rooms;
+
+        @Param({"8"})
+        public int walls;
+
+        @Param({"4"})
+        public int threads;
+
+        Building building;
+        ForkJoinPool pool;
+        SplittableRandom random = new SplittableRandom(Datasets.SEED);
+
+        @Setup
+        public void setup() {
+            building = Datasets.building(floors, rooms, walls, 10);
+            pool = new ForkJoinPool(threads);
+        }
+
+        @TearDown
+        public void tearDown() {
+            pool.shutdown();
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class AllChanged {
+        @Setup(Level.Invocation)
+        public void touch(Tree tree) {
+            for (Floor floor : tree.building.children()) {
+                for (Room room : floor.children()) {
+                    room.set(0, room.walls().get(0));
+                }
+            }
+        }
+    }
+
+    @Benchmark
+    public double sequential(Tree tree, AllChanged changed) {
+        return tree.building.area();
+    }
+
+    @Benchmark
+    public double parallel(Tree tree, AllChanged changed) {
+        return RollUp.refresh(tree.building, tree.pool);
+    }
+
+    @Benchmark
+    public double oneWallChanged(Tree tree) {
+        Floor floor = tree.building.get(tree.random.nextInt(tree.floors));
+        Room room = floor.get(tree.random.nextInt(tree.rooms));
+        room.set(0, room.walls().get(0));
+        return tree.building.area();
+    }
+}
@@ -0,0 +1,89 @@
+package uk.hpkns.paintcalculator.bench;
+
+import org.openjdk.jmh.annotations.*;
+import uk.hpkns.paintcalculator.server.QuoteService;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Quoting a building made of a few flat layouts repeated many times, as a surveyor would enter them: each flat's
+ * walls are listed in a different order. Compares {@link QuoteService} with and without a room cache, for
+ * obstructions placed on the wall, whose union is costly, and for ones which aren't, where parsing dominates.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RoomCacheBenchmark {
+    @Param({"1000"})
+    public int rooms;
+
+    @Param({"20"})
+    public int layouts;
+
+    @Param({"40"})
+    public int obstructionsPerWall;
+
+    @Param({"true", "false"})
+    public boolean placed;
+
+    private String request;
+    private QuoteService uncached;
+    private QuoteService cached;
+
+    @Setup
+    public void setup() {
+        SplittableRandom random = new SplittableRandom(Datasets.SEED);
+        List<List<String>> flats = new ArrayList<>(layouts);
+        for (int i = 0; i < layouts; i++) {
+            List<String> walls = new ArrayList<>();
+            for (int w = 0; w < 4 + random.nextInt(5); w++) {
+                StringBuilder wall = new StringBuilder(String.format(Locale.ROOT,
+                        "{\"width\":%.2f,\"height\":2.4,\"obstructions\":[", 2 + random.nextDouble(4)));
+                for (int o = 0; o < obstructionsPerWall; o++) {
+                    if (o > 0)
+                        wall.append(',');
+                    wall.append(String.format(Locale.ROOT,
+                            "{\"shape\":\"oval\",\"semiMajor\":%.3f,\"semiMinor\":%.3f",
+                            0.01 + random.nextDouble(0.05), 0.01 + random.nextDouble(0.05)));
+                    if (placed)
+                        wall.append(String.format(Locale.ROOT, ",\"x\":%.2f,\"y\":%.2f",
+                                0.3 + random.nextDouble(1.5), 0.3 + random.nextDouble(1.8)));
+                    wall.append('}');
+                }
+                walls.add(wall.append("]}").toString());
+            }
+            flats.add(walls);
+        }
+
+        StringBuilder sb = new StringBuilder("{\"coats\":2,\"canSize\":2.5,\"rooms\":[");
+        for (int i = 0; i < rooms; i++) {
+            List<String> walls = new ArrayList<>(flats.get(random.nextInt(layouts)));
+            Collections.shuffle(walls, new java.util.Random(random.nextLong()));
+            if (i > 0)
+                sb.append(',');
+            sb.append("{\"walls\":[").append(String.join(",", walls)).append("]}");
+        }
+        request = sb.append("]}").toString();
+
+        uncached = new QuoteService();
+        cached = new QuoteService(1000);
+    }
+
+    @Benchmark
+    public String uncached() {
+        return uncached.quote(request);
+    }
+
+    @Benchmark
+    public String cached() {
+        return cached.quote(request);
+    }
+}
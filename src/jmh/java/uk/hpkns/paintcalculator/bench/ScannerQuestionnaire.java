@@ -0,0 +1,68 @@
+package uk.hpkns.paintcalculator.bench;
+
+import uk.hpkns.paintcalculator.Paint;
+import uk.hpkns.paintcalculator.geometry.*;
+
+import java.io.InputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Scanner;
+
+/**
+ * The questionnaire's {@link Scanner} and prompt loop, kept as a baseline for the scripted input benchmark. It reads
+ * the same answers as {@link uk.hpkns.paintcalculator.script.Script}, room after room, printing every prompt.
+ */
+final class ScannerQuestionnaire {
+    private ScannerQuestionnaire() {
+    }
+
+    static double run(InputStream in, PrintStream out) {
+        Scanner scanner = new Scanner(in).useLocale(Locale.ROOT);
+        double total = 0d;
+        while (scanner.hasNext()) {
+            out.print("How many walls are there?: ");
+            int numWalls = scanner.nextInt();
+            List<Wall> walls = new ArrayList<>(numWalls);
+            for (int i = 0; i < numWalls; i++) {
+                walls.add(askWall(scanner, out, i));
+            }
+            while (true) {
+                out.printf("Enter number of wall to edit, or %d to continue: ", numWalls + 1);
+                int option = scanner.nextInt();
+                if (option > numWalls || option <= 0)
+                    break;
+                walls.set(option - 1, askWall(scanner, out, option - 1));
+            }
+            out.print("Please enter how many coats of paint you want: ");
+            int coats = scanner.nextInt();
+            double litres = Paint.litres(Wall.totalArea(walls), coats);
+            out.print("Please enter how big your paint cans are (litres): ");
+            double canSize = scanner.nextDouble();
+            out.printf("You will need %d cans (%.2f litres)!\n", Paint.cans(litres, canSize), litres);
+            total += litres;
+        }
+        return total;
+    }
+
+    private static Wall askWall(Scanner scanner, PrintStream out, int index) {
+        out.printf("Wall %d\n", index + 1);
+        out.print("Please enter the width of the wall (metres): ");
+        double width = scanner.nextDouble();
+        out.print("Please enter the height of the wall (metres): ");
+        double height = scanner.nextDouble();
+        out.print("How many obstructions are there?: ");
+        int numObstructions = scanner.nextInt();
+        List<Shape> obstructions = new ArrayList<>(numObstructions);
+        for (int i = 0; i < numObstructions; i++) {
+            out.println("What is the shape of the obstruction? 1 - rectangular (or square), 2 - circular, 3 - oval");
+            obstructions.add(switch (scanner.nextInt()) {
+                case Shape.RECTANGULAR -> new Rectangle(scanner.nextDouble(), scanner.nextDouble());
+                case Shape.CIRCULAR -> new Circle(scanner.nextDouble());
+                default -> new Oval(scanner.nextDouble(), scanner.nextDouble());
+            });
+        }
+        return new Wall(width, height, obstructions);
+    }
+}
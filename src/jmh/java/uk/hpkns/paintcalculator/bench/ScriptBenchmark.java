@@ -0,0 +1,43 @@
+package uk.hpkns.paintcalculator.bench;
+
+import org.openjdk.jmh.annotations.*;
+import uk.hpkns.paintcalculator.script.Script;
+
+import java.io.ByteArrayInputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time to answer the questionnaire for rooms piped in one after another, through {@link java.util.Scanner} with its
+ * prompts and through the quiet {@link Script} mode. Output goes nowhere.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ScriptBenchmark {
+    @Param({"10000"})
+    public int rooms;
+
+    private byte[] answers;
+    private PrintStream nowhere;
+
+    @Setup
+    public void setup() {
+        answers = Datasets.script(rooms, 4, 4);
+        nowhere = new PrintStream(OutputStream.nullOutputStream());
+    }
+
+    @Benchmark
+    public double scanner() {
+        return ScannerQuestionnaire.run(new ByteArrayInputStream(answers), nowhere);
+    }
+
+    @Benchmark
+    public int script() {
+        return Script.run(new ByteArrayInputStream(answers), OutputStream.nullOutputStream(), nowhere);
+    }
+}
@@ -0,0 +1,53 @@
+package uk.hpkns.paintcalculator.bench;
+
+import org.openjdk.jmh.annotations.*;
+import uk.hpkns.paintcalculator.geometry.SimdArea;
+import uk.hpkns.paintcalculator.geometry.WallStore;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time to calculate every wall's area one by one and with {@link SimdArea}. The default sizes have around 1 and 5
+ * million obstructions. The fork adds {@code jdk.incubator.vector}, so build with {@code -P simd,jmh} to measure the
+ * vector kernel; {@code -jvmArgs ""} or the jmh profile alone runs the scalar fallback instead.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"--add-modules", "jdk.incubator.vector"})
+public class SimdAreaBenchmark {
+    @Param({"200000", "1000000"})
+    public int walls;
+
+    @Param({"10"})
+    public int maxObstructions;
+
+    private WallStore store;
+    private SimdArea simd;
+    private double[] areas;
+
+    @Setup
+    public void setup() {
+        store = Datasets.store(walls, maxObstructions);
+        simd = new SimdArea();
+        areas = new double[walls];
+        if (!SimdArea.isAvailable())
+            System.err.println("Vector API not available; measuring the scalar fallback");
+    }
+
+    @Benchmark
+    public double[] scalar() {
+        for (int i = 0; i < store.size(); i++) {
+            areas[i] = store.area(i);
+        }
+        return areas;
+    }
+
+    @Benchmark
+    public double[] vector() {
+        simd.areas(store, areas);
+        return areas;
+    }
+}
@@ -0,0 +1,60 @@
+package uk.hpkns.paintcalculator.bench;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Measures the time from launching a command to its first byte of output, which is what a script driving the
+ * calculator waits for.
+ * <pre>java -cp target/benchmarks.jar uk.hpkns.paintcalculator.bench.StartupTime [runs] [input-file] -- command...</pre>
+ * The command's standard input is read from the input file if one is given, otherwise it is empty. For example, to
+ * compare starting with and without the AppCDS archive:
+ * <pre>
+ * ... StartupTime 20 -- java -jar target/paintcalculator-1.0-SNAPSHOT-jar-with-dependencies.jar --batch walls.csv
+ * ... StartupTime 20 -- java -XX:SharedArchiveFile=target/paintcalculator.jsa -jar ... --batch walls.csv
+ * </pre>
+ */
+public class StartupTime {
+    public static void main(String[] args) throws IOException, InterruptedException {
+        int separator = Arrays.asList(args).indexOf("--");
+        if (separator < 0 || separator == args.length - 1) {
+            System.err.println("Usage: StartupTime [runs] [input-file] -- command...");
+            System.exit(2);
+        }
+        int runs = separator > 0 ? Integer.parseInt(args[0]) : 10;
+        File input = new File(separator > 1 ? args[1] : "/dev/null");
+        List<String> command = Arrays.asList(args).subList(separator + 1, args.length);
+
+        // One untimed run to warm the file cache
+        time(command, input);
+
+        long[] times = new long[runs];
+        for (int i = 0; i < runs; i++) {
+            times[i] = time(command, input);
+        }
+        Arrays.sort(times);
+        System.out.printf("%d runs: min %.1f ms, median %.1f ms, max %.1f ms%n", runs,
+                times[0] / 1e6, times[runs / 2] / 1e6, times[runs - 1] / 1e6);
+    }
+
+    private static long time(List<String> command, File input) throws IOException, InterruptedException {
+        long start = System.nanoTime();
+        Process process = new ProcessBuilder(command)
+                .redirectErrorStream(true)
+                .redirectInput(input)
+                .start();
+        long elapsed;
+        try (InputStream in = process.getInputStream()) {
+            if (in.read() < 0)
+                throw new IOException("The command produced no output");
+            elapsed = System.nanoTime() - start;
+        }
+        // The rest of the run isn't being measured
+        process.destroy();
+        process.waitFor();
+        return elapsed;
+    }
+}
@@ -0,0 +1,50 @@
+package uk.hpkns.paintcalculator.bench;
+
+import org.openjdk.jmh.annotations.*;
+import uk.hpkns.paintcalculator.geometry.Shape;
+import uk.hpkns.paintcalculator.geometry.WallStore;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time to calculate the area of a facade with thousands of placed obstructions, counting overlaps once. On the grid
+ * few obstructions overlap, so most skip the sweep; scattered, most overlap and nearly all go through it.
+ * {@code summed} is the old calculation, which subtracts overlaps twice, for comparison.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UnionAreaBenchmark {
+    @Param({"10000", "100000"})
+    public int obstructions;
+
+    @Param({"false", "true"})
+    public boolean curved;
+
+    @Param({"true", "false"})
+    public boolean grid;
+
+    private WallStore store;
+
+    @Setup
+    public void setup() {
+        store = Datasets.facade(obstructions, curved, grid);
+    }
+
+    @Benchmark
+    public double union() {
+        return store.area(0);
+    }
+
+    @Benchmark
+    public double summed() {
+        double area = store.grossArea(0);
+        for (int j = 0; j < store.obstructionCount(); j++) {
+            area -= Shape.area(store.tag(j), store.dimA(j), store.dimB(j));
+        }
+        return area;
+    }
+}
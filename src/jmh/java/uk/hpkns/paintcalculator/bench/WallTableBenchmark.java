@@ -0,0 +1,167 @@
+package uk.hpkns.paintcalculator.bench;
+
+import com.googlecode.lanterna.TerminalSize;
+import com.googlecode.lanterna.gui2.BasicWindow;
+import com.googlecode.lanterna.gui2.MultiWindowTextGUI;
+import com.googlecode.lanterna.gui2.table.Table;
+import com.googlecode.lanterna.input.KeyStroke;
+import com.googlecode.lanterna.input.KeyType;
+import com.googlecode.lanterna.screen.TerminalScreen;
+import com.googlecode.lanterna.terminal.virtual.DefaultVirtualTerminal;
+import org.openjdk.jmh.annotations.*;
+import uk.hpkns.paintcalculator.geometry.Shape;
+import uk.hpkns.paintcalculator.geometry.Wall;
+import uk.hpkns.paintcalculator.geometry.WallList;
+import uk.hpkns.paintcalculator.gui.VirtualTable;
+
+import java.io.IOException;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time to page through, jump about and open walls in the GUI's table of walls, drawn to Lanterna's virtual terminal
+ * as a script of key presses. {@code legacy} pages through a {@link Table} holding every wall as strings, as the GUI
+ * used to.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class WallTableBenchmark {
+    private static final int PAGE_SIZE = 15;
+    private static final KeyStroke PAGE_DOWN = new KeyStroke(KeyType.PageDown);
+
+    /**
+     * A screen on a virtual terminal, drawn on the benchmark's thread.
+     */
+    @State(Scope.Benchmark)
+    public static class Screen {
+        @Param({"100000"})
+        public int walls;
+
+        WallList wallList;
+        MultiWindowTextGUI gui;
+        SplittableRandom random;
+
+        @Setup
+        public void setup() throws IOException {
+            wallList = new WallList();
+            wallList.addAll(Datasets.store(walls, 4));
+            TerminalScreen screen = new TerminalScreen(new DefaultVirtualTerminal(new TerminalSize(100, 40)));
+            screen.startScreen();
+            gui = new MultiWindowTextGUI(screen);
+            random = new SplittableRandom(Datasets.SEED);
+        }
+
+        void show(com.googlecode.lanterna.gui2.Component component) {
+            BasicWindow window = new BasicWindow();
+            window.setComponent(component);
+            gui.addWindow(window);
+        }
+    }
+
+    /**
+     * The table of walls.
+     */
+    @State(Scope.Benchmark)
+    public static class Virtual {
+        VirtualTable table;
+        Wall facade;
+
+        @Setup
+        public void setup(Screen screen) {
+            WallList wallList = screen.wallList;
+            table = new VirtualTable(new VirtualTable.Rows() {
+                @Override
+                public int size() {
+                    return wallList.size();
+                }
+
+                @Override
+                public String cell(int row, int column) {
+                    Wall wall = wallList.get(row);
+                    return switch (column) {
+                        case 0 -> String.valueOf(row + 1);
+                        case 1 -> String.valueOf(wall.width());
+                        case 2 -> String.valueOf(wall.height());
+                        default -> String.valueOf(wall.obstructions().size());
+                    };
+                }
+            }, "Wall", "Width", "Height", "# Obstructions").setPageSize(PAGE_SIZE);
+            screen.show(table);
+            facade = Datasets.facade(10_000, true, true).wall(0);
+        }
+    }
+
+    /**
+     * The same walls held as strings in a Lanterna table.
+     */
+    @State(Scope.Benchmark)
+    public static class Legacy {
+        Table<String> table;
+
+        @Setup
+        public void setup(Screen screen) {
+            table = new Table<>("Width", "Height", "# Obstructions");
+            table.setVisibleRows(PAGE_SIZE);
+            for (Wall wall : screen.wallList.walls()) {
+                table.getTableModel().addRow(String.valueOf(wall.width()), String.valueOf(wall.height()),
+                        String.valueOf(wall.obstructions().size()));
+            }
+            screen.show(table);
+        }
+    }
+
+    @Benchmark
+    public int pageDown(Screen screen, Virtual virtual) throws IOException {
+        if (virtual.table.getSelectedRow() >= screen.walls - PAGE_SIZE)
+            virtual.table.setSelectedRow(0);
+        virtual.table.handleInput(PAGE_DOWN);
+        screen.gui.updateScreen();
+        return virtual.table.getSelectedRow();
+    }
+
+    @Benchmark
+    public int jump(Screen screen, Virtual virtual) throws IOException {
+        virtual.table.setSelectedRow(screen.random.nextInt(screen.walls));
+        screen.gui.updateScreen();
+        return virtual.table.getSelectedRow();
+    }
+
+    /**
+     * Open a facade with 10,000 obstructions in the table the wall detail dialog uses, and close it again.
+     */
+    @Benchmark
+    public int openWall(Screen screen, Virtual virtual) throws IOException {
+        Wall facade = virtual.facade;
+        VirtualTable obstructions = new VirtualTable(new VirtualTable.Rows() {
+            @Override
+            public int size() {
+                return facade.obstructions().size();
+            }
+
+            @Override
+            public String cell(int row, int column) {
+                Shape obs = facade.obstructions().get(row);
+                return column == 0 ? Shape.name(obs.tag()) : obs.describe();
+            }
+        }, "Obstruction Type", "Size").setPageSize(PAGE_SIZE);
+        BasicWindow window = new BasicWindow();
+        window.setComponent(obstructions);
+        screen.gui.addWindow(window);
+        screen.gui.updateScreen();
+        window.close();
+        return obstructions.getSelectedRow();
+    }
+
+    @Benchmark
+    public int legacy(Screen screen, Legacy legacy) throws IOException {
+        Table<String> table = legacy.table;
+        if (table.getSelectedRow() >= screen.walls - PAGE_SIZE)
+            table.setSelectedRow(0);
+        table.handleInput(PAGE_DOWN);
+        screen.gui.updateScreen();
+        return table.getSelectedRow();
+    }
+}
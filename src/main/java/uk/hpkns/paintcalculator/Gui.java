@@ -0,0 +1,357 @@
+package uk.hpkns.paintcalculator;
+
+import com.googlecode.lanterna.TextColor;
+import com.googlecode.lanterna.gui2.*;
+import com.googlecode.lanterna.gui2.dialogs.ActionListDialogBuilder;
+import com.googlecode.lanterna.gui2.dialogs.MessageDialog;
+import com.googlecode.lanterna.gui2.dialogs.MessageDialogBuilder;
+import com.googlecode.lanterna.gui2.dialogs.MessageDialogButton;
+import com.googlecode.lanterna.gui2.dialogs.TextInputDialogBuilder;
+import com.googlecode.lanterna.screen.Screen;
+import com.googlecode.lanterna.screen.TerminalScreen;
+import com.googlecode.lanterna.terminal.DefaultTerminalFactory;
+import com.googlecode.lanterna.terminal.Terminal;
+
+import uk.hpkns.paintcalculator.geometry.*;
+import uk.hpkns.paintcalculator.gui.VirtualTable;
+import uk.hpkns.paintcalculator.io.ProjectFile;
+
+import java.io.IOException;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * The terminal based GUI. This is kept apart from {@link Main} so that the text, batch and server modes never load
+ * any terminal or GUI classes.
+ */
+final class Gui {
+    /**
+     * The number of rows shown at once in the tables of walls and obstructions.
+     */
+    private static final int PAGE_SIZE = 15;
+
+    private Gui() {
+    }
+
+    /**
+     * Show the paint calculator using a terminal based GUI, with Swing support for non-terminal backends.
+     * @throws IOException If the terminal couldn't be written to freely.
+     */
+    static void show() throws IOException {
+        WallList wallList = new WallList();
+
+        Terminal term = new DefaultTerminalFactory().createTerminal();
+        Screen screen = new TerminalScreen(term);
+        screen.startScreen();
+        final MultiWindowTextGUI gui = new MultiWindowTextGUI(screen, new DefaultWindowManager(), new EmptySpace(TextColor.ANSI.BLUE));
+
+        // Main window
+        BasicWindow window = new BasicWindow();
+        window.setTitle("Paint Calculator");
+        Panel panel = new Panel();
+        panel.setLayoutManager(new GridLayout(1));
+
+        // Only the visible rows are formatted, straight from the wall list
+        final VirtualTable table = new VirtualTable(new VirtualTable.Rows() {
+            @Override
+            public int size() {
+                return wallList.size();
+            }
+
+            @Override
+            public String cell(int row, int column) {
+                Wall wall = wallList.get(row);
+                return switch (column) {
+                    case 0 -> String.valueOf(row + 1);
+                    case 1 -> String.valueOf(wall.width());
+                    case 2 -> String.valueOf(wall.height());
+                    default -> String.valueOf(wall.obstructions().size());
+                };
+            }
+        }, "Wall", "Width", "Height", "# Obstructions").setPageSize(PAGE_SIZE);
+        wallList.addListener(table::invalidate);
+
+        // Wall detail panel
+        table.setSelectAction(() -> {
+            int index = table.getSelectedRow();
+            if (index < 0) return;
+            Wall wall = wallList.get(index);
+
+            BasicWindow dlg = new BasicWindow();
+            dlg.setHints(List.of(Window.Hint.MODAL, Window.Hint.CENTERED));
+            Panel pnl = new Panel();
+            pnl.setLayoutManager(new GridLayout(2));
+
+            pnl.addComponent(new Label(String.format("Wall %d", index + 1)));
+            Button btnDelete = new Button("Delete Wall");
+            btnDelete.addListener(button -> {
+                if (new MessageDialogBuilder()
+                        .setTitle("Deleting wall!")
+                        .setText("Are you sure you want to delete this?")
+                        .addButton(MessageDialogButton.Yes)
+                        .addButton(MessageDialogButton.Cancel)
+                        .build()
+                        .showDialog(gui) != MessageDialogButton.Yes)
+                    return;
+
+                wallList.remove(index);
+                dlg.close();
+            });
+            pnl.addComponent(btnDelete);
+
+            pnl.addComponent(new Label("Width"));
+            pnl.addComponent(new Label(String.valueOf(wall.width())));
+
+            pnl.addComponent(new Label("Height"));
+            pnl.addComponent(new Label(String.valueOf(wall.height())));
+
+            VirtualTable tblObs = new VirtualTable(new VirtualTable.Rows() {
+                @Override
+                public int size() {
+                    return wallList.get(index).obstructions().size();
+                }
+
+                @Override
+                public String cell(int row, int column) {
+                    Shape obs = wallList.get(index).obstructions().get(row);
+                    return column == 0 ? Shape.name(obs.tag()) : obs.describe();
+                }
+            }, "Obstruction Type", "Size").setPageSize(PAGE_SIZE);
+            tblObs.setSelectAction(() -> {
+                if (new MessageDialogBuilder()
+                        .setTitle("Deleting obstruction!")
+                        .setText("Are you sure you want to delete this?")
+                        .addButton(MessageDialogButton.Yes)
+                        .addButton(MessageDialogButton.Cancel)
+                        .build()
+                        .showDialog(gui) != MessageDialogButton.Yes)
+                    return;
+
+                wallList.removeObstruction(index, tblObs.getSelectedRow());
+                tblObs.invalidate();
+            });
+
+            // Add obstructions
+            Button btnAddObs = new Button("Add Obstruction");
+            btnAddObs.addListener(button -> new ActionListDialogBuilder()
+                    .setTitle("Add Obstruction")
+                    .setDescription("Choose shape")
+                    .addAction("Rectangular", () -> {
+                        String width = new TextInputDialogBuilder()
+                                .setTitle("Add Obstruction")
+                                .setDescription("Enter obstruction width in metres")
+                                .setValidationPattern(Pattern.compile("[\\d.]+"), "You must enter a number!")
+                                .build()
+                                .showDialog(gui);
+                        if (width == null) return;
+
+                        String height = new TextInputDialogBuilder()
+                                .setTitle("Add Obstruction")
+                                .setDescription("Enter obstruction height in metres")
+                                .setValidationPattern(Pattern.compile("[\\d.]+"), "You must enter a number!")
+                                .build()
+                                .showDialog(gui);
+                        if (height == null) return;
+
+                        addObstruction(tblObs, wallList, index,
+                                new Rectangle(Double.parseDouble(width), Double.parseDouble(height)));
+                    })
+                    .addAction("Circular", () -> {
+                        String radius = new TextInputDialogBuilder()
+                                .setTitle("Add Obstruction")
+                                .setDescription("Enter obstruction radius in metres")
+                                .setValidationPattern(Pattern.compile("[\\d.]+"), "You must enter a number!")
+                                .build()
+                                .showDialog(gui);
+                        if (radius == null) return;
+
+                        addObstruction(tblObs, wallList, index,
+                                new Circle(Double.parseDouble(radius)));
+                    })
+                    .addAction("Oval", () -> {
+                        String semiMajor = new TextInputDialogBuilder()
+                                .setTitle("Add Obstruction")
+                                .setDescription("Enter obstruction semi-major axis in metres")
+                                .setValidationPattern(Pattern.compile("[\\d.]+"), "You must enter a number!")
+                                .build()
+                                .showDialog(gui);
+                        if (semiMajor == null) return;
+
+                        String semiMinor = new TextInputDialogBuilder()
+                                .setTitle("Add Obstruction")
+                                .setDescription("Enter obstruction semi-minor axis in metres")
+                                .setValidationPattern(Pattern.compile("[\\d.]+"), "You must enter a number!")
+                                .build()
+                                .showDialog(gui);
+                        if (semiMinor == null) return;
+
+                        addObstruction(tblObs, wallList, index,
+                                new Oval(Double.parseDouble(semiMajor), Double.parseDouble(semiMinor)));
+                    })
+                    .build()
+                    .showDialog(gui));
+            pnl.addComponent(btnAddObs);
+
+            Button btnOk = new Button("OK");
+            btnOk.addListener(button -> dlg.close());
+            pnl.addComponent(btnOk);
+
+            pnl.addComponent(tblObs, GridLayout.createHorizontallyFilledLayoutData());
+
+            dlg.setComponent(pnl);
+            gui.addWindow(dlg);
+        });
+
+        // Add a wall
+        Button btnAdd = new Button("Add");
+        btnAdd.addListener(button -> {
+            String width = new TextInputDialogBuilder()
+                    .setTitle("Add Wall")
+                    .setDescription("Enter wall width in metres")
+                    .setValidationPattern(Pattern.compile("[\\d.]+"), "You must enter a number!")
+                    .build()
+                    .showDialog(gui);
+            if (width == null) return;
+
+            String height = new TextInputDialogBuilder()
+                    .setTitle("Add Wall")
+                    .setDescription("Enter wall height in metres")
+                    .setValidationPattern(Pattern.compile("[\\d.]+"), "You must enter a number!")
+                    .build()
+                    .showDialog(gui);
+            if (height == null) return;
+
+            wallList.add(new Wall(Double.parseDouble(width), Double.parseDouble(height)));
+            table.setSelectedRow(wallList.size() - 1);
+        });
+        panel.addComponent(btnAdd);
+
+        // Jump to a wall by its number
+        Button btnGoTo = new Button("Go to...");
+        btnGoTo.addListener(button -> {
+            String number = new TextInputDialogBuilder()
+                    .setTitle("Go to Wall")
+                    .setDescription(String.format("Enter wall number, 1 to %d", wallList.size()))
+                    .setValidationPattern(Pattern.compile("\\d+"), "You must enter a number!")
+                    .build()
+                    .showDialog(gui);
+            if (number == null) return;
+
+            // Any number past the last wall, even one too big for a long, goes to the last wall
+            long row;
+            try {
+                row = Long.parseLong(number);
+            } catch (NumberFormatException e) {
+                row = Long.MAX_VALUE;
+            }
+            table.setSelectedRow((int) Math.min(row - 1, wallList.size() - 1));
+            table.takeFocus();
+        });
+        panel.addComponent(btnGoTo);
+        panel.addComponent(table);
+
+        // Running total, kept up to date by the wall list as walls and obstructions change
+        Label lblTotal = new Label(String.format("Total area: %.2f m²", 0d));
+        wallList.addListener(() -> lblTotal.setText(String.format("Total area: %.2f m²", wallList.totalArea())));
+        panel.addComponent(lblTotal);
+
+        // Calculate paint needed
+        Button btnCalc = new Button("Calculate...");
+        btnCalc.addListener(button -> {
+            double totalArea = wallList.totalArea();
+
+            String coats = new TextInputDialogBuilder()
+                    .setTitle("Coats")
+                    .setDescription("How many coats of paint?")
+                    .setValidationPattern(Pattern.compile("\\d+"), "You must enter a number!")
+                    .build()
+                    .showDialog(gui);
+            if (coats == null) return;
+
+            double paintQty = Paint.litres(totalArea, Integer.parseInt(coats));
+
+            String canSize = new TextInputDialogBuilder()
+                    .setTitle("Can Size")
+                    .setDescription("How big are the paint cans (lites)?")
+                    .setValidationPattern(Pattern.compile("[\\d.]+"), "You must enter a number!")
+                    .build()
+                    .showDialog(gui);
+            if (canSize == null) return;
+
+            int cans = Paint.cans(paintQty, Double.parseDouble(canSize));
+
+            new MessageDialogBuilder()
+                    .setTitle("Computation finished")
+                    .setText(String.format("%.3f litres of paint needed!\nEquating to %d paint can(s).", paintQty, cans))
+                    .build()
+                    .showDialog(gui);
+        });
+        panel.addComponent(btnCalc);
+
+        // Save and open project files
+        Button btnSave = new Button("Save...");
+        btnSave.addListener(button -> {
+            String file = new TextInputDialogBuilder()
+                    .setTitle("Save Project")
+                    .setDescription("Enter file name")
+                    .setInitialContent("project" + ProjectFile.EXTENSION)
+                    .build()
+                    .showDialog(gui);
+            if (file == null) return;
+
+            try {
+                ProjectFile.save(Path.of(file), WallStore.of(wallList.walls()));
+            } catch (IOException | InvalidPathException e) {
+                MessageDialog.showMessageDialog(gui, "Couldn't save", e.getMessage());
+            }
+        });
+        panel.addComponent(btnSave);
+
+        Button btnOpen = new Button("Open...");
+        btnOpen.addListener(button -> {
+            String file = new TextInputDialogBuilder()
+                    .setTitle("Open Project")
+                    .setDescription("Enter file name")
+                    .build()
+                    .showDialog(gui);
+            if (file == null) return;
+
+            WallStore store;
+            try {
+                store = ProjectFile.load(Path.of(file));
+            } catch (IOException | InvalidPathException e) {
+                MessageDialog.showMessageDialog(gui, "Couldn't open", e.getMessage());
+                return;
+            }
+
+            wallList.clear();
+            wallList.addAll(store);
+            table.setSelectedRow(0);
+        });
+        panel.addComponent(btnOpen);
+
+        Button btnExit = new Button("Exit");
+        btnExit.addListener(button -> System.exit(0));
+        panel.addComponent(btnExit);
+
+        window.setComponent(panel);
+        window.setHints(List.of(Window.Hint.CENTERED));
+
+        gui.addWindowAndWait(window);
+        System.exit(0);
+    }
+
+    /**
+     * Add an obstruction to a wall in the GUI, keeping the obstruction table in step.
+     * @param tblObs The table of the wall's obstructions.
+     * @param wallList The list of walls.
+     * @param wall The index of the wall.
+     * @param obs The obstruction.
+     */
+    private static void addObstruction(VirtualTable tblObs, WallList wallList, int wall, Shape obs) {
+        wallList.addObstruction(wall, obs);
+        tblObs.setSelectedRow(wallList.get(wall).obstructions().size() - 1);
+    }
+}
@@ -0,0 +1,34 @@
+package uk.hpkns.paintcalculator;
+
+/**
+ * The conversion from painted area to paint, shared by every way of using the calculator.
+ */
+public final class Paint {
+    /**
+     * The amount of paint needed to paint 1 square metre.
+     */
+    public static final float LITRES_PER_SQ_M = 4;
+
+    private Paint() {
+    }
+
+    /**
+     * Calculate how much paint is needed.
+     * @param area The area to paint in square metres.
+     * @param coats The number of coats.
+     * @return The paint needed in litres.
+     */
+    public static double litres(double area, int coats) {
+        return LITRES_PER_SQ_M * coats * area;
+    }
+
+    /**
+     * Calculate how many cans of paint are needed.
+     * @param litres The paint needed in litres.
+     * @param canSize The size of each can in litres.
+     * @return The number of cans.
+     */
+    public static int cans(double litres, double canSize) {
+        return (int) Math.ceil(litres / canSize);
+    }
+}
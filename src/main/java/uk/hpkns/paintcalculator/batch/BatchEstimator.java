@@ -0,0 +1,539 @@
+package uk.hpkns.paintcalculator.batch;
+
+import uk.hpkns.paintcalculator.Paint;
+import uk.hpkns.paintcalculator.cans.CanCatalogue;
+import uk.hpkns.paintcalculator.cans.CanMix;
+import uk.hpkns.paintcalculator.cans.Objective;
+import uk.hpkns.paintcalculator.geometry.MillimetreStore;
+import uk.hpkns.paintcalculator.geometry.Millimetres;
+import uk.hpkns.paintcalculator.geometry.ParallelArea;
+import uk.hpkns.paintcalculator.geometry.SimdArea;
+import uk.hpkns.paintcalculator.geometry.WallStore;
+import uk.hpkns.paintcalculator.io.MappedProject;
+import uk.hpkns.paintcalculator.io.ProjectFile;
+import uk.hpkns.paintcalculator.metrics.Counter;
+import uk.hpkns.paintcalculator.metrics.Metrics;
+import uk.hpkns.paintcalculator.metrics.Operation;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Estimates paint for a stream of wall records without any prompting. Each wall is read, calculated and written out
+ * before the next is read, so memory use doesn't depend on the size of the input.
+ */
+public class BatchEstimator {
+    /**
+     * The number of walls read before they are calculated and written out: enough for every thread of a pool to get
+     * a share of each chunk.
+     */
+    private static final int CHUNK_SIZE = 16 * ParallelArea.BLOCK;
+
+    /**
+     * Why a wall whose area overflows, or is read as NaN or infinity, is rejected.
+     */
+    private static final String NOT_FINITE = "The wall's area isn't a finite number";
+
+    private final int coats;
+    private final double canSize;
+    private final ForkJoinPool pool;
+    private final SimdArea simd;
+    private CanCatalogue catalogue;
+    private Objective objective = Objective.CHEAPEST;
+    private int shard = 0;
+    private int shards = 1;
+
+    private final PartialResult result;
+
+    /**
+     * @param coats The number of coats of paint.
+     * @param canSize The size of the paint cans in litres, or 0 not to count cans.
+     */
+    public BatchEstimator(int coats, double canSize) {
+        this(coats, canSize, null);
+    }
+
+    /**
+     * @param coats The number of coats of paint.
+     * @param canSize The size of the paint cans in litres, or 0 not to count cans.
+     * @param pool The pool to calculate each chunk of walls on, or null to calculate on the calling thread.
+     */
+    public BatchEstimator(int coats, double canSize, ForkJoinPool pool) {
+        this(coats, canSize, pool, false);
+    }
+
+    /**
+     * @param coats The number of coats of paint.
+     * @param canSize The size of the paint cans in litres, or 0 not to count cans.
+     * @param pool The pool to calculate each chunk of walls on, or null to calculate on the calling thread.
+     * @param simd Whether to calculate each chunk with the vector kernel; can't be used with a pool.
+     */
+    public BatchEstimator(int coats, double canSize, ForkJoinPool pool, boolean simd) {
+        this(coats, canSize, pool, simd, false);
+    }
+
+    /**
+     * @param coats The number of coats of paint.
+     * @param canSize The size of the paint cans in litres, or 0 not to count cans.
+     * @param pool The pool to calculate each chunk of walls on, or null to calculate on the calling thread.
+     * @param simd Whether to calculate each chunk with the vector kernel; can't be used with a pool.
+     * @param exact Whether to calculate in whole {@link Millimetres millimetres}; can't be used with the vector
+     * kernel.
+     */
+    public BatchEstimator(int coats, double canSize, ForkJoinPool pool, boolean simd, boolean exact) {
+        if (pool != null && simd)
+            throw new IllegalArgumentException("--simd can't be used with --threads");
+        if (exact && simd)
+            throw new IllegalArgumentException("--exact can't be used with --simd");
+        this.coats = coats;
+        this.canSize = canSize;
+        this.pool = pool;
+        this.simd = simd ? new SimdArea() : null;
+        this.result = new PartialResult(coats, exact);
+    }
+
+    /**
+     * Buy paint in the best mix of cans from a catalogue, rather than in cans of a single size.
+     * @param catalogue The cans on sale, or null to use the single can size.
+     * @param objective What to choose the mix for.
+     */
+    public void setCatalogue(CanCatalogue catalogue, Objective objective) {
+        this.catalogue = catalogue;
+        this.objective = objective;
+    }
+
+    /**
+     * Only estimate one shard of the input. Records are dealt out to the shards in turn, so every shard gets a fair
+     * share of the input however it is ordered.
+     * @param shard The shard to estimate, from 0.
+     * @param shards The number of shards.
+     * @throws IllegalArgumentException If the shard doesn't exist.
+     */
+    public void setShard(int shard, int shards) {
+        if (shards < 1 || shard < 0 || shard >= shards)
+            throw new IllegalArgumentException(String.format("There is no shard %d of %d", shard, shards));
+        this.shard = shard;
+        this.shards = shards;
+    }
+
+    /**
+     * Run from the command line arguments {@code --batch <file> [--format csv|jsonl|project] [--coats N]
+     * [--can-size L] [--threads N] [--simd] [--exact] [--catalogue litres:pence,...]
+     * [--objective cheapest|least-waste] [--shard i/n] [--partial <file>]}. A file of {@code -} reads from standard
+     * input. {@code --partial} also saves the totals as a {@link PartialResult}, to {@link #merge(String[]) merge}
+     * with other shards. {@code --exact} calculates in whole millimetres, so that totals are the same however the
+     * input is split up or ordered. Project files are always read one wall at a time, so {@code --threads},
+     * {@code --simd} and {@code --exact} can't be used with them.
+     * @param args The command line arguments, starting with {@code --batch}.
+     * @return The process exit code: 0 if every record was estimated, 1 if any were rejected.
+     * @throws IOException If the input couldn't be read or the output written.
+     */
+    public static int run(String[] args) throws IOException {
+        if (args.length < 2)
+            throw new IllegalArgumentException("Usage: --batch <file> [--format csv|jsonl|project] [--coats N] "
+                    + "[--can-size L] [--threads N] [--simd] [--exact] [--catalogue litres:pence,...] "
+                    + "[--objective cheapest|least-waste] [--shard i/n] [--partial <file>]");
+
+        String file = args[1];
+        String format = file.endsWith(".jsonl") || file.endsWith(".ndjson") ? "jsonl"
+                : file.endsWith(ProjectFile.EXTENSION) ? "project" : "csv";
+        int coats = 1;
+        double canSize = 0;
+        int threads = 1;
+        boolean simd = false;
+        boolean exact = false;
+        CanCatalogue catalogue = null;
+        Objective objective = Objective.CHEAPEST;
+        int[] shard = {0, 1};
+        Path partial = null;
+        for (int i = 2; i < args.length; i += 2) {
+            if (Objects.equals(args[i], "--simd") || Objects.equals(args[i], "--exact")) {
+                if (Objects.equals(args[i], "--simd"))
+                    simd = true;
+                else
+                    exact = true;
+                i--;
+                continue;
+            }
+            if (i + 1 >= args.length)
+                throw new IllegalArgumentException(String.format("Missing value for %s", args[i]));
+            switch (args[i]) {
+                case "--format" -> format = args[i + 1];
+                case "--coats" -> coats = Integer.parseInt(args[i + 1]);
+                case "--can-size" -> canSize = Double.parseDouble(args[i + 1]);
+                case "--threads" -> threads = Integer.parseInt(args[i + 1]);
+                case "--catalogue" -> catalogue = CanCatalogue.parse(args[i + 1]);
+                case "--objective" -> objective = Objective.parse(args[i + 1]);
+                case "--shard" -> shard = shard(args[i + 1]);
+                case "--partial" -> partial = Path.of(args[i + 1]);
+                default -> throw new IllegalArgumentException(String.format("Unknown option %s", args[i]));
+            }
+        }
+
+        Writer out = new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8));
+        if (Objects.equals(format, "project")) {
+            if (exact)
+                throw new IllegalArgumentException("--exact can't be used with project files");
+            if (simd)
+                throw new IllegalArgumentException("--simd can't be used with project files");
+            if (threads != 1)
+                throw new IllegalArgumentException("--threads can't be used with project files");
+            BatchEstimator estimator = new BatchEstimator(coats, canSize);
+            estimator.setCatalogue(catalogue, objective);
+            estimator.setShard(shard[0], shard[1]);
+            estimator.estimate(MappedProject.open(Path.of(file)), out);
+            out.flush();
+            if (partial != null)
+                estimator.result.save(partial);
+            return estimator.getRejected() == 0 ? 0 : 1;
+        }
+
+        BufferedReader in = Objects.equals(file, "-")
+                ? new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8))
+                : Files.newBufferedReader(Path.of(file), StandardCharsets.UTF_8);
+        WallRecordReader reader = switch (format) {
+            case "csv" -> new CsvWallReader(in);
+            case "jsonl" -> new JsonLinesWallReader(in);
+            default -> throw new IllegalArgumentException(String.format("Unknown format %s", format));
+        };
+
+        if (simd && !SimdArea.isAvailable())
+            System.err.println("The vector API isn't available, so --simd will calculate one wall at a time. "
+                    + "Build with mvn -P simd and start Java with --add-modules jdk.incubator.vector to use it.");
+        ForkJoinPool pool = threads > 1 ? new ForkJoinPool(threads) : null;
+        BatchEstimator estimator = new BatchEstimator(coats, canSize, pool, simd, exact);
+        estimator.setCatalogue(catalogue, objective);
+        estimator.setShard(shard[0], shard[1]);
+        try (reader) {
+            estimator.estimate(reader, out);
+        } finally {
+            if (pool != null)
+                pool.shutdown();
+        }
+        out.flush();
+        if (partial != null)
+            estimator.result.save(partial);
+        return estimator.getRejected() == 0 ? 0 : 1;
+    }
+
+    /**
+     * Merge saved partial results and print the totals, from the command line arguments
+     * {@code --merge <partial>... [--can-size L] [--catalogue litres:pence,...] [--objective cheapest|least-waste]
+     * [--partial <file>]}. The totals are exactly those of estimating all the shards' input at once. {@code --partial}
+     * also saves the merged result, so merges can be merged in turn.
+     * @param args The command line arguments, starting with {@code --merge}.
+     * @return The process exit code: 0 if every record was estimated, 1 if any were rejected.
+     * @throws IOException If a partial result couldn't be read or the output written.
+     */
+    public static int merge(String[] args) throws IOException {
+        int i = 1;
+        PartialResult merged = null;
+        for (; i < args.length && !args[i].startsWith("--"); i++) {
+            PartialResult next = PartialResult.load(Path.of(args[i]));
+            if (merged == null)
+                merged = next;
+            else
+                merged.merge(next);
+        }
+        if (merged == null)
+            throw new IllegalArgumentException("Usage: --merge <partial>... [--can-size L] "
+                    + "[--catalogue litres:pence,...] [--objective cheapest|least-waste] [--partial <file>]");
+
+        double canSize = 0;
+        CanCatalogue catalogue = null;
+        Objective objective = Objective.CHEAPEST;
+        Path partial = null;
+        for (; i < args.length; i += 2) {
+            if (i + 1 >= args.length)
+                throw new IllegalArgumentException(String.format("Missing value for %s", args[i]));
+            switch (args[i]) {
+                case "--can-size" -> canSize = Double.parseDouble(args[i + 1]);
+                case "--catalogue" -> catalogue = CanCatalogue.parse(args[i + 1]);
+                case "--objective" -> objective = Objective.parse(args[i + 1]);
+                case "--partial" -> partial = Path.of(args[i + 1]);
+                default -> throw new IllegalArgumentException(String.format("Unknown option %s", args[i]));
+            }
+        }
+
+        Writer out = new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8));
+        writeTotals(merged, canSize, catalogue, objective, out);
+        out.flush();
+        if (partial != null)
+            merged.save(partial);
+        return merged.getRejected() == 0 ? 0 : 1;
+    }
+
+    private static int[] shard(String spec) {
+        String[] parts = spec.split("/");
+        try {
+            if (parts.length == 2)
+                return new int[]{Integer.parseInt(parts[0]), Integer.parseInt(parts[1])};
+        } catch (NumberFormatException e) {
+            // Reported below
+        }
+        throw new IllegalArgumentException(String.format("Invalid shard '%s', expected i/n", spec));
+    }
+
+    /**
+     * Estimate every wall from the reader, writing one CSV row per wall followed by the totals. Malformed records,
+     * including walls in a new group once there are {@value PartialResult#MAX_GROUPS}, are reported to standard error
+     * and skipped.
+     * @param reader The source of walls.
+     * @param out Where to write results.
+     * @throws IOException If the input couldn't be read or the output written.
+     */
+    public void estimate(WallRecordReader reader, Writer out) throws IOException {
+        out.write("wall,area_m2\n");
+        reader.setShard(shard, shards);
+        if (result.isMillimetres()) {
+            estimateExact(reader, out);
+            return;
+        }
+
+        // Walls are read a chunk at a time into a reused store, so nothing is allocated per wall
+        WallStore chunk = new WallStore(CHUNK_SIZE, CHUNK_SIZE * 4);
+        long[] lines = new long[CHUNK_SIZE];
+        String[] groups = new String[CHUNK_SIZE];
+        double[] areas = new double[CHUNK_SIZE];
+        boolean more = true;
+        while (more) {
+            chunk.clear();
+            while (chunk.size() < CHUNK_SIZE) {
+                try {
+                    if (!reader.next(chunk)) {
+                        more = false;
+                        break;
+                    }
+                } catch (IllegalArgumentException e) {
+                    Metrics.count(Counter.MALFORMED);
+                    reject(e.getMessage());
+                    continue;
+                }
+
+                // Walls with no area left are only found once the chunk is calculated, so each is measured once
+                int i = chunk.size() - 1;
+                lines[i] = reader.getLineNumber();
+                groups[i] = reader.getGroup();
+            }
+            write(chunk, lines, groups, areas, out);
+        }
+        writeTotals(result, canSize, catalogue, objective, out);
+    }
+
+    private void estimateExact(WallRecordReader reader, Writer out) throws IOException {
+        MillimetreStore chunk = new MillimetreStore(CHUNK_SIZE, CHUNK_SIZE * 4);
+        long[] lines = new long[CHUNK_SIZE];
+        String[] groups = new String[CHUNK_SIZE];
+        long[] areas = new long[CHUNK_SIZE];
+        boolean more = true;
+        while (more) {
+            chunk.clear();
+            while (chunk.size() < CHUNK_SIZE) {
+                try {
+                    if (!reader.next(chunk)) {
+                        more = false;
+                        break;
+                    }
+                } catch (IllegalArgumentException e) {
+                    Metrics.count(Counter.MALFORMED);
+                    reject(e.getMessage());
+                    continue;
+                }
+
+                int i = chunk.size() - 1;
+                lines[i] = reader.getLineNumber();
+                groups[i] = reader.getGroup();
+            }
+            write(chunk, lines, groups, areas, out);
+        }
+        writeTotals(result, canSize, catalogue, objective, out);
+    }
+
+    /**
+     * Estimate every wall in a project file, writing one CSV row per wall, numbered from 1, followed by the totals.
+     * Invalid walls are reported to standard error and skipped.
+     * @param project The project.
+     * @param out Where to write results.
+     * @throws IOException If the output couldn't be written.
+     */
+    public void estimate(MappedProject project, Writer out) throws IOException {
+        long start = Metrics.start();
+        out.write("wall,area_m2\n");
+        long walls = 0;
+        for (int i = shard; i < project.size(); i += shards) {
+            double gross = project.grossArea(i);
+            // Tags and dimensions were checked when the project was opened, but the areas can still overflow
+            double obstructionArea = project.obstructionArea(i);
+            if (!Double.isFinite(gross) || !Double.isFinite(obstructionArea)) {
+                Metrics.count(Counter.MALFORMED);
+                reject(String.format("Wall %d: %s", i + 1, NOT_FINITE));
+                continue;
+            }
+            if (obstructionArea > gross) {
+                Metrics.count(Counter.NO_WALL_LEFT);
+                reject(String.format("Wall %d: There is no wall left!", i + 1));
+                continue;
+            }
+
+            double area = gross - obstructionArea;
+            result.add(null, area);
+            walls++;
+            out.write(Integer.toString(i + 1));
+            out.write(',');
+            out.write(Double.toString(area));
+            out.write('\n');
+        }
+        Metrics.count(Counter.WALLS, walls);
+        Metrics.count(Counter.OBSTRUCTIONS, project.obstructionCount());
+        Metrics.stop(Operation.PROJECT, start);
+        writeTotals(result, canSize, catalogue, objective, out);
+    }
+
+    private static void writeTotals(PartialResult result, double canSize, CanCatalogue catalogue, Objective objective,
+                                    Writer out) throws IOException {
+        double area = result.getArea().doubleValue();
+        double paintQty = Paint.litres(area, result.getCoats());
+        out.write(String.format(Locale.ROOT, "# walls=%d rejected=%d%n", result.getWalls(), result.getRejected()));
+        out.write(String.format(Locale.ROOT, "# total_area_m2=%.4f%n", area));
+        out.write(String.format(Locale.ROOT, "# paint_litres=%.2f%n", paintQty));
+        if (catalogue != null) {
+            CanMix mix = catalogue.pack(paintQty, objective);
+            out.write(String.format(Locale.ROOT, "# cans=%d%n", mix.cans()));
+            out.write(String.format(Locale.ROOT, "# can_mix=%s%n", mix.describe()));
+            out.write(String.format(Locale.ROOT, "# cost_pence=%d%n", mix.pence()));
+        } else if (canSize > 0) {
+            out.write(String.format(Locale.ROOT, "# cans=%d%n", Paint.cans(paintQty, canSize)));
+        }
+        for (Map.Entry<String, PartialResult.Group> entry : result.getGroups().entrySet()) {
+            double groupArea = entry.getValue().getArea().doubleValue();
+            out.write(String.format(Locale.ROOT, "# group=%s walls=%d area_m2=%.4f paint_litres=%.2f%n",
+                    entry.getKey(), entry.getValue().getWalls(), groupArea,
+                    Paint.litres(groupArea, result.getCoats())));
+        }
+    }
+
+    private void write(WallStore chunk, long[] lines, String[] groups, double[] areas, Writer out)
+            throws IOException {
+        long start = Metrics.start();
+        if (pool != null) {
+            ParallelArea.areas(chunk, areas, pool);
+        } else if (simd != null) {
+            simd.areas(chunk, areas);
+        } else {
+            for (int i = 0; i < chunk.size(); i++) {
+                areas[i] = chunk.area(i);
+            }
+        }
+
+        // Totalled exactly, so the result doesn't depend on the number of threads or shards. The difference of two
+        // finite areas is only negative if the obstructions cover more than the wall.
+        int walls = 0;
+        for (int i = 0; i < chunk.size(); i++) {
+            if (!Double.isFinite(areas[i])) {
+                Metrics.count(Counter.MALFORMED);
+                reject(String.format("Line %d: %s", lines[i], NOT_FINITE));
+                continue;
+            }
+            if (areas[i] < 0) {
+                Metrics.count(Counter.NO_WALL_LEFT);
+                reject(String.format("Line %d: There is no wall left!", lines[i]));
+                continue;
+            }
+            try {
+                result.add(groups[i], areas[i]);
+            } catch (IllegalArgumentException e) {
+                Metrics.count(Counter.MALFORMED);
+                reject(String.format("Line %d: %s", lines[i], e.getMessage()));
+                continue;
+            }
+            walls++;
+            out.write(Long.toString(lines[i]));
+            out.write(',');
+            out.write(Double.toString(areas[i]));
+            out.write('\n');
+        }
+        Metrics.count(Counter.WALLS, walls);
+        Metrics.count(Counter.OBSTRUCTIONS, chunk.obstructionCount());
+        Metrics.stop(Operation.BATCH_CHUNK, start);
+    }
+
+    private void write(MillimetreStore chunk, long[] lines, String[] groups, long[] areas, Writer out)
+            throws IOException {
+        long start = Metrics.start();
+        if (pool != null) {
+            ParallelArea.areas(chunk, areas, pool);
+        } else {
+            for (int i = 0; i < chunk.size(); i++) {
+                areas[i] = chunk.areaOrTooBig(i);
+            }
+        }
+
+        int walls = 0;
+        for (int i = 0; i < chunk.size(); i++) {
+            if (areas[i] == MillimetreStore.TOO_BIG) {
+                Metrics.count(Counter.MALFORMED);
+                reject(String.format("Line %d: The wall is too big", lines[i]));
+                continue;
+            }
+            if (areas[i] < 0) {
+                Metrics.count(Counter.NO_WALL_LEFT);
+                reject(String.format("Line %d: There is no wall left!", lines[i]));
+                continue;
+            }
+            try {
+                result.add(groups[i], areas[i]);
+            } catch (IllegalArgumentException e) {
+                Metrics.count(Counter.MALFORMED);
+                reject(String.format("Line %d: %s", lines[i], e.getMessage()));
+                continue;
+            }
+            walls++;
+            out.write(Long.toString(lines[i]));
+            out.write(',');
+            out.write(Millimetres.squareMetres(areas[i]));
+            out.write('\n');
+        }
+        Metrics.count(Counter.WALLS, walls);
+        Metrics.count(Counter.OBSTRUCTIONS, chunk.obstructionCount());
+        Metrics.stop(Operation.BATCH_CHUNK, start);
+    }
+
+    private void reject(String message) {
+        result.reject();
+        System.err.println(message);
+    }
+
+    /**
+     * @return The total area of all accepted walls so far.
+     */
+    public double getTotalArea() {
+        return result.getArea().doubleValue();
+    }
+
+    /**
+     * @return The number of walls accepted so far.
+     */
+    public long getWalls() {
+        return result.getWalls();
+    }
+
+    /**
+     * @return The number of records rejected so far.
+     */
+    public long getRejected() {
+        return result.getRejected();
+    }
+
+    /**
+     * @return The totals so far, overall and per group.
+     */
+    public PartialResult getResult() {
+        return result;
+    }
+}
@@ -0,0 +1,127 @@
+package uk.hpkns.paintcalculator.batch;
+
+import uk.hpkns.paintcalculator.geometry.MillimetreStore;
+import uk.hpkns.paintcalculator.geometry.Millimetres;
+import uk.hpkns.paintcalculator.geometry.Shape;
+import uk.hpkns.paintcalculator.geometry.WallStore;
+
+import java.io.BufferedReader;
+
+/**
+ * Reads walls from comma separated lines of the form
+ * {@code [group,]width,height[,shape,dimension...]...}, where each obstruction is given by the same shape number as
+ * the text questionnaire uses followed by its dimensions:
+ * <ul>
+ *     <li>{@code 1,width,height} - rectangular</li>
+ *     <li>{@code 2,radius} - circular</li>
+ *     <li>{@code 3,semi-major,semi-minor} - oval</li>
+ * </ul>
+ * A first field which doesn't start like a number is the wall's group. Dimensions can't be negative.
+ */
+public class CsvWallReader extends WallRecordReader {
+    public CsvWallReader(BufferedReader in) {
+        super(in);
+    }
+
+    @Override
+    protected void parse(String line, WallStore store) {
+        String[] fields = line.split(",", -1);
+        int first = group(fields);
+        store.addWall(dimension(fields, first), dimension(fields, first + 1));
+
+        int i = first + 2;
+        while (i < fields.length) {
+            byte shape = shape(fields[i]);
+            int dims = Shape.dimensions(shape);
+            store.addObstruction(shape, dimension(fields, i + 1), dims > 1 ? dimension(fields, i + 2) : 0);
+            i += dims + 1;
+        }
+    }
+
+    @Override
+    protected void parse(String line, MillimetreStore store) {
+        String[] fields = line.split(",", -1);
+        int first = group(fields);
+        store.addWall(millimetres(fields, first), millimetres(fields, first + 1));
+
+        int i = first + 2;
+        while (i < fields.length) {
+            byte shape = shape(fields[i]);
+            int dims = Shape.dimensions(shape);
+            store.addObstruction(shape, millimetres(fields, i + 1), dims > 1 ? millimetres(fields, i + 2) : 0);
+            i += dims + 1;
+        }
+    }
+
+    /**
+     * Set the group if the first field names one.
+     * @return The index of the width.
+     */
+    private int group(String[] fields) {
+        int first = 0;
+        if (!startsLikeNumber(fields[0].strip())) {
+            setGroup(fields[0].strip());
+            first = 1;
+        }
+        if (fields.length < first + 2)
+            throw new IllegalArgumentException("Expected at least a width and height");
+        return first;
+    }
+
+    private static byte shape(String field) {
+        return switch (field.strip()) {
+            case "1" -> Shape.RECTANGULAR;
+            case "2" -> Shape.CIRCULAR;
+            case "3" -> Shape.OVAL;
+            default -> throw Shape.invalid(field.strip());
+        };
+    }
+
+    private static boolean startsLikeNumber(String field) {
+        if (field.isEmpty())
+            return true; // Reported as not a number
+        char c = field.charAt(0);
+        // NaN and Infinity are numbers to Double.parseDouble, so are reported as not finite rather than taken as groups
+        return (c >= '0' && c <= '9') || c == '.' || c == '-' || c == '+'
+                || field.equals("NaN") || field.equals("Infinity");
+    }
+
+    private static double dimension(String[] fields, int index) {
+        double value = number(fields, index);
+        if (value < 0)
+            throw negative(index);
+        return value;
+    }
+
+    private static IllegalArgumentException negative(int index) {
+        return new IllegalArgumentException(String.format("Field %d can't be negative", index + 1));
+    }
+
+    private static double number(String[] fields, int index) {
+        if (index >= fields.length)
+            throw new IllegalArgumentException(String.format("Missing field %d", index + 1));
+        double value;
+        try {
+            value = Double.parseDouble(fields[index].strip());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(String.format("Field %d is not a number", index + 1));
+        }
+        if (!Double.isFinite(value))
+            throw new IllegalArgumentException(String.format("Field %d is not a finite number", index + 1));
+        return value;
+    }
+
+    private static long millimetres(String[] fields, int index) {
+        if (index >= fields.length)
+            throw new IllegalArgumentException(String.format("Missing field %d", index + 1));
+        long value;
+        try {
+            value = Millimetres.parse(fields[index].strip());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException(String.format("Field %d: %s", index + 1, e.getMessage()));
+        }
+        if (value < 0)
+            throw negative(index);
+        return value;
+    }
+}
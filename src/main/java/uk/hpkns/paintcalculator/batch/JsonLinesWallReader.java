@@ -0,0 +1,40 @@
+package uk.hpkns.paintcalculator.batch;
+
+import uk.hpkns.paintcalculator.geometry.MillimetreStore;
+import uk.hpkns.paintcalculator.geometry.WallStore;
+import uk.hpkns.paintcalculator.json.Json;
+import uk.hpkns.paintcalculator.json.WallJson;
+
+import java.io.BufferedReader;
+
+/**
+ * Reads walls from JSON Lines, one object per line in the form read by {@link WallJson}, with an optional
+ * {@code "group"} member naming the wall's group.
+ */
+public class JsonLinesWallReader extends WallRecordReader {
+    private final WallStore metres = new WallStore(1, 4);
+
+    public JsonLinesWallReader(BufferedReader in) {
+        super(in);
+    }
+
+    @Override
+    protected void parse(String line, WallStore store) {
+        Object wall = Json.parse(line);
+        String group = Json.string(Json.object(wall, "Wall"), "group", null);
+        if (group != null)
+            setGroup(group);
+        WallJson.read(wall, store);
+    }
+
+    /**
+     * Read the wall in metres and round each dimension to the nearest millimetre. JSON numbers are read as doubles
+     * first, which makes no difference for dimensions given to the millimetre.
+     */
+    @Override
+    protected void parse(String line, MillimetreStore store) {
+        metres.clear();
+        parse(line, metres);
+        store.add(metres, 0);
+    }
+}
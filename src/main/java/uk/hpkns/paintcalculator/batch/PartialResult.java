@@ -0,0 +1,297 @@
+package uk.hpkns.paintcalculator.batch;
+
+import uk.hpkns.paintcalculator.geometry.ExactSum;
+import uk.hpkns.paintcalculator.geometry.Millimetres;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+
+/**
+ * The additive part of a batch's results: counts and areas, overall and per group. Areas are summed exactly with
+ * {@link ExactSum}, so
+ * partial results from any split of the input merge, in any order, into exactly the result of running it all at
+ * once. Paint and cans are worked out from the merged area, never summed.
+ * <p>
+ * Partial results are saved as a few lines of text:
+ * <pre>
+ * paintcalculator-partial 1
+ * coats 2
+ * walls 1200
+ * rejected 3
+ * area 27345.1183...
+ * group 400 9000.25 Ground floor
+ * </pre>
+ * with one {@code group} line, giving its walls, area and name, for each group seen. A result in whole
+ * {@link Millimetres millimetres} has a {@code units mm2} line after the coats, and its areas are saved as whole
+ * square millimetres; it can only be merged with other results in millimetres.
+ * <p>
+ * Every group is kept in memory, at around 600 bytes plus its name, so there may be at most {@value #MAX_GROUPS}.
+ * Whether a merge goes over that depends only on the names in all the results, not the order they're merged in.
+ */
+public class PartialResult {
+    private static final String HEADER = "paintcalculator-partial 1";
+    private static final String MILLIMETRES = "units mm2";
+
+    /**
+     * The most groups a result may have.
+     */
+    public static final int MAX_GROUPS = 1 << 16;
+
+    private final int coats;
+    private final boolean millimetres;
+    private long walls;
+    private long rejected;
+    private final ExactSum area = new ExactSum();
+    private final Map<String, Group> groups = new TreeMap<>();
+
+    /**
+     * The walls and area of one group.
+     */
+    public static final class Group {
+        private final boolean millimetres;
+        private long walls;
+        private final ExactSum area = new ExactSum();
+
+        private Group(boolean millimetres) {
+            this.millimetres = millimetres;
+        }
+
+        /**
+         * @return The number of walls in the group.
+         */
+        public long getWalls() {
+            return walls;
+        }
+
+        /**
+         * @return The exact area of the group's walls in square metres.
+         */
+        public BigDecimal getArea() {
+            return squareMetres(area, millimetres);
+        }
+    }
+
+    /**
+     * @param coats The number of coats of paint, which every merged result must share.
+     */
+    public PartialResult(int coats) {
+        this(coats, false);
+    }
+
+    /**
+     * @param coats The number of coats of paint, which every merged result must share.
+     * @param millimetres Whether areas are added in whole square millimetres rather than square metres.
+     */
+    public PartialResult(int coats, boolean millimetres) {
+        this.coats = coats;
+        this.millimetres = millimetres;
+    }
+
+    /**
+     * Add an accepted wall.
+     * @param group The wall's group, or null if it has none.
+     * @param wallArea The wall's area in square metres.
+     * @throws IllegalArgumentException If the group would be one more than {@value #MAX_GROUPS}.
+     */
+    public void add(String group, double wallArea) {
+        if (millimetres)
+            throw new IllegalStateException("Areas must be added in whole square millimetres");
+        // Found first, so a wall in one group too many isn't counted at all
+        Group g = group != null ? group(group) : null;
+        walls++;
+        area.add(wallArea);
+        if (g != null) {
+            g.walls++;
+            g.area.add(wallArea);
+        }
+    }
+
+    /**
+     * Add an accepted wall in whole square millimetres.
+     * @param group The wall's group, or null if it has none.
+     * @param wallArea The wall's area in square millimetres.
+     * @throws IllegalArgumentException If the group would be one more than {@value #MAX_GROUPS}.
+     */
+    public void add(String group, long wallArea) {
+        if (!millimetres)
+            throw new IllegalStateException("Areas must be added in square metres");
+        Group g = group != null ? group(group) : null;
+        walls++;
+        add(area, wallArea);
+        if (g != null) {
+            g.walls++;
+            add(g.area, wallArea);
+        }
+    }
+
+    /**
+     * Add a long exactly, which a double can't hold from 2<sup>53</sup> on. Its top 32 bits and its bottom 32 bits
+     * each fit in a double with room to spare.
+     */
+    private static void add(ExactSum sum, long value) {
+        long low = value & 0xFFFFFFFFL;
+        sum.add((double) (value - low));
+        sum.add((double) low);
+    }
+
+    private Group group(String name) {
+        Group g = groups.get(name);
+        if (g == null) {
+            if (groups.size() == MAX_GROUPS)
+                throw new IllegalArgumentException(String.format("There are more than %d groups", MAX_GROUPS));
+            g = new Group(millimetres);
+            groups.put(name, g);
+        }
+        return g;
+    }
+
+    /**
+     * Count a rejected record.
+     */
+    public void reject() {
+        rejected++;
+    }
+
+    /**
+     * Add another result to this one.
+     * @param other The other result.
+     * @throws IllegalArgumentException If the results are for different numbers of coats or in different units, or
+     * have more than {@value #MAX_GROUPS} groups between them.
+     */
+    public void merge(PartialResult other) {
+        if (other.coats != coats)
+            throw new IllegalArgumentException(
+                    String.format("Can't merge results for %d and %d coats", coats, other.coats));
+        if (other.millimetres != millimetres)
+            throw new IllegalArgumentException("Can't merge results in millimetres with results in metres");
+        walls += other.walls;
+        rejected += other.rejected;
+        area.add(other.area);
+        for (Map.Entry<String, Group> entry : other.groups.entrySet()) {
+            Group g = group(entry.getKey());
+            g.walls += entry.getValue().walls;
+            g.area.add(entry.getValue().area);
+        }
+    }
+
+    /**
+     * @return The number of coats of paint.
+     */
+    public int getCoats() {
+        return coats;
+    }
+
+    /**
+     * @return The number of walls accepted.
+     */
+    public long getWalls() {
+        return walls;
+    }
+
+    /**
+     * @return The number of records rejected.
+     */
+    public long getRejected() {
+        return rejected;
+    }
+
+    /**
+     * @return Whether areas are in whole square millimetres.
+     */
+    public boolean isMillimetres() {
+        return millimetres;
+    }
+
+    /**
+     * @return The exact area of every accepted wall in square metres.
+     */
+    public BigDecimal getArea() {
+        return squareMetres(area, millimetres);
+    }
+
+    private static BigDecimal squareMetres(ExactSum area, boolean millimetres) {
+        return millimetres ? area.toBigDecimal().movePointLeft(6) : area.toBigDecimal();
+    }
+
+    /**
+     * @return The groups by name, in name order.
+     */
+    public Map<String, Group> getGroups() {
+        return Collections.unmodifiableMap(groups);
+    }
+
+    /**
+     * Save the result.
+     * @param file The file to write.
+     * @throws IOException If the file couldn't be written.
+     */
+    public void save(Path file) throws IOException {
+        try (BufferedWriter out = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            out.write(HEADER + "\n");
+            out.write("coats " + coats + "\n");
+            if (millimetres)
+                out.write(MILLIMETRES + "\n");
+            out.write("walls " + walls + "\n");
+            out.write("rejected " + rejected + "\n");
+            out.write("area " + area.toBigDecimal().toPlainString() + "\n");
+            for (Map.Entry<String, Group> entry : groups.entrySet()) {
+                Group g = entry.getValue();
+                out.write("group " + g.walls + " " + g.area.toBigDecimal().toPlainString() + " " + entry.getKey()
+                        + "\n");
+            }
+        }
+    }
+
+    /**
+     * Load a saved result.
+     * @param file The file to read.
+     * @return The result.
+     * @throws IOException If the file couldn't be read.
+     * @throws IllegalArgumentException If the file isn't a partial result.
+     */
+    public static PartialResult load(Path file) throws IOException {
+        try (BufferedReader in = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            if (!Objects.equals(in.readLine(), HEADER))
+                throw new IllegalArgumentException(String.format("%s is not a partial result", file));
+            int coats = Integer.parseInt(value(in, "coats"));
+            String line = in.readLine();
+            boolean millimetres = Objects.equals(line, MILLIMETRES);
+            if (millimetres)
+                line = in.readLine();
+            PartialResult result = new PartialResult(coats, millimetres);
+            result.walls = Long.parseLong(value(line, "walls"));
+            result.rejected = Long.parseLong(value(in, "rejected"));
+            result.area.add(new BigDecimal(value(in, "area")));
+            while ((line = in.readLine()) != null) {
+                String[] fields = line.split(" ", 4);
+                if (fields.length != 4 || !Objects.equals(fields[0], "group"))
+                    throw new IllegalArgumentException(String.format("%s: Expected a group, not '%s'", file, line));
+                Group g = result.group(fields[3]);
+                g.walls += Long.parseLong(fields[1]);
+                g.area.add(new BigDecimal(fields[2]));
+            }
+            return result;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(String.format("%s: %s", file, e.getMessage()), e);
+        }
+    }
+
+    private static String value(BufferedReader in, String key) throws IOException {
+        return value(in.readLine(), key);
+    }
+
+    private static String value(String line, String key) {
+        if (line == null || !line.startsWith(key + " "))
+            throw new IllegalArgumentException(String.format("Expected %s, not '%s'", key, line));
+        return line.substring(key.length() + 1);
+    }
+}
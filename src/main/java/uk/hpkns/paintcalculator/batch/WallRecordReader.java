@@ -0,0 +1,155 @@
+package uk.hpkns.paintcalculator.batch;
+
+import uk.hpkns.paintcalculator.geometry.MillimetreStore;
+import uk.hpkns.paintcalculator.geometry.WallStore;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * Reads wall records one at a time from a line-oriented source, so that inputs of any size can be processed in
+ * constant memory. Records may name a group, such as a building or floor, to total them by.
+ * <p>
+ * A reader can be given one shard of the input, so that several processes can share it: the records are dealt out
+ * in turn, and each reader only parses its own.
+ */
+public abstract class WallRecordReader implements Closeable {
+    private final BufferedReader in;
+    private long lineNumber;
+    private long records;
+    private int shard = 0;
+    private int shards = 1;
+    private String group;
+
+    protected WallRecordReader(BufferedReader in) {
+        this.in = in;
+    }
+
+    /**
+     * Only read one shard of the records.
+     * @param shard The shard to read, from 0.
+     * @param shards The number of shards.
+     * @throws IllegalArgumentException If the shard doesn't exist.
+     */
+    public void setShard(int shard, int shards) {
+        if (shards < 1 || shard < 0 || shard >= shards)
+            throw new IllegalArgumentException(String.format("There is no shard %d of %d", shard, shards));
+        this.shard = shard;
+        this.shards = shards;
+    }
+
+    /**
+     * Read the next wall.
+     * @param store The store to add the wall to.
+     * @return True if a wall was added, false at the end of the input.
+     * @throws IOException If the input couldn't be read.
+     * @throws IllegalArgumentException If the record is malformed, in which case nothing is added. The message
+     * includes the line number, and the reader may be used again to carry on from the next line.
+     */
+    public boolean next(WallStore store) throws IOException {
+        String line = nextRecord();
+        if (line == null)
+            return false;
+        int size = store.size();
+        try {
+            parse(line, store);
+            return true;
+        } catch (IllegalArgumentException e) {
+            if (store.size() > size)
+                store.removeLast();
+            throw malformed(e);
+        }
+    }
+
+    /**
+     * Read the next wall in whole millimetres.
+     * @param store The store to add the wall to.
+     * @return True if a wall was added, false at the end of the input.
+     * @throws IOException If the input couldn't be read.
+     * @throws IllegalArgumentException If the record is malformed, in which case nothing is added. The message
+     * includes the line number, and the reader may be used again to carry on from the next line.
+     */
+    public boolean next(MillimetreStore store) throws IOException {
+        String line = nextRecord();
+        if (line == null)
+            return false;
+        int size = store.size();
+        try {
+            parse(line, store);
+            return true;
+        } catch (IllegalArgumentException e) {
+            if (store.size() > size)
+                store.removeLast();
+            throw malformed(e);
+        }
+    }
+
+    /**
+     * @return The next line in this reader's shard which isn't blank or a comment, trimmed, or null at the end.
+     */
+    private String nextRecord() throws IOException {
+        String line;
+        while ((line = in.readLine()) != null) {
+            lineNumber++;
+            String trimmed = line.strip();
+            if (trimmed.isEmpty() || trimmed.startsWith("#"))
+                continue;
+            if (records++ % shards != shard)
+                continue;
+            group = null;
+            return trimmed;
+        }
+        return null;
+    }
+
+    private IllegalArgumentException malformed(IllegalArgumentException e) {
+        return new IllegalArgumentException(String.format("Line %d: %s", lineNumber, e.getMessage()), e);
+    }
+
+    /**
+     * @return The line number of the most recently read line.
+     */
+    public long getLineNumber() {
+        return lineNumber;
+    }
+
+    /**
+     * @return The group of the most recently read wall, or null if it has none.
+     */
+    public String getGroup() {
+        return group;
+    }
+
+    /**
+     * Set the group of the wall being parsed.
+     * @param group The group's name.
+     * @throws IllegalArgumentException If the name is empty or more than one line.
+     */
+    protected void setGroup(String group) {
+        if (group.isEmpty() || group.indexOf('\n') >= 0 || group.indexOf('\r') >= 0)
+            throw new IllegalArgumentException("Group names must be one non-empty line");
+        this.group = group;
+    }
+
+    /**
+     * Parse one non-blank, non-comment line.
+     * @param line The line, with surrounding whitespace removed.
+     * @param store The store to add the wall to.
+     * @throws IllegalArgumentException If the line is malformed.
+     */
+    protected abstract void parse(String line, WallStore store);
+
+    /**
+     * Parse one non-blank, non-comment line in whole millimetres.
+     * @param line The line, with surrounding whitespace removed.
+     * @param store The store to add the wall to.
+     * @throws IllegalArgumentException If the line is malformed.
+     */
+    protected abstract void parse(String line, MillimetreStore store);
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+}
@@ -0,0 +1,13 @@
+package uk.hpkns.paintcalculator.building;
+
+/**
+ * A whole building, made of floors.
+ */
+public final class Building extends Group<Floor> {
+    /**
+     * @param name The name of the building.
+     */
+    public Building(String name) {
+        super(name);
+    }
+}
@@ -0,0 +1,13 @@
+package uk.hpkns.paintcalculator.building;
+
+/**
+ * A floor of a building, made of rooms.
+ */
+public final class Floor extends Group<Room> {
+    /**
+     * @param name The name of the floor.
+     */
+    public Floor(String name) {
+        super(name);
+    }
+}
@@ -0,0 +1,73 @@
+package uk.hpkns.paintcalculator.building;
+
+import uk.hpkns.paintcalculator.geometry.CompensatedSum;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A part of a building made of smaller parts, whose area is theirs added together.
+ * @param <C> The type of the parts.
+ */
+public abstract sealed class Group<C extends Node> extends Node permits Building, Floor {
+    private final List<C> children = new ArrayList<>();
+
+    Group(String name) {
+        super(name);
+    }
+
+    @Override
+    public List<C> children() {
+        return Collections.unmodifiableList(children);
+    }
+
+    /**
+     * @return The number of parts.
+     */
+    public int size() {
+        return children.size();
+    }
+
+    /**
+     * @param i The index of the part.
+     * @return The part.
+     */
+    public C get(int i) {
+        return children.get(i);
+    }
+
+    /**
+     * Add a part to the end.
+     * @param child The part, which mustn't belong to anything else yet.
+     * @return The part, to add to in turn.
+     * @throws IllegalStateException If the part already belongs to something.
+     */
+    public C add(C child) {
+        child.setParent(this);
+        children.add(child);
+        changed();
+        return child;
+    }
+
+    /**
+     * Remove a part.
+     * @param i The index of the part.
+     * @return The part, which no longer belongs to anything.
+     */
+    public C remove(int i) {
+        C child = children.remove(i);
+        child.setParent(null);
+        changed();
+        return child;
+    }
+
+    @Override
+    double calculateArea() {
+        CompensatedSum sum = new CompensatedSum();
+        for (C child : children) {
+            sum.add(child.area());
+        }
+        return sum.result();
+    }
+}
@@ -0,0 +1,98 @@
+package uk.hpkns.paintcalculator.building;
+
+import uk.hpkns.paintcalculator.Paint;
+
+import java.util.List;
+
+/**
+ * A part of a building with a paintable area: the building itself, a floor or a room.
+ * <p>
+ * Each node caches its area. A change to a room marks it and every node above it as stale, and the next request for
+ * an area recalculates only the stale nodes, so editing one wall costs a walk up the tree rather than recalculating
+ * the whole building. Nodes aren't thread-safe; {@link RollUp} recalculates a tree across a pool.
+ */
+public abstract sealed class Node permits Group, Room {
+    private final String name;
+    private Group<?> parent;
+    private double area;
+    private boolean stale = true;
+
+    Node(String name) {
+        this.name = name;
+    }
+
+    /**
+     * @return The name of this part of the building.
+     */
+    public String name() {
+        return name;
+    }
+
+    /**
+     * @return The node this belongs to, or null if it hasn't been added to one.
+     */
+    public Group<?> parent() {
+        return parent;
+    }
+
+    /**
+     * @return The parts this is made of, in order, or an empty list for a room.
+     */
+    public abstract List<? extends Node> children();
+
+    /**
+     * @return The area to paint in square metres, recalculated first if anything below has changed.
+     */
+    public double area() {
+        if (stale) {
+            area = calculateArea();
+            stale = false;
+        }
+        return area;
+    }
+
+    /**
+     * @param coats The number of coats of paint.
+     * @return The paint needed in litres.
+     */
+    public double litres(int coats) {
+        return Paint.litres(area(), coats);
+    }
+
+    /**
+     * @param coats The number of coats of paint.
+     * @param canSize The size of the paint cans in litres.
+     * @return The number of cans needed if all the paint for this part is bought together.
+     */
+    public int cans(int coats, double canSize) {
+        return Paint.cans(litres(coats), canSize);
+    }
+
+    /**
+     * @return Whether the cached area needs recalculating.
+     */
+    boolean isStale() {
+        return stale;
+    }
+
+    /**
+     * @return The area, from the areas of the parts below.
+     */
+    abstract double calculateArea();
+
+    /**
+     * Mark this node and everything above it as needing recalculation. A stale node's ancestors are always stale,
+     * so the walk stops at the first one which already is.
+     */
+    void changed() {
+        for (Node node = this; node != null && !node.stale; node = node.parent) {
+            node.stale = true;
+        }
+    }
+
+    void setParent(Group<?> parent) {
+        if (parent != null && this.parent != null)
+            throw new IllegalStateException(String.format("%s already belongs to %s", name, this.parent.name()));
+        this.parent = parent;
+    }
+}
@@ -0,0 +1,93 @@
+package uk.hpkns.paintcalculator.building;
+
+import uk.hpkns.paintcalculator.Paint;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Recalculates the stale parts of a building across a fork-join pool, and lists the paint needed at every level.
+ * <p>
+ * Parts are split into fixed ranges of at most {@value #LEAF} siblings, and each node still adds up its own parts in
+ * order, so the totals are the same as calculating sequentially, whatever the number of threads. Parts which haven't
+ * changed since they were last calculated aren't visited.
+ */
+public final class RollUp {
+    /**
+     * The most siblings recalculated by one task.
+     */
+    public static final int LEAF = 16;
+
+    private RollUp() {
+    }
+
+    /**
+     * Recalculate every stale part of a tree.
+     * @param root The top of the tree.
+     * @param pool The pool to run on.
+     * @return The area of the tree.
+     */
+    public static double refresh(Node root, ForkJoinPool pool) {
+        if (root.isStale())
+            pool.invoke(new RefreshTask(root.children(), 0, root.children().size()));
+        return root.area();
+    }
+
+    /**
+     * Recalculate a tree and list the paint needed for every part of it, each before its own parts.
+     * @param root The top of the tree.
+     * @param coats The number of coats of paint.
+     * @param canSize The size of the paint cans in litres, or 0 not to count cans.
+     * @param pool The pool to recalculate on.
+     * @return The subtotals, starting with the root's.
+     */
+    public static List<Subtotal> subtotals(Node root, int coats, double canSize, ForkJoinPool pool) {
+        refresh(root, pool);
+        List<Subtotal> subtotals = new ArrayList<>();
+        addSubtotals(root, 0, coats, canSize, subtotals);
+        return subtotals;
+    }
+
+    private static void addSubtotals(Node node, int depth, int coats, double canSize, List<Subtotal> subtotals) {
+        double litres = Paint.litres(node.area(), coats);
+        subtotals.add(new Subtotal(node, depth, node.area(), litres, canSize > 0 ? Paint.cans(litres, canSize) : 0));
+        for (Node child : node.children()) {
+            addSubtotals(child, depth + 1, coats, canSize, subtotals);
+        }
+    }
+
+    private static final class RefreshTask extends RecursiveAction {
+        private final List<? extends Node> nodes;
+        private final int from;
+        private final int to;
+
+        RefreshTask(List<? extends Node> nodes, int from, int to) {
+            this.nodes = nodes;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > LEAF) {
+                int mid = (from + to) >>> 1;
+                invokeAll(new RefreshTask(nodes, from, mid), new RefreshTask(nodes, mid, to));
+                return;
+            }
+
+            // Parts with parts of their own get their own tasks, so one big floor doesn't hold up the rest
+            List<RefreshTask> tasks = new ArrayList<>();
+            for (int i = from; i < to; i++) {
+                Node node = nodes.get(i);
+                if (node.isStale() && !node.children().isEmpty())
+                    tasks.add(new RefreshTask(node.children(), 0, node.children().size()));
+            }
+            invokeAll(tasks);
+            for (int i = from; i < to; i++) {
+                nodes.get(i).area();
+            }
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package uk.hpkns.paintcalculator.building;
+
+import uk.hpkns.paintcalculator.geometry.CompensatedSum;
+import uk.hpkns.paintcalculator.geometry.Shape;
+import uk.hpkns.paintcalculator.geometry.Wall;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A room, made of walls. Any change to its walls recalculates the room when its area is next needed, along with the
+ * floor and building it is in, but nothing else.
+ */
+public final class Room extends Node {
+    private final List<Wall> walls = new ArrayList<>();
+
+    /**
+     * @param name The name of the room.
+     */
+    public Room(String name) {
+        super(name);
+    }
+
+    @Override
+    public List<? extends Node> children() {
+        return List.of();
+    }
+
+    /**
+     * @return The walls, as an unmodifiable view.
+     */
+    public List<Wall> walls() {
+        return Collections.unmodifiableList(walls);
+    }
+
+    /**
+     * Add a wall to the end.
+     * @param wall The wall.
+     * @return This room, to add more walls.
+     */
+    public Room add(Wall wall) {
+        walls.add(wall);
+        changed();
+        return this;
+    }
+
+    /**
+     * Replace a wall.
+     * @param i The index of the wall.
+     * @param wall The new wall.
+     */
+    public void set(int i, Wall wall) {
+        walls.set(i, wall);
+        changed();
+    }
+
+    /**
+     * Remove a wall.
+     * @param i The index of the wall.
+     */
+    public void remove(int i) {
+        walls.remove(i);
+        changed();
+    }
+
+    /**
+     * Add an obstruction to a wall.
+     * @param i The index of the wall.
+     * @param obs The obstruction.
+     */
+    public void addObstruction(int i, Shape obs) {
+        set(i, walls.get(i).withObstruction(obs));
+    }
+
+    /**
+     * Remove an obstruction from a wall.
+     * @param i The index of the wall.
+     * @param j The index of the obstruction on the wall.
+     */
+    public void removeObstruction(int i, int j) {
+        set(i, walls.get(i).withoutObstruction(j));
+    }
+
+    @Override
+    double calculateArea() {
+        CompensatedSum sum = new CompensatedSum();
+        for (Wall wall : walls) {
+            sum.add(wall.area());
+        }
+        return sum.result();
+    }
+}
@@ -0,0 +1,12 @@
+package uk.hpkns.paintcalculator.building;
+
+/**
+ * The paint needed for one part of a building.
+ * @param node The part of the building.
+ * @param depth How far the part is below the root, which is at depth 0.
+ * @param area The area to paint in square metres.
+ * @param litres The paint needed in litres, for all coats.
+ * @param cans The number of cans needed if the paint for this part is bought together, or 0 if no can size was given.
+ */
+public record Subtotal(Node node, int depth, double area, double litres, int cans) {
+}
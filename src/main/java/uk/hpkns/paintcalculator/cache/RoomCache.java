@@ -0,0 +1,134 @@
+package uk.hpkns.paintcalculator.cache;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+
+/**
+ * A bounded cache of room results, evicting the least recently used room when full. Keys are built on
+ * {@link RoomKey}, together with anything else the result depends on. Instances are thread-safe.
+ * <p>
+ * The cache is bounded both by the number of rooms and by the total size of their keys, since one room may have any
+ * number of walls. A room whose key alone is larger than that is calculated but never cached.
+ * @param <K> The type of key.
+ * @param <V> The type of result.
+ */
+public class RoomCache<K, V> {
+    private final int capacity;
+    private final long maxBytes;
+    private final ToLongFunction<? super K> weigher;
+    // Least recently used first
+    private final Map<K, V> results = new LinkedHashMap<>(16, 0.75f, true);
+    private long bytes;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * @param capacity The most rooms to keep.
+     * @param maxBytes The most bytes of keys to keep.
+     * @param weigher The size of a key in bytes, such as {@link RoomKey#bytes()} for the room it's built on.
+     */
+    public RoomCache(int capacity, long maxBytes, ToLongFunction<? super K> weigher) {
+        if (capacity <= 0)
+            throw new IllegalArgumentException("The cache must hold at least one room");
+        if (maxBytes <= 0)
+            throw new IllegalArgumentException("The cache must hold at least one byte");
+        this.capacity = capacity;
+        this.maxBytes = maxBytes;
+        this.weigher = weigher;
+    }
+
+    /**
+     * Look up the result for a room, calculating and caching it if it isn't already known. Nothing is cached if the
+     * calculation throws.
+     * @param key The room.
+     * @param calculate Calculates the result for a room which isn't cached.
+     * @return The result, identical to calculating it afresh.
+     */
+    public V get(K key, Function<? super K, ? extends V> calculate) {
+        V result;
+        synchronized (results) {
+            result = results.get(key);
+        }
+        if (result != null) {
+            hits.increment();
+            return result;
+        }
+
+        misses.increment();
+        // Calculated outside the lock; two threads missing on the same room just both calculate it
+        V calculated = calculate.apply(key);
+        long weight = weigher.applyAsLong(key);
+        if (weight > maxBytes)
+            return calculated;
+        synchronized (results) {
+            if (results.put(key, calculated) == null)
+                bytes += weight;
+            Iterator<K> eldest = results.keySet().iterator();
+            while (results.size() > capacity || bytes > maxBytes) {
+                bytes -= weigher.applyAsLong(eldest.next());
+                eldest.remove();
+                evictions.increment();
+            }
+        }
+        return calculated;
+    }
+
+    /**
+     * @return The number of rooms currently cached.
+     */
+    public int size() {
+        synchronized (results) {
+            return results.size();
+        }
+    }
+
+    /**
+     * @return The total size of the cached keys in bytes.
+     */
+    public long getBytes() {
+        synchronized (results) {
+            return bytes;
+        }
+    }
+
+    /**
+     * @return The most rooms the cache will keep.
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * @return The most bytes of keys the cache will keep.
+     */
+    public long getMaxBytes() {
+        return maxBytes;
+    }
+
+    /**
+     * @return The number of lookups which found the room already cached.
+     */
+    public long getHits() {
+        return hits.sum();
+    }
+
+    /**
+     * @return The number of lookups which had to calculate the room.
+     */
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    /**
+     * @return The number of rooms evicted to make space.
+     */
+    public long getEvictions() {
+        return evictions.sum();
+    }
+}
@@ -0,0 +1,195 @@
+package uk.hpkns.paintcalculator.cache;
+
+import uk.hpkns.paintcalculator.geometry.Shape;
+import uk.hpkns.paintcalculator.geometry.UnionArea;
+import uk.hpkns.paintcalculator.geometry.WallStore;
+
+import java.util.Arrays;
+import java.util.function.IntBinaryOperator;
+
+/**
+ * The geometry of a room in a canonical form, so that rooms with the same walls and obstructions are equal however
+ * they were entered.
+ * <p>
+ * Every wall and its obstructions are written into one array of the bits of every dimension, each wall's
+ * obstructions are sorted, and then the walls themselves are sorted. The room's area is always calculated from this canonical order, so it
+ * doesn't depend on the order the walls were given in and a cached area is identical to a fresh one.
+ */
+public final class RoomKey {
+    /**
+     * Each obstruction is its tag, dimensions and position, which is NaN if it isn't placed.
+     */
+    private static final int OBSTRUCTION = 5;
+
+    private final long[] canonical;
+    private final int hash;
+
+    private RoomKey(long[] canonical) {
+        this.canonical = canonical;
+        this.hash = Arrays.hashCode(canonical);
+    }
+
+    /**
+     * Build the key for a range of walls.
+     * @param store The walls.
+     * @param from The index of the room's first wall.
+     * @param to The index after the room's last wall.
+     * @return The key.
+     */
+    public static RoomKey of(WallStore store, int from, int to) {
+        int length = 0;
+        int most = 0;
+        for (int i = from; i < to; i++) {
+            int obstructions = store.obstructionEnd(i) - store.obstructionStart(i);
+            length += 3 + obstructions * OBSTRUCTION;
+            most = Math.max(most, obstructions);
+        }
+
+        // Every wall in one array, each with its obstructions sorted
+        long[] records = new long[length];
+        int[] walls = new int[to - from];
+        int[] order = new int[Math.max(most, to - from)];
+        int[] scratch = new int[order.length];
+        long[] block = new long[most * OBSTRUCTION];
+        int pos = 0;
+        for (int i = from; i < to; i++) {
+            int first = store.obstructionStart(i);
+            int obstructions = store.obstructionEnd(i) - first;
+            walls[i - from] = pos;
+            records[pos] = Double.doubleToLongBits(store.width(i));
+            records[pos + 1] = Double.doubleToLongBits(store.height(i));
+            records[pos + 2] = obstructions;
+            int start = pos + 3;
+            for (int j = 0; j < obstructions; j++) {
+                int o = start + j * OBSTRUCTION;
+                records[o] = store.tag(first + j);
+                records[o + 1] = Double.doubleToLongBits(store.dimA(first + j));
+                records[o + 2] = Double.doubleToLongBits(store.dimB(first + j));
+                records[o + 3] = Double.doubleToLongBits(store.x(first + j));
+                records[o + 4] = Double.doubleToLongBits(store.y(first + j));
+                order[j] = o;
+            }
+            sort(order, obstructions, scratch, (a, b) -> Arrays.compare(records, a, a + OBSTRUCTION,
+                    records, b, b + OBSTRUCTION));
+            System.arraycopy(records, start, block, 0, obstructions * OBSTRUCTION);
+            for (int j = 0; j < obstructions; j++) {
+                System.arraycopy(block, order[j] - start, records, start + j * OBSTRUCTION, OBSTRUCTION);
+            }
+            pos = start + obstructions * OBSTRUCTION;
+        }
+
+        // Then the walls themselves
+        System.arraycopy(walls, 0, order, 0, walls.length);
+        sort(order, walls.length, scratch, (a, b) -> Arrays.compare(records, a, a + size(records, a),
+                records, b, b + size(records, b)));
+        long[] canonical = new long[length];
+        pos = 0;
+        for (int w = 0; w < walls.length; w++) {
+            int size = size(records, order[w]);
+            System.arraycopy(records, order[w], canonical, pos, size);
+            pos += size;
+        }
+        return new RoomKey(canonical);
+    }
+
+    /**
+     * @return The memory the key's canonical form takes, in bytes.
+     */
+    public long bytes() {
+        return 8L * canonical.length;
+    }
+
+    /**
+     * @return The length of the wall record at an offset, including its obstructions.
+     */
+    private static int size(long[] records, int offset) {
+        return 3 + (int) records[offset + 2] * OBSTRUCTION;
+    }
+
+    /**
+     * Merge sort the first {@code n} offsets, comparing the records they point to.
+     */
+    private static void sort(int[] offsets, int n, int[] scratch, IntBinaryOperator compare) {
+        int[] from = offsets;
+        int[] to = scratch;
+        for (int width = 1; width < n; width *= 2) {
+            for (int lo = 0; lo < n; lo += 2 * width) {
+                int mid = Math.min(lo + width, n);
+                int hi = Math.min(lo + 2 * width, n);
+                int a = lo;
+                int b = mid;
+                for (int k = lo; k < hi; k++) {
+                    to[k] = a < mid && (b >= hi || compare.applyAsInt(from[a], from[b]) <= 0) ? from[a++] : from[b++];
+                }
+            }
+            int[] swap = from;
+            from = to;
+            to = swap;
+        }
+        if (from != offsets)
+            System.arraycopy(from, 0, offsets, 0, n);
+    }
+
+    /**
+     * @return The area of the room's walls, minus obstructions, summed in canonical order.
+     */
+    public double area() {
+        double total = 0d;
+        int pos = 0;
+        while (pos < canonical.length) {
+            double width = Double.longBitsToDouble(canonical[pos]);
+            double height = Double.longBitsToDouble(canonical[pos + 1]);
+            int obstructions = (int) canonical[pos + 2];
+            pos += 3;
+
+            double obstructionArea = 0d;
+            if (placed(pos, obstructions)) {
+                obstructionArea = unionArea(width, height, pos, obstructions);
+            } else {
+                for (int j = 0; j < obstructions; j++) {
+                    int o = pos + j * OBSTRUCTION;
+                    obstructionArea += Shape.area((byte) canonical[o],
+                            Double.longBitsToDouble(canonical[o + 1]), Double.longBitsToDouble(canonical[o + 2]));
+                }
+            }
+            pos += obstructions * OBSTRUCTION;
+            total += width * height - obstructionArea;
+        }
+        return total;
+    }
+
+    private boolean placed(int pos, int obstructions) {
+        for (int j = 0; j < obstructions; j++) {
+            if (!Double.isNaN(Double.longBitsToDouble(canonical[pos + j * OBSTRUCTION + 3])))
+                return true;
+        }
+        return false;
+    }
+
+    private double unionArea(double width, double height, int pos, int obstructions) {
+        byte[] tag = new byte[obstructions];
+        double[] a = new double[obstructions];
+        double[] b = new double[obstructions];
+        double[] x = new double[obstructions];
+        double[] y = new double[obstructions];
+        for (int j = 0; j < obstructions; j++) {
+            int o = pos + j * OBSTRUCTION;
+            tag[j] = (byte) canonical[o];
+            a[j] = Double.longBitsToDouble(canonical[o + 1]);
+            b[j] = Double.longBitsToDouble(canonical[o + 2]);
+            x[j] = Double.longBitsToDouble(canonical[o + 3]);
+            y[j] = Double.longBitsToDouble(canonical[o + 4]);
+        }
+        return UnionArea.obstructionArea(width, height, tag, a, b, x, y, 0, obstructions);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof RoomKey other && hash == other.hash && Arrays.equals(canonical, other.canonical);
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+}
@@ -0,0 +1,22 @@
+package uk.hpkns.paintcalculator.cans;
+
+/**
+ * A size of paint can on sale.
+ * @param litres The paint in the can, in litres, to the nearest millilitre.
+ * @param pence The price of the can in pence.
+ */
+public record Can(double litres, long pence) {
+    public Can {
+        if (!(litres >= 0.001) || Double.isInfinite(litres))
+            throw new IllegalArgumentException("Cans must hold at least 1 ml");
+        if (pence < 0)
+            throw new IllegalArgumentException("Cans can't have a negative price");
+    }
+
+    /**
+     * @return The paint in the can, in millilitres.
+     */
+    public long millilitres() {
+        return Math.round(litres * 1000);
+    }
+}
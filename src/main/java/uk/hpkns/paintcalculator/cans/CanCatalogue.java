@@ -0,0 +1,254 @@
+package uk.hpkns.paintcalculator.cans;
+
+import java.util.*;
+
+/**
+ * The sizes of can a supplier sells, and the best mix of them to buy for any amount of paint.
+ * <p>
+ * Mixes are exact: every can size is a whole number of some unit, the greatest common divisor of the sizes, and a
+ * table of the best mix for every number of units up to a bound is built the first time each objective is used.
+ * Beyond the bound the best mix always includes the can with the best price per litre, so larger amounts take as many
+ * of that can as needed to come within the table. Each lookup after that costs one pass over the mix.
+ * <p>
+ * Catalogues are immutable and thread-safe, and {@link #of(List)} reuses the tables of recently used catalogues.
+ * Catalogues may come from untrusted requests, so the number of cans and the size of the tables are both limited,
+ * and so is the memory held by the recently used tables.
+ */
+public final class CanCatalogue {
+    /**
+     * The largest table built, in units. Catalogues which would need more have sizes too fine to pack exactly. At
+     * this bound a table takes 256 KiB, and about 1.3 MiB while it is being built; a catalogue sold to the millilitre
+     * would need cans of under 256 ml.
+     */
+    static final int MAX_TABLE = 1 << 16;
+
+    /**
+     * The most cans a catalogue may have, since building a table takes time for every can.
+     */
+    static final int MAX_CANS = 32;
+
+    private static final int RECENT = 64;
+
+    /**
+     * The most memory the tables of recently used catalogues may hold between them, in bytes.
+     */
+    private static final long RECENT_BYTES = 16L << 20;
+
+    // Least recently used first
+    private static final Map<List<Can>, CanCatalogue> recent = new LinkedHashMap<>(16, 0.75f, true);
+    private static long recentBytes;
+
+    private final List<Can> cans;
+    private final long unit;
+    private final int[] size;
+    private final long[] pence;
+    private final int best;
+    private final int bound;
+    private final Table[] tables = new Table[Objective.values().length];
+
+    private CanCatalogue(List<Can> cans) {
+        this.cans = cans;
+        size = new int[cans.size()];
+        pence = new long[cans.size()];
+
+        long gcd = 0;
+        for (Can can : cans) {
+            gcd = gcd(gcd, can.millilitres());
+        }
+        unit = gcd;
+
+        int best = 0;
+        long maxSize = 0;
+        for (int c = 0; c < cans.size(); c++) {
+            long units = cans.get(c).millilitres() / unit;
+            if (units > MAX_TABLE)
+                throw new IllegalArgumentException("The can sizes are too fine to pack exactly");
+            size[c] = (int) units;
+            pence[c] = cans.get(c).pence();
+            maxSize = Math.max(maxSize, size[c]);
+            // Lowest price per unit, compared without dividing
+            if (pence[c] * size[best] < pence[best] * size[c])
+                best = c;
+        }
+        this.best = best;
+
+        // An optimal mix never needs size[best] or more other cans, since some of them would add up to a whole
+        // number of the best can, and swapping them for it couldn't cost more. So past this bound it has the best can.
+        long bound = (long) size[best] * maxSize;
+        if (bound > MAX_TABLE)
+            throw new IllegalArgumentException("The can sizes are too fine to pack exactly");
+        this.bound = (int) bound;
+    }
+
+    /**
+     * Get the catalogue for a list of cans, reusing a recent one if possible.
+     * @param cans The cans on sale. If two are the same size, only the cheaper is used.
+     * @return The catalogue.
+     * @throws IllegalArgumentException If there are no cans or too many, or their sizes are too fine to pack exactly.
+     */
+    public static CanCatalogue of(List<Can> cans) {
+        if (cans.isEmpty())
+            throw new IllegalArgumentException("The catalogue must have at least one can");
+        if (cans.size() > MAX_CANS)
+            throw new IllegalArgumentException(String.format("The catalogue can't have more than %d cans", MAX_CANS));
+        Map<Long, Can> bySize = new TreeMap<>(Comparator.reverseOrder());
+        for (Can can : cans) {
+            bySize.merge(can.millilitres(), can, (a, b) -> a.pence() <= b.pence() ? a : b);
+        }
+        List<Can> key = List.copyOf(bySize.values());
+        synchronized (recent) {
+            CanCatalogue catalogue = recent.get(key);
+            if (catalogue == null) {
+                catalogue = new CanCatalogue(key);
+                recent.put(key, catalogue);
+                recentBytes += catalogue.bytes();
+                Iterator<CanCatalogue> eldest = recent.values().iterator();
+                while (recent.size() > RECENT || recentBytes > RECENT_BYTES && recent.size() > 1) {
+                    recentBytes -= eldest.next().bytes();
+                    eldest.remove();
+                }
+            }
+            return catalogue;
+        }
+    }
+
+    /**
+     * Parse a catalogue written as {@code litres:pence} pairs separated by commas, for example
+     * {@code 0.75:899,2.5:1999,5:3299,10:5599}.
+     * @param spec The catalogue.
+     * @return The catalogue.
+     * @throws IllegalArgumentException If the catalogue is malformed.
+     */
+    public static CanCatalogue parse(String spec) {
+        List<Can> cans = new ArrayList<>();
+        for (String entry : spec.split(",")) {
+            String[] parts = entry.strip().split(":");
+            if (parts.length != 2)
+                throw new IllegalArgumentException(String.format("Invalid can '%s', expected litres:pence", entry));
+            try {
+                cans.add(new Can(Double.parseDouble(parts[0]), Long.parseLong(parts[1].strip())));
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException(String.format("Invalid can '%s', expected litres:pence", entry));
+            }
+        }
+        return of(cans);
+    }
+
+    /**
+     * @return The most memory this catalogue's tables can take, in bytes, with one table for each objective.
+     */
+    private long bytes() {
+        return 4L * (bound + 1) * Objective.values().length;
+    }
+
+    /**
+     * @return The cans on sale, largest first.
+     */
+    public List<Can> cans() {
+        return cans;
+    }
+
+    /**
+     * Find the best mix of cans holding at least the given paint.
+     * @param litres The paint needed in litres. Amounts are rounded up to the nearest millilitre.
+     * @param objective What to choose the mix for.
+     * @return The mix.
+     * @throws IllegalArgumentException If the paint needed isn't a positive number, or would need too many cans.
+     */
+    public CanMix pack(double litres, Objective objective) {
+        if (!(litres >= 0) || Double.isInfinite(litres))
+            throw new IllegalArgumentException("The paint needed must be a positive number of litres");
+        // Far more than any mix could hold, but small enough that the units below can't overflow
+        if (litres > 1e15)
+            throw new IllegalArgumentException("There is too much paint to pack into cans");
+        // Allow for rounding in the paint calculation, so 76.8 L doesn't need 76.800000001 L
+        long millilitres = (long) Math.ceil(litres * 1000 - 1e-6);
+        long units = (millilitres + unit - 1) / unit;
+
+        int[] counts = new int[cans.size()];
+        if (units > bound) {
+            long extra = (units - bound + size[best] - 1) / size[best];
+            if (extra > Integer.MAX_VALUE)
+                throw new IllegalArgumentException("There is too much paint to pack into cans");
+            counts[best] = (int) extra;
+            units -= extra * size[best];
+        }
+        Table table = table(objective);
+        for (int n = (int) units; n > 0; n = Math.max(0, n - size[table.choice[n]])) {
+            counts[table.choice[n]]++;
+        }
+
+        Map<Can, Integer> mix = new LinkedHashMap<>();
+        long totalPence = 0;
+        long totalUnits = 0;
+        for (int c = 0; c < counts.length; c++) {
+            if (counts[c] == 0)
+                continue;
+            mix.put(cans.get(c), counts[c]);
+            totalPence += counts[c] * pence[c];
+            totalUnits += (long) counts[c] * size[c];
+        }
+        return new CanMix(Collections.unmodifiableMap(mix), totalPence, totalUnits * unit / 1000d);
+    }
+
+    private Table table(Objective objective) {
+        synchronized (tables) {
+            Table table = tables[objective.ordinal()];
+            if (table == null) {
+                table = new Table(objective);
+                tables[objective.ordinal()] = table;
+            }
+            return table;
+        }
+    }
+
+    private static long gcd(long a, long b) {
+        while (b != 0) {
+            long t = a % b;
+            a = b;
+            b = t;
+        }
+        return a;
+    }
+
+    /**
+     * The best mix for every number of units up to the bound, as the last can added to reach it. Each entry is the
+     * best of adding one of each can to the best mix for the rest, which for "at least n" means n minus the can's
+     * size, or nothing if the can alone is enough.
+     */
+    private final class Table {
+        final int[] choice = new int[bound + 1];
+
+        Table(Objective objective) {
+            long[] totalPence = new long[bound + 1];
+            long[] totalUnits = new long[bound + 1];
+            int[] count = new int[bound + 1];
+            for (int n = 1; n <= bound; n++) {
+                int bestCan = -1;
+                for (int c = 0; c < size.length; c++) {
+                    int rest = Math.max(0, n - size[c]);
+                    long p = totalPence[rest] + pence[c];
+                    long u = totalUnits[rest] + size[c];
+                    int k = count[rest] + 1;
+                    if (bestCan < 0 || better(objective, p, u, k, totalPence[n], totalUnits[n], count[n])) {
+                        bestCan = c;
+                        totalPence[n] = p;
+                        totalUnits[n] = u;
+                        count[n] = k;
+                    }
+                }
+                choice[n] = bestCan;
+            }
+        }
+
+        private static boolean better(Objective objective, long p, long u, int k, long bestP, long bestU, int bestK) {
+            long first = objective == Objective.CHEAPEST ? Long.compare(p, bestP) : Long.compare(u, bestU);
+            if (first != 0)
+                return first < 0;
+            long second = objective == Objective.CHEAPEST ? Long.compare(u, bestU) : Long.compare(p, bestP);
+            if (second != 0)
+                return second < 0;
+            return k < bestK;
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package uk.hpkns.paintcalculator.cans;
+
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * A mix of cans to buy.
+ * @param counts How many of each can to buy, largest first. Cans not needed are left out.
+ * @param pence The total price in pence.
+ * @param litres The total paint bought in litres.
+ */
+public record CanMix(Map<Can, Integer> counts, long pence, double litres) {
+    /**
+     * @return The number of cans.
+     */
+    public int cans() {
+        return counts.values().stream().mapToInt(Integer::intValue).sum();
+    }
+
+    /**
+     * @return The mix in a human-readable form, for example {@code 2 x 10 L + 1 x 0.75 L}.
+     */
+    public String describe() {
+        if (counts.isEmpty())
+            return "nothing";
+        return counts.entrySet().stream()
+                .map(e -> String.format("%d x %s L", e.getValue(), formatLitres(e.getKey().litres())))
+                .collect(Collectors.joining(" + "));
+    }
+
+    private static String formatLitres(double litres) {
+        return litres == Math.rint(litres) ? Long.toString((long) litres) : Double.toString(litres);
+    }
+}
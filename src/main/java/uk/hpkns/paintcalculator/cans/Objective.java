@@ -0,0 +1,29 @@
+package uk.hpkns.paintcalculator.cans;
+
+/**
+ * What a mix of cans is chosen for. Ties are broken by the other objective, then by the fewest cans.
+ */
+public enum Objective {
+    /**
+     * The lowest total price.
+     */
+    CHEAPEST,
+
+    /**
+     * The least paint left over.
+     */
+    LEAST_WASTE;
+
+    /**
+     * @param name The objective as written on the command line or in JSON, {@code cheapest} or {@code least-waste}.
+     * @return The objective.
+     * @throws IllegalArgumentException If the name isn't an objective.
+     */
+    public static Objective parse(String name) {
+        for (Objective objective : values()) {
+            if (objective.name().replace('_', '-').equalsIgnoreCase(name))
+                return objective;
+        }
+        throw new IllegalArgumentException(String.format("Unknown objective '%s'", name));
+    }
+}
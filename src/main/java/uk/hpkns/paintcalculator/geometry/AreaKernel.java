@@ -0,0 +1,31 @@
+package uk.hpkns.paintcalculator.geometry;
+
+/**
+ * The loops {@link SimdArea} vectorizes. The implementation links against {@code jdk.incubator.vector}, so it's only
+ * compiled by the {@code simd} profile and is loaded by name.
+ */
+interface AreaKernel {
+    /**
+     * @return Whether the preferred vector shape can be used.
+     */
+    boolean isSupported();
+
+    /**
+     * Multiply two arrays element by element.
+     * @param x The first factors.
+     * @param y The second factors.
+     * @param n The number of elements.
+     * @param out Where to write the products.
+     */
+    void products(double[] x, double[] y, int n, double[] out);
+
+    /**
+     * Calculate the area of every obstruction, as {@link Shape#area(byte, double, double)} would.
+     * @param tag The shape tags.
+     * @param a The first dimensions.
+     * @param b The second dimensions.
+     * @param n The number of obstructions.
+     * @param out Where to write the areas.
+     */
+    void obstructionAreas(byte[] tag, double[] a, double[] b, int n, double[] out);
+}
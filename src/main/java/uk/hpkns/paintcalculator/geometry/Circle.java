@@ -0,0 +1,27 @@
+package uk.hpkns.paintcalculator.geometry;
+
+/**
+ * A circular obstruction.
+ * @param radius The radius in metres.
+ */
+public record Circle(double radius) implements Shape {
+    @Override
+    public byte tag() {
+        return CIRCULAR;
+    }
+
+    @Override
+    public double a() {
+        return radius;
+    }
+
+    @Override
+    public double b() {
+        return 0;
+    }
+
+    @Override
+    public String describe() {
+        return String.format("%.2f radius", radius);
+    }
+}
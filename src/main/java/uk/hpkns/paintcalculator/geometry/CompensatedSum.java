@@ -0,0 +1,39 @@
+package uk.hpkns.paintcalculator.geometry;
+
+/**
+ * A running total using Neumaier's compensated summation, which keeps track of the low-order bits lost by each
+ * addition so that long sums of areas don't drift.
+ */
+public final class CompensatedSum {
+    private double sum;
+    private double compensation;
+
+    /**
+     * Add a value to the total.
+     * @param value The value.
+     */
+    public void add(double value) {
+        double t = sum + value;
+        if (Math.abs(sum) >= Math.abs(value))
+            compensation += (sum - t) + value;
+        else
+            compensation += (value - t) + sum;
+        sum = t;
+    }
+
+    /**
+     * Add another partial total to this one.
+     * @param other The other total.
+     */
+    public void add(CompensatedSum other) {
+        add(other.sum);
+        compensation += other.compensation;
+    }
+
+    /**
+     * @return The total.
+     */
+    public double result() {
+        return sum + compensation;
+    }
+}
@@ -0,0 +1,142 @@
+package uk.hpkns.paintcalculator.geometry;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+
+/**
+ * A running total of doubles with no rounding at all, so totals can be split up and added back together in any
+ * order and still come to exactly the same value.
+ * <p>
+ * Every finite double is a whole number of 2<sup>-1074</sup>, so the total is kept as one long fixed-point number in
+ * 32-bit limbs, each held in a long so that carries only need to be passed up occasionally. Adding a value touches
+ * at most three limbs.
+ */
+public final class ExactSum {
+    private static final int LIMBS = 70;
+    private static final long MASK = 0xFFFFFFFFL;
+    private static final int SCALE = 1074;
+
+    /**
+     * Each addition changes a limb by less than 2<sup>32</sup>, so this many fit before it could overflow.
+     */
+    private static final int ADDS_BEFORE_CARRY = 1 << 30;
+
+    private static final BigInteger FIVE_TO_SCALE = BigInteger.valueOf(5).pow(SCALE);
+
+    private final long[] limbs = new long[LIMBS];
+    private int adds;
+
+    /**
+     * Add a value to the total.
+     * @param value The value, which must be finite.
+     * @throws IllegalArgumentException If the value is infinite or NaN.
+     */
+    public void add(double value) {
+        long bits = Double.doubleToRawLongBits(value);
+        int exponent = (int) ((bits >>> 52) & 0x7FF);
+        if (exponent == 0x7FF)
+            throw new IllegalArgumentException("Only finite values can be summed exactly");
+        long mantissa = bits & ((1L << 52) - 1);
+        int position = 0;
+        if (exponent != 0) {
+            mantissa |= 1L << 52;
+            position = exponent - 1;
+        }
+
+        int k = position >>> 5;
+        int shift = position & 31;
+        long v0 = (mantissa << shift) & MASK;
+        long rest = mantissa >>> (32 - shift);
+        long v1 = rest & MASK;
+        long v2 = rest >>> 32;
+        if (bits < 0) {
+            limbs[k] -= v0;
+            limbs[k + 1] -= v1;
+            limbs[k + 2] -= v2;
+        } else {
+            limbs[k] += v0;
+            limbs[k + 1] += v1;
+            limbs[k + 2] += v2;
+        }
+        if (++adds == ADDS_BEFORE_CARRY)
+            carry();
+    }
+
+    /**
+     * Add another total to this one.
+     * @param other The other total.
+     */
+    public void add(ExactSum other) {
+        carry();
+        other.carry();
+        for (int k = 0; k < LIMBS; k++) {
+            limbs[k] += other.limbs[k];
+        }
+        carry();
+    }
+
+    /**
+     * Add a value previously returned by {@link #toBigDecimal()}.
+     * @param value The value.
+     * @throws IllegalArgumentException If the value isn't a sum of doubles.
+     */
+    public void add(BigDecimal value) {
+        BigInteger units;
+        try {
+            units = value.multiply(new BigDecimal(BigInteger.ONE.shiftLeft(SCALE))).toBigIntegerExact();
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException(String.format("%s isn't a sum of doubles", value), e);
+        }
+        if (units.bitLength() >= LIMBS * 32 - 64)
+            throw new IllegalArgumentException(String.format("%s is too large to sum exactly", value));
+        carry();
+        for (int k = 0; k < LIMBS - 1; k++) {
+            limbs[k] += units.longValue() & MASK;
+            units = units.shiftRight(32);
+        }
+        limbs[LIMBS - 1] += units.longValue();
+        carry();
+    }
+
+    /**
+     * @return The exact total.
+     */
+    public BigDecimal toBigDecimal() {
+        carry();
+        BigInteger units = BigInteger.ZERO;
+        for (int k = LIMBS - 1; k >= 0; k--) {
+            units = units.shiftLeft(32).add(BigInteger.valueOf(limbs[k]));
+        }
+        if (units.signum() == 0)
+            return BigDecimal.ZERO;
+        // Shifting out factors of 2 first leaves an odd number of units, whose decimal form has no trailing zeros to
+        // strip, so there's no long division of a number over a thousand digits long
+        int zeros = Math.min(units.getLowestSetBit(), SCALE);
+        int scale = SCALE - zeros;
+        units = units.shiftRight(zeros);
+        if (scale == 0)
+            return new BigDecimal(units).stripTrailingZeros();
+        // units * 2^-scale = units * 5^scale * 10^-scale
+        BigInteger fives = scale == SCALE ? FIVE_TO_SCALE : BigInteger.valueOf(5).pow(scale);
+        return new BigDecimal(units.multiply(fives), scale);
+    }
+
+    /**
+     * @return The total, correctly rounded to the nearest double.
+     */
+    public double result() {
+        return toBigDecimal().doubleValue();
+    }
+
+    /**
+     * Pass carries up so that every limb but the top one is between 0 and 2<sup>32</sup>.
+     */
+    private void carry() {
+        for (int k = 0; k < LIMBS - 1; k++) {
+            long c = limbs[k] >> 32;
+            limbs[k] &= MASK;
+            limbs[k + 1] += c;
+        }
+        adds = 0;
+    }
+}
@@ -0,0 +1,198 @@
+package uk.hpkns.paintcalculator.geometry;
+
+import java.util.Arrays;
+
+/**
+ * A compact store of walls in whole {@link Millimetres millimetres}, like {@link WallStore} but with every area a
+ * {@code long} number of square millimetres. Areas are the same however the walls are split up or ordered, so totals
+ * can be added in any order, on any number of threads or machines, and always agree.
+ * <p>
+ * Obstructions can't be placed, since their union isn't a whole number of square millimetres.
+ */
+public final class MillimetreStore {
+    /**
+     * What {@link #areaOrTooBig(int)} gives for a wall whose area doesn't fit in a long.
+     */
+    public static final long TOO_BIG = Long.MIN_VALUE;
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    private long[] width;
+    private long[] height;
+    private int[] obstructionStart;
+    private byte[] tag;
+    private long[] dimA;
+    private long[] dimB;
+
+    private int walls;
+    private int obstructions;
+
+    public MillimetreStore() {
+        this(INITIAL_CAPACITY, INITIAL_CAPACITY);
+    }
+
+    /**
+     * @param wallCapacity The number of walls to make room for up front.
+     * @param obstructionCapacity The number of obstructions to make room for up front.
+     */
+    public MillimetreStore(int wallCapacity, int obstructionCapacity) {
+        wallCapacity = Math.max(wallCapacity, 1);
+        obstructionCapacity = Math.max(obstructionCapacity, 1);
+        width = new long[wallCapacity];
+        height = new long[wallCapacity];
+        obstructionStart = new int[wallCapacity + 1];
+        tag = new byte[obstructionCapacity];
+        dimA = new long[obstructionCapacity];
+        dimB = new long[obstructionCapacity];
+    }
+
+    /**
+     * Add a wall with no obstructions yet.
+     * @param w The width in millimetres.
+     * @param h The height in millimetres.
+     * @return The index of the new wall.
+     */
+    public int addWall(long w, long h) {
+        if (walls == width.length) {
+            int capacity = width.length * 2;
+            width = Arrays.copyOf(width, capacity);
+            height = Arrays.copyOf(height, capacity);
+            obstructionStart = Arrays.copyOf(obstructionStart, capacity + 1);
+        }
+        width[walls] = w;
+        height[walls] = h;
+        walls++;
+        obstructionStart[walls] = obstructions;
+        return walls - 1;
+    }
+
+    /**
+     * Add an obstruction to the most recently added wall.
+     * @param shape The shape tag.
+     * @param a The first dimension in millimetres.
+     * @param b The second dimension in millimetres, or 0 if the shape only has one.
+     * @throws IllegalArgumentException If the tag isn't a known shape.
+     * @throws IllegalStateException If there are no walls yet.
+     */
+    public void addObstruction(byte shape, long a, long b) {
+        if (walls == 0)
+            throw new IllegalStateException("There is no wall to add the obstruction to");
+        Shape.dimensions(shape); // validates the tag
+        if (obstructions == tag.length) {
+            int capacity = tag.length * 2;
+            tag = Arrays.copyOf(tag, capacity);
+            dimA = Arrays.copyOf(dimA, capacity);
+            dimB = Arrays.copyOf(dimB, capacity);
+        }
+        tag[obstructions] = shape;
+        dimA[obstructions] = a;
+        dimB[obstructions] = b;
+        obstructions++;
+        obstructionStart[walls] = obstructions;
+    }
+
+    /**
+     * Add a wall from a store of walls in metres, rounding each dimension to the nearest millimetre.
+     * @param store The store to copy from.
+     * @param i The index of the wall to copy.
+     * @return The index of the new wall.
+     * @throws IllegalArgumentException If the wall has placed obstructions.
+     */
+    public int add(WallStore store, int i) {
+        if (store.hasPlacedObstructions(i))
+            throw new IllegalArgumentException("Placed obstructions can't be calculated in whole millimetres");
+        int index = addWall(Millimetres.of(store.width(i)), Millimetres.of(store.height(i)));
+        for (int j = store.obstructionStart(i); j < store.obstructionEnd(i); j++) {
+            addObstruction(store.tag(j), Millimetres.of(store.dimA(j)), Millimetres.of(store.dimB(j)));
+        }
+        return index;
+    }
+
+    /**
+     * Remove the most recently added wall and its obstructions, for example when it turns out to be invalid.
+     */
+    public void removeLast() {
+        if (walls == 0)
+            throw new IllegalStateException("There are no walls");
+        walls--;
+        obstructions = obstructionStart[walls];
+    }
+
+    /**
+     * Remove every wall, keeping the allocated capacity for reuse.
+     */
+    public void clear() {
+        walls = 0;
+        obstructions = 0;
+    }
+
+    /**
+     * @return The number of walls.
+     */
+    public int size() {
+        return walls;
+    }
+
+    /**
+     * @return The total number of obstructions across all walls.
+     */
+    public int obstructionCount() {
+        return obstructions;
+    }
+
+    /**
+     * @param i The index of the wall.
+     * @return The area of the wall in square millimetres, ignoring obstructions.
+     * @throws ArithmeticException If the area doesn't fit in a long.
+     */
+    public long grossArea(int i) {
+        return Math.multiplyExact(width[i], height[i]);
+    }
+
+    /**
+     * @param i The index of the wall.
+     * @return The total area of the wall's obstructions in square millimetres.
+     * @throws ArithmeticException If the area doesn't fit in a long.
+     */
+    public long obstructionArea(int i) {
+        long total = 0;
+        for (int j = obstructionStart[i]; j < obstructionStart[i + 1]; j++) {
+            total = Math.addExact(total, Millimetres.area(tag[j], dimA[j], dimB[j]));
+        }
+        return total;
+    }
+
+    /**
+     * @param i The index of the wall.
+     * @return The area of the wall to paint in square millimetres, minus obstructions.
+     * @throws ArithmeticException If the area doesn't fit in a long.
+     */
+    public long area(int i) {
+        return Math.subtractExact(grossArea(i), obstructionArea(i));
+    }
+
+    /**
+     * @param i The index of the wall.
+     * @return The area of the wall to paint in square millimetres, minus obstructions, or {@link #TOO_BIG} if it
+     * doesn't fit in a long.
+     */
+    public long areaOrTooBig(int i) {
+        try {
+            return area(i);
+        } catch (ArithmeticException e) {
+            return TOO_BIG;
+        }
+    }
+
+    /**
+     * @return The area of every wall to paint in square millimetres, minus obstructions.
+     * @throws ArithmeticException If the area doesn't fit in a long.
+     */
+    public long totalArea() {
+        long total = 0;
+        for (int i = 0; i < walls; i++) {
+            total = Math.addExact(total, area(i));
+        }
+        return total;
+    }
+}
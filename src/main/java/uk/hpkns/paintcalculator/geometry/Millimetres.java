@@ -0,0 +1,174 @@
+package uk.hpkns.paintcalculator.geometry;
+
+/**
+ * Whole millimetres, for calculating areas exactly in {@code long} square millimetres.
+ * <p>
+ * Dimensions are rounded once, to the nearest millimetre with halves rounded away from zero. Rectangles are then
+ * exact. A curved shape's area is worked out in doubles from its whole-millimetre dimensions and rounded to the
+ * nearest square millimetre, halves up; Java's floating point gives the same result on every machine, so each shape
+ * always has the same area and totals don't depend on the order they're added in.
+ */
+public final class Millimetres {
+    private static final long SIGNIFICANT = 100_000_000_000_000_000L;
+    private static final long[] POWERS = new long[19];
+
+    static {
+        POWERS[0] = 1;
+        for (int i = 1; i < POWERS.length; i++) {
+            POWERS[i] = POWERS[i - 1] * 10;
+        }
+    }
+
+    private Millimetres() {
+    }
+
+    /**
+     * Parse a decimal number of metres, such as {@code 2.4} or {@code 1.2e-1}, straight to millimetres without
+     * going through a double.
+     * @param text The number.
+     * @return The number of millimetres, rounded to the nearest.
+     * @throws IllegalArgumentException If the text isn't a number or is too big.
+     */
+    public static long parse(CharSequence text) {
+        int pos = 0;
+        int end = text.length();
+        boolean negative = false;
+        if (pos < end && (text.charAt(pos) == '-' || text.charAt(pos) == '+'))
+            negative = text.charAt(pos++) == '-';
+
+        // Up to 18 significant digits, ignoring the point, and the number of them after the point. Any more can
+        // only be after the point, and only the first of those can affect rounding.
+        long digits = 0;
+        int scale = 0;
+        int count = 0;
+        boolean point = false;
+        int dropped = -1;
+        for (; pos < end; pos++) {
+            char c = text.charAt(pos);
+            if (c == '.' && !point) {
+                point = true;
+                continue;
+            }
+            if (c < '0' || c > '9')
+                break;
+            count++;
+            if (digits < SIGNIFICANT) {
+                digits = digits * 10 + (c - '0');
+                if (point)
+                    scale++;
+            } else if (!point) {
+                throw tooBig(text);
+            } else if (dropped < 0) {
+                dropped = c - '0';
+            }
+        }
+        if (count == 0)
+            throw notANumber(text);
+
+        int exponent = 0;
+        if (pos < end && (text.charAt(pos) == 'e' || text.charAt(pos) == 'E')) {
+            pos++;
+            boolean negativeExponent = false;
+            if (pos < end && (text.charAt(pos) == '-' || text.charAt(pos) == '+'))
+                negativeExponent = text.charAt(pos++) == '-';
+            int start = pos;
+            for (; pos < end && text.charAt(pos) >= '0' && text.charAt(pos) <= '9'; pos++) {
+                exponent = Math.min(exponent * 10 + (text.charAt(pos) - '0'), 1000);
+            }
+            if (pos == start)
+                throw notANumber(text);
+            if (negativeExponent)
+                exponent = -exponent;
+        }
+        if (pos != end)
+            throw notANumber(text);
+
+        // A metre is 10^3 millimetres
+        int shift = 3 + exponent - scale;
+        long mm;
+        if (shift < -18) {
+            mm = 0; // digits is less than 10^18, so this is under a tenth of a millimetre
+        } else if (shift < 0) {
+            // Dropped digits can't tip the rest over a half, which is a whole number of the last kept digit
+            long divisor = POWERS[-shift];
+            mm = digits / divisor;
+            if (digits % divisor * 2 >= divisor)
+                mm++;
+        } else {
+            if (dropped >= 0 && shift > 0)
+                throw new IllegalArgumentException(String.format("'%s' has too many digits", text));
+            mm = digits;
+            for (int i = 0; i < shift && mm != 0; i++) {
+                if (mm > Long.MAX_VALUE / 10)
+                    throw tooBig(text);
+                mm *= 10;
+            }
+            if (dropped >= 5)
+                mm++;
+        }
+        return negative ? -mm : mm;
+    }
+
+    /**
+     * Round a number of metres to millimetres, for dimensions which have already been read as doubles.
+     * @param metres The number of metres.
+     * @return The number of millimetres, rounded to the nearest.
+     * @throws IllegalArgumentException If the number isn't finite or is too big.
+     */
+    public static long of(double metres) {
+        double mm = metres * 1000;
+        if (!(Math.abs(mm) < 0x1p62))
+            throw new IllegalArgumentException(String.format("%s isn't a number of metres", metres));
+        return Math.round(Math.abs(mm)) * (mm < 0 ? -1 : 1);
+    }
+
+    /**
+     * Calculate the area of a shape from its tag and dimensions.
+     * @param tag The shape tag.
+     * @param a The first dimension in millimetres.
+     * @param b The second dimension in millimetres.
+     * @return The area in square millimetres, exact for rectangles and otherwise rounded to the nearest.
+     * @throws IllegalArgumentException If the tag isn't a known shape.
+     * @throws ArithmeticException If a rectangle's area doesn't fit in a long.
+     */
+    public static long area(byte tag, long a, long b) {
+        return switch (tag) {
+            case Shape.RECTANGULAR -> Math.multiplyExact(a, b);
+            case Shape.CIRCULAR -> Math.round(Math.PI * a * a);
+            case Shape.OVAL -> Math.round(Math.PI * a * b);
+            default -> throw Shape.invalid(tag);
+        };
+    }
+
+    /**
+     * Write square millimetres as square metres, with no rounding.
+     * @param mm2 The number of square millimetres.
+     * @return The number of square metres, such as {@code 8.64} or {@code 12.0}.
+     */
+    public static String squareMetres(long mm2) {
+        StringBuilder sb = new StringBuilder(24);
+        if (mm2 < 0)
+            sb.append('-');
+        long whole = Math.abs(mm2 / 1_000_000);
+        long fraction = Math.abs(mm2 % 1_000_000);
+        sb.append(whole).append('.');
+        int digits = 6;
+        while (digits > 1 && fraction % 10 == 0) {
+            fraction /= 10;
+            digits--;
+        }
+        String f = Long.toString(fraction);
+        for (int i = f.length(); i < digits; i++) {
+            sb.append('0');
+        }
+        return sb.append(f).toString();
+    }
+
+    private static IllegalArgumentException notANumber(CharSequence text) {
+        return new IllegalArgumentException(String.format("'%s' is not a number", text));
+    }
+
+    private static IllegalArgumentException tooBig(CharSequence text) {
+        return new IllegalArgumentException(String.format("'%s' is too big", text));
+    }
+}
@@ -0,0 +1,28 @@
+package uk.hpkns.paintcalculator.geometry;
+
+/**
+ * An oval (elliptical) obstruction.
+ * @param semiMajor The length of the semi-major axis in metres.
+ * @param semiMinor The length of the semi-minor axis in metres.
+ */
+public record Oval(double semiMajor, double semiMinor) implements Shape {
+    @Override
+    public byte tag() {
+        return OVAL;
+    }
+
+    @Override
+    public double a() {
+        return semiMajor;
+    }
+
+    @Override
+    public double b() {
+        return semiMinor;
+    }
+
+    @Override
+    public String describe() {
+        return String.format("%.2f (semi-major) × %.2f (semi-minor)", semiMajor, semiMinor);
+    }
+}
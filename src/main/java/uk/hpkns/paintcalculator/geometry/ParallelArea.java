@@ -0,0 +1,184 @@
+package uk.hpkns.paintcalculator.geometry;
+
+import uk.hpkns.paintcalculator.metrics.Counter;
+import uk.hpkns.paintcalculator.metrics.Metrics;
+import uk.hpkns.paintcalculator.metrics.Operation;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Totals the walls in a {@link WallStore} across a fork-join pool.
+ * <p>
+ * The walls are split into fixed blocks of {@value #BLOCK} which are always combined in the same tree, whatever the
+ * number of threads, and partial totals use {@link CompensatedSum}. The result therefore depends only on the walls,
+ * never on how many cores ran it. Each wall's own area doesn't depend on how the walls are split at all, so
+ * {@link #areas(WallStore, double[], ForkJoinPool)} shares them out in smaller pieces, sized to the pool.
+ */
+public final class ParallelArea {
+    /**
+     * The number of walls summed sequentially by each task.
+     */
+    public static final int BLOCK = 4096;
+
+    /**
+     * The fewest walls given to each task when calculating the areas of separate walls.
+     */
+    private static final int MIN_GRAIN = 64;
+
+    /**
+     * The number of tasks to aim for per thread, so that threads which finish early can steal more.
+     */
+    private static final int TASKS_PER_THREAD = 8;
+
+    private ParallelArea() {
+    }
+
+    /**
+     * Calculate the area of all the walls, minus obstructions, using the common pool.
+     * @param store The walls.
+     * @return The area.
+     */
+    public static double totalArea(WallStore store) {
+        return totalArea(store, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Calculate the area of all the walls, minus obstructions.
+     * @param store The walls.
+     * @param pool The pool to run on.
+     * @return The area.
+     */
+    public static double totalArea(WallStore store, ForkJoinPool pool) {
+        long start = Metrics.start();
+        double total = pool.invoke(new SumTask(store, 0, store.size())).result();
+        Metrics.stop(Operation.PARALLEL_TOTAL, start);
+        Metrics.count(Counter.WALLS, store.size());
+        Metrics.count(Counter.OBSTRUCTIONS, store.obstructionCount());
+        return total;
+    }
+
+    /**
+     * Calculate the area of each wall, minus obstructions.
+     * @param store The walls.
+     * @param areas The array to write the areas to, at least as long as the number of walls.
+     * @param pool The pool to run on.
+     */
+    public static void areas(WallStore store, double[] areas, ForkJoinPool pool) {
+        int grain = Math.max(MIN_GRAIN, store.size() / (pool.getParallelism() * TASKS_PER_THREAD));
+        pool.invoke(new AreasTask(store, areas, 0, store.size(), grain));
+    }
+
+    /**
+     * Calculate the area of each wall in whole square millimetres, minus obstructions. Whole numbers add up the same
+     * in any order, so totals of these don't need fixed blocks either.
+     * @param store The walls.
+     * @param areas The array to write the areas to, at least as long as the number of walls, with
+     * {@link MillimetreStore#TOO_BIG} for walls whose area doesn't fit in a long.
+     * @param pool The pool to run on.
+     */
+    public static void areas(MillimetreStore store, long[] areas, ForkJoinPool pool) {
+        int grain = Math.max(MIN_GRAIN, store.size() / (pool.getParallelism() * TASKS_PER_THREAD));
+        pool.invoke(new MillimetreAreasTask(store, areas, 0, store.size(), grain));
+    }
+
+    /**
+     * @param from The index of the first wall.
+     * @param to The index after the last wall.
+     * @return Where to split the range so that blocks are always the same, or -1 if it is a single block.
+     */
+    private static int split(int from, int to) {
+        int blocks = (to - from + BLOCK - 1) / BLOCK;
+        if (blocks <= 1)
+            return -1;
+        return from + (blocks / 2) * BLOCK;
+    }
+
+    private static final class SumTask extends RecursiveTask<CompensatedSum> {
+        private final WallStore store;
+        private final int from;
+        private final int to;
+
+        SumTask(WallStore store, int from, int to) {
+            this.store = store;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected CompensatedSum compute() {
+            int mid = split(from, to);
+            if (mid < 0) {
+                CompensatedSum sum = new CompensatedSum();
+                for (int i = from; i < to; i++) {
+                    sum.add(store.area(i));
+                }
+                return sum;
+            }
+
+            SumTask right = new SumTask(store, mid, to);
+            right.fork();
+            CompensatedSum sum = new SumTask(store, from, mid).compute();
+            sum.add(right.join());
+            return sum;
+        }
+    }
+
+    private static final class AreasTask extends RecursiveAction {
+        private final WallStore store;
+        private final double[] areas;
+        private final int from;
+        private final int to;
+        private final int grain;
+
+        AreasTask(WallStore store, double[] areas, int from, int to, int grain) {
+            this.store = store;
+            this.areas = areas;
+            this.from = from;
+            this.to = to;
+            this.grain = grain;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= grain) {
+                for (int i = from; i < to; i++) {
+                    areas[i] = store.area(i);
+                }
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new AreasTask(store, areas, from, mid, grain), new AreasTask(store, areas, mid, to, grain));
+        }
+    }
+
+    private static final class MillimetreAreasTask extends RecursiveAction {
+        private final MillimetreStore store;
+        private final long[] areas;
+        private final int from;
+        private final int to;
+        private final int grain;
+
+        MillimetreAreasTask(MillimetreStore store, long[] areas, int from, int to, int grain) {
+            this.store = store;
+            this.areas = areas;
+            this.from = from;
+            this.to = to;
+            this.grain = grain;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= grain) {
+                for (int i = from; i < to; i++) {
+                    areas[i] = store.areaOrTooBig(i);
+                }
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new MillimetreAreasTask(store, areas, from, mid, grain),
+                    new MillimetreAreasTask(store, areas, mid, to, grain));
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package uk.hpkns.paintcalculator.geometry;
+
+/**
+ * An obstruction at a known position on its wall, so that overlaps with other placed obstructions and the edges of
+ * the wall can be allowed for. Walls with placed obstructions subtract their {@link UnionArea union}, rather than
+ * the sum of their areas.
+ * @param shape The obstruction.
+ * @param x The distance of the obstruction's centre from the left of the wall, in metres.
+ * @param y The distance of the obstruction's centre from the bottom of the wall, in metres.
+ */
+public record Placed(Shape shape, double x, double y) implements Shape {
+    public Placed {
+        if (shape instanceof Placed)
+            throw new IllegalArgumentException("The obstruction is already placed");
+    }
+
+    @Override
+    public byte tag() {
+        return shape.tag();
+    }
+
+    @Override
+    public double a() {
+        return shape.a();
+    }
+
+    @Override
+    public double b() {
+        return shape.b();
+    }
+
+    @Override
+    public String describe() {
+        return String.format("%s at %.2f, %.2f", shape.describe(), x, y);
+    }
+}
@@ -0,0 +1,28 @@
+package uk.hpkns.paintcalculator.geometry;
+
+/**
+ * A rectangular (or square) obstruction.
+ * @param width The width in metres.
+ * @param height The height in metres.
+ */
+public record Rectangle(double width, double height) implements Shape {
+    @Override
+    public byte tag() {
+        return RECTANGULAR;
+    }
+
+    @Override
+    public double a() {
+        return width;
+    }
+
+    @Override
+    public double b() {
+        return height;
+    }
+
+    @Override
+    public String describe() {
+        return String.format("%.2f × %.2f", width, height);
+    }
+}
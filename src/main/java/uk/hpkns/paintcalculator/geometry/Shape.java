@@ -0,0 +1,116 @@
+package uk.hpkns.paintcalculator.geometry;
+
+import uk.hpkns.paintcalculator.metrics.Counter;
+import uk.hpkns.paintcalculator.metrics.Metrics;
+
+/**
+ * The shape of an obstruction on a wall.
+ * <p>
+ * Each shape is identified by a tag, matching the numbers used in the text questionnaire, and at most two
+ * dimensions. {@link #area(byte, double, double)} is the one place the area formulae live, so the typed records and
+ * the bulk {@link WallStore} always agree. Ovals have their semi-major axis horizontal. Any shape can be
+ * {@link Placed placed} on its wall.
+ */
+public sealed interface Shape permits Rectangle, Circle, Oval, Placed {
+    byte RECTANGULAR = 1;
+    byte CIRCULAR = 2;
+    byte OVAL = 3;
+
+    /**
+     * @return The tag identifying this kind of shape.
+     */
+    byte tag();
+
+    /**
+     * @return The first dimension: width, radius or semi-major axis.
+     */
+    double a();
+
+    /**
+     * @return The second dimension: height or semi-minor axis, or 0 if the shape only has one.
+     */
+    double b();
+
+    /**
+     * @return The area of the shape.
+     */
+    default double area() {
+        return area(tag(), a(), b());
+    }
+
+    /**
+     * @return The dimensions in a human-readable form, without units.
+     */
+    String describe();
+
+    /**
+     * Calculate the area of a shape from its tag and dimensions.
+     * @param tag The shape tag.
+     * @param a The first dimension.
+     * @param b The second dimension.
+     * @return The area.
+     * @throws IllegalArgumentException If the tag isn't a known shape.
+     */
+    static double area(byte tag, double a, double b) {
+        return switch (tag) {
+            case RECTANGULAR -> a * b;
+            case CIRCULAR -> Math.PI * a * a;
+            case OVAL -> Math.PI * a * b;
+            default -> throw invalid(tag);
+        };
+    }
+
+    /**
+     * Report an unknown shape.
+     * @param shape The shape's tag or name.
+     * @return The exception to throw.
+     */
+    static IllegalArgumentException invalid(Object shape) {
+        Metrics.count(Counter.INVALID_SHAPE);
+        return new IllegalArgumentException(String.format("Invalid shape '%s'", shape));
+    }
+
+    /**
+     * Create a shape from its tag and dimensions.
+     * @param tag The shape tag.
+     * @param a The first dimension.
+     * @param b The second dimension, ignored for shapes with only one.
+     * @return The shape.
+     * @throws IllegalArgumentException If the tag isn't a known shape.
+     */
+    static Shape of(byte tag, double a, double b) {
+        return switch (tag) {
+            case RECTANGULAR -> new Rectangle(a, b);
+            case CIRCULAR -> new Circle(a);
+            case OVAL -> new Oval(a, b);
+            default -> throw invalid(tag);
+        };
+    }
+
+    /**
+     * @param tag The shape tag.
+     * @return The lower-case name of the shape, as used in JSON and printed summaries.
+     * @throws IllegalArgumentException If the tag isn't a known shape.
+     */
+    static String name(byte tag) {
+        return switch (tag) {
+            case RECTANGULAR -> "rectangular";
+            case CIRCULAR -> "circular";
+            case OVAL -> "oval";
+            default -> throw invalid(tag);
+        };
+    }
+
+    /**
+     * @param tag The shape tag.
+     * @return The number of dimensions the shape has.
+     * @throws IllegalArgumentException If the tag isn't a known shape.
+     */
+    static int dimensions(byte tag) {
+        return switch (tag) {
+            case RECTANGULAR, OVAL -> 2;
+            case CIRCULAR -> 1;
+            default -> throw invalid(tag);
+        };
+    }
+}
@@ -0,0 +1,373 @@
+package uk.hpkns.paintcalculator.geometry;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Calculates the area of a wall covered by its obstructions, counting overlaps once and ignoring anything over the
+ * edge of the wall.
+ * <p>
+ * {@link Placed} obstructions are turned into rectangles and their union is found by sweeping a line across the
+ * wall, with a segment tree holding how much of the line is covered, in O(n log n) time for n rectangles. Circles
+ * and ovals are cut into {@value #STRIPS} vertical strips, each as tall as needed to keep the slice's exact area, so
+ * a curved obstruction on its own is still subtracted exactly, and only overlaps and edges involving curves are
+ * approximate. Obstructions whose bounding boxes overlap nothing, which on most facades is nearly all of them, skip
+ * the sweep and are subtracted exactly. Obstructions which aren't placed have no position to overlap by, and their
+ * areas are simply added.
+ */
+public final class UnionArea {
+    /**
+     * The number of strips each circle or oval is cut into.
+     */
+    public static final int STRIPS = 32;
+
+    private UnionArea() {
+    }
+
+    /**
+     * @param width The width of the wall in metres.
+     * @param height The height of the wall in metres.
+     * @param obstructions The obstructions, placed or not.
+     * @return The area covered by the obstructions.
+     */
+    public static double obstructionArea(double width, double height, List<? extends Shape> obstructions) {
+        int n = obstructions.size();
+        byte[] tag = new byte[n];
+        double[] a = new double[n];
+        double[] b = new double[n];
+        double[] x = new double[n];
+        double[] y = new double[n];
+        for (int j = 0; j < n; j++) {
+            Shape obs = obstructions.get(j);
+            tag[j] = obs.tag();
+            a[j] = obs.a();
+            b[j] = obs.b();
+            x[j] = obs instanceof Placed p ? p.x() : Double.NaN;
+            y[j] = obs instanceof Placed p ? p.y() : Double.NaN;
+        }
+        return obstructionArea(width, height, tag, a, b, x, y, 0, n);
+    }
+
+    /**
+     * Calculate the covered area from obstructions held in arrays, as in {@link WallStore}.
+     * @param width The width of the wall in metres.
+     * @param height The height of the wall in metres.
+     * @param tag The shape tags.
+     * @param a The first dimensions.
+     * @param b The second dimensions.
+     * @param x The horizontal positions of the centres, or NaN for obstructions which aren't placed.
+     * @param y The vertical positions of the centres, or NaN for obstructions which aren't placed.
+     * @param from The index of the wall's first obstruction.
+     * @param to The index after the wall's last obstruction.
+     * @return The area covered by the obstructions.
+     */
+    public static double obstructionArea(double width, double height, byte[] tag, double[] a, double[] b,
+                                         double[] x, double[] y, int from, int to) {
+        double area = 0d;
+        int n = 0;
+        for (int j = from; j < to; j++) {
+            if (Double.isNaN(x[j]))
+                area += Shape.area(tag[j], a[j], b[j]);
+            else
+                n++;
+        }
+        if (n == 0)
+            return area;
+
+        // Bounding boxes, clipped to the wall, of the placed obstructions that can be seen at all
+        int[] index = new int[n];
+        double[] box = new double[n * 4];
+        int boxes = 0;
+        for (int j = from; j < to; j++) {
+            if (Double.isNaN(x[j]))
+                continue;
+            double rx = tag[j] == Shape.RECTANGULAR ? a[j] / 2 : a[j];
+            double ry = tag[j] == Shape.RECTANGULAR ? b[j] / 2 : tag[j] == Shape.CIRCULAR ? a[j] : b[j];
+            int count = addRect(box, boxes, x[j] - rx, y[j] - ry, x[j] + rx, y[j] + ry, width, height);
+            if (count > boxes)
+                index[boxes] = j;
+            boxes = count;
+        }
+        boolean[] overlaps = overlaps(box, boxes);
+
+        // Obstructions overlapping nothing are subtracted exactly, and the rest go into the sweep
+        int rects = 0;
+        for (int k = 0; k < boxes; k++) {
+            int j = index[k];
+            if (tag[j] == Shape.RECTANGULAR)
+                rects += overlaps[k] ? 1 : 0;
+            else
+                rects += overlaps[k] || !inside(box, k, x[j], y[j], a[j], tag[j] == Shape.CIRCULAR ? a[j] : b[j])
+                        ? STRIPS : 0;
+        }
+        double[] r = new double[rects * 4];
+        int count = 0;
+        for (int k = 0; k < boxes; k++) {
+            int j = index[k];
+            int o = k * 4;
+            if (tag[j] == Shape.RECTANGULAR) {
+                if (overlaps[k])
+                    count = addRect(r, count, box[o], box[o + 1], box[o + 2], box[o + 3], width, height);
+                else
+                    area += (box[o + 2] - box[o]) * (box[o + 3] - box[o + 1]);
+            } else {
+                double ry = tag[j] == Shape.CIRCULAR ? a[j] : b[j];
+                if (overlaps[k] || !inside(box, k, x[j], y[j], a[j], ry))
+                    count = addEllipse(r, count, x[j], y[j], a[j], ry, width, height);
+                else
+                    area += Shape.area(tag[j], a[j], b[j]);
+            }
+        }
+        return area + union(r, count);
+    }
+
+    /**
+     * @return Whether clipping to the wall left a circle or oval's bounding box whole.
+     */
+    private static boolean inside(double[] box, int k, double cx, double cy, double rx, double ry) {
+        int o = k * 4;
+        return box[o] == cx - rx && box[o + 1] == cy - ry && box[o + 2] == cx + rx && box[o + 3] == cy + ry;
+    }
+
+    /**
+     * Find which boxes overlap another, in O(n log n) time. Sweeping across, a box overlaps one that's already open
+     * when it opens, or one that opens while it's open, if their y ranges meet. The number of open or opened boxes
+     * whose ranges meet y1 to y2 is all of them, less those with a bottom at or above y2 and those with a top at or
+     * below y1, which Fenwick trees over the ranks of the edges can count.
+     * @param box The boxes, as x1, y1, x2, y2.
+     * @param n The number of boxes.
+     * @return Whether each box overlaps another. Boxes which only touch don't overlap.
+     */
+    private static boolean[] overlaps(double[] box, int n) {
+        boolean[] overlaps = new boolean[n];
+        double[] ys = new double[n * 2];
+        for (int k = 0; k < n; k++) {
+            ys[k * 2] = box[k * 4 + 1];
+            ys[k * 2 + 1] = box[k * 4 + 3];
+        }
+        int m = distinct(ys);
+
+        // Events are sorted by x, then ends before starts so that boxes which only touch don't meet
+        double[] xs = new double[n * 2];
+        for (int k = 0; k < n; k++) {
+            xs[k * 2] = box[k * 4];
+            xs[k * 2 + 1] = box[k * 4 + 2];
+        }
+        double[] sortedXs = xs.clone();
+        int mx = distinct(sortedXs);
+        long[] events = new long[n * 2];
+        for (int e = 0; e < events.length; e++) {
+            long rank = Arrays.binarySearch(sortedXs, 0, mx, xs[e]);
+            long start = (e & 1) == 0 ? 1 : 0;
+            events[e] = rank << 33 | start << 32 | e >>> 1;
+        }
+        Arrays.sort(events);
+
+        int[] bottom = new int[n];
+        int[] top = new int[n];
+        for (int k = 0; k < n; k++) {
+            bottom[k] = Arrays.binarySearch(ys, 0, m, box[k * 4 + 1]) + 1;
+            top[k] = Arrays.binarySearch(ys, 0, m, box[k * 4 + 3]) + 1;
+        }
+        int[] openBottoms = new int[m + 1];
+        int[] openTops = new int[m + 1];
+        int[] openedBottoms = new int[m + 1];
+        int[] openedTops = new int[m + 1];
+        int open = 0;
+        int opened = 0;
+        // How many boxes had opened, and of those how many didn't meet it, when each box opened
+        int[] openedBefore = new int[n];
+        int[] missedBefore = new int[n];
+        for (long event : events) {
+            int k = (int) event;
+            int lo = bottom[k];
+            int hi = top[k];
+            if ((event >>> 32 & 1) == 1) {
+                if (sum(openBottoms, hi - 1) - sum(openTops, lo) > 0)
+                    overlaps[k] = true;
+                add(openBottoms, lo, 1);
+                add(openTops, hi, 1);
+                open++;
+                add(openedBottoms, lo, 1);
+                add(openedTops, hi, 1);
+                opened++;
+                openedBefore[k] = opened;
+                missedBefore[k] = opened - sum(openedBottoms, hi - 1) + sum(openedTops, lo);
+            } else {
+                add(openBottoms, lo, -1);
+                add(openTops, hi, -1);
+                open--;
+                int missed = opened - sum(openedBottoms, hi - 1) + sum(openedTops, lo);
+                if (opened - openedBefore[k] > missed - missedBefore[k])
+                    overlaps[k] = true;
+            }
+        }
+        return overlaps;
+    }
+
+    /**
+     * Sort values and move the distinct ones to the front.
+     * @return The number of distinct values.
+     */
+    private static int distinct(double[] values) {
+        Arrays.sort(values);
+        int m = 0;
+        for (int i = 0; i < values.length; i++) {
+            if (m == 0 || values[i] != values[m - 1])
+                values[m++] = values[i];
+        }
+        return m;
+    }
+
+    private static void add(int[] fenwick, int i, int delta) {
+        for (; i < fenwick.length; i += i & -i) {
+            fenwick[i] += delta;
+        }
+    }
+
+    /**
+     * @return The total at positions 1 to i.
+     */
+    private static int sum(int[] fenwick, int i) {
+        int total = 0;
+        for (; i > 0; i -= i & -i) {
+            total += fenwick[i];
+        }
+        return total;
+    }
+
+    private static int addEllipse(double[] r, int count, double cx, double cy, double rx, double ry,
+                                  double width, double height) {
+        double dx = 2 * rx / STRIPS;
+        double left = integral(rx, -rx);
+        for (int s = 0; s < STRIPS; s++) {
+            double x1 = -rx + s * dx;
+            double x2 = s == STRIPS - 1 ? rx : x1 + dx;
+            double right = integral(rx, x2);
+            double h = ry / rx * (right - left) / (x2 - x1);
+            left = right;
+            count = addRect(r, count, cx + x1, cy - h / 2, cx + x2, cy + h / 2, width, height);
+        }
+        return count;
+    }
+
+    /**
+     * @return The antiderivative of 2 sqrt(rx² - x²), so a slice of a circle of radius rx between two x has the
+     * difference of it as its area.
+     */
+    private static double integral(double rx, double x) {
+        double t = Math.max(-1, Math.min(1, x / rx));
+        return x * Math.sqrt(Math.max(0, rx * rx - x * x)) + rx * rx * Math.asin(t);
+    }
+
+    private static int addRect(double[] r, int count, double x1, double y1, double x2, double y2,
+                               double width, double height) {
+        x1 = Math.max(x1, 0);
+        y1 = Math.max(y1, 0);
+        x2 = Math.min(x2, width);
+        y2 = Math.min(y2, height);
+        if (!(x1 < x2 && y1 < y2))
+            return count;
+        r[count * 4] = x1;
+        r[count * 4 + 1] = y1;
+        r[count * 4 + 2] = x2;
+        r[count * 4 + 3] = y2;
+        return count + 1;
+    }
+
+    /**
+     * @param r The rectangles.
+     * @param n The number of rectangles.
+     * @return The area of their union.
+     */
+    private static double union(double[] r, int n) {
+        if (n == 0)
+            return 0d;
+
+        // The distinct y edges, between which the segment tree's leaves lie
+        double[] ys = new double[n * 2];
+        for (int i = 0; i < n; i++) {
+            ys[i * 2] = r[i * 4 + 1];
+            ys[i * 2 + 1] = r[i * 4 + 3];
+        }
+        int m = distinct(ys);
+
+        // Events are sorted by x as longs of the x's rank and the event's index, whose low bit says whether the
+        // rectangle starts or ends there
+        double[] xs = new double[n * 2];
+        for (int i = 0; i < n; i++) {
+            xs[i * 2] = r[i * 4];
+            xs[i * 2 + 1] = r[i * 4 + 2];
+        }
+        double[] sortedXs = xs.clone();
+        Arrays.sort(sortedXs);
+        long[] events = new long[n * 2];
+        for (int e = 0; e < events.length; e++) {
+            long rank = Arrays.binarySearch(sortedXs, xs[e]);
+            events[e] = rank << 32 | e;
+        }
+        Arrays.sort(events);
+
+        SegmentTree tree = new SegmentTree(ys, m);
+        double area = 0d;
+        double lastX = sortedXs[0];
+        for (long event : events) {
+            int e = (int) event;
+            int i = e >>> 1;
+            double ex = xs[e];
+            area += tree.covered() * (ex - lastX);
+            lastX = ex;
+            int lo = Arrays.binarySearch(ys, 0, m, r[i * 4 + 1]);
+            int hi = Arrays.binarySearch(ys, 0, m, r[i * 4 + 3]);
+            tree.update(lo, hi, (e & 1) == 0 ? 1 : -1);
+        }
+        return area;
+    }
+
+    /**
+     * How much of the sweep line is covered, over the intervals between consecutive y edges.
+     */
+    private static final class SegmentTree {
+        private final double[] ys;
+        private final int leaves;
+        private final int[] count;
+        private final double[] covered;
+
+        SegmentTree(double[] ys, int edges) {
+            this.ys = ys;
+            this.leaves = Math.max(1, edges - 1);
+            this.count = new int[leaves * 4];
+            this.covered = new double[leaves * 4];
+        }
+
+        double covered() {
+            return covered[1];
+        }
+
+        /**
+         * Add to how many rectangles cover the intervals from edge lo to edge hi.
+         */
+        void update(int lo, int hi, int delta) {
+            if (lo < hi)
+                update(1, 0, leaves, lo, hi, delta);
+        }
+
+        private void update(int node, int l, int r, int lo, int hi, int delta) {
+            if (hi <= l || r <= lo)
+                return;
+            if (lo <= l && r <= hi) {
+                count[node] += delta;
+            } else {
+                int mid = (l + r) >>> 1;
+                update(node * 2, l, mid, lo, hi, delta);
+                update(node * 2 + 1, mid, r, lo, hi, delta);
+            }
+            if (count[node] > 0)
+                covered[node] = ys[r] - ys[l];
+            else if (r - l == 1)
+                covered[node] = 0;
+            else
+                covered[node] = covered[node * 2] + covered[node * 2 + 1];
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package uk.hpkns.paintcalculator.geometry;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A wall to be painted, with anything on it that won't be painted.
+ * @param width The width in metres.
+ * @param height The height in metres.
+ * @param obstructions The obstructions on the wall.
+ */
+public record Wall(double width, double height, List<Shape> obstructions) {
+    public Wall {
+        obstructions = List.copyOf(obstructions);
+    }
+
+    /**
+     * @param width The width in metres.
+     * @param height The height in metres.
+     */
+    public Wall(double width, double height) {
+        this(width, height, List.of());
+    }
+
+    /**
+     * @return The area of the wall, ignoring obstructions.
+     */
+    public double grossArea() {
+        return width * height;
+    }
+
+    /**
+     * @return The area taken up by the obstructions, counting overlaps between placed obstructions once.
+     */
+    public double obstructionArea() {
+        if (hasPlacedObstructions())
+            return UnionArea.obstructionArea(width, height, obstructions);
+        double total = 0d;
+        for (Shape obs : obstructions) {
+            total += obs.area();
+        }
+        return total;
+    }
+
+    /**
+     * @return Whether any of the obstructions are placed.
+     */
+    public boolean hasPlacedObstructions() {
+        for (Shape obs : obstructions) {
+            if (obs instanceof Placed)
+                return true;
+        }
+        return false;
+    }
+
+    /**
+     * @return The area of the wall, minus obstructions.
+     */
+    public double area() {
+        return grossArea() - obstructionArea();
+    }
+
+    /**
+     * @param obs The obstruction to add.
+     * @return A copy of this wall with the obstruction added.
+     */
+    public Wall withObstruction(Shape obs) {
+        List<Shape> list = new ArrayList<>(obstructions);
+        list.add(obs);
+        return new Wall(width, height, list);
+    }
+
+    /**
+     * @param index The index of the obstruction to remove.
+     * @return A copy of this wall with the obstruction removed.
+     */
+    public Wall withoutObstruction(int index) {
+        List<Shape> list = new ArrayList<>(obstructions);
+        list.remove(index);
+        return new Wall(width, height, list);
+    }
+
+    /**
+     * Calculate the area of the walls, minus obstructions.
+     * @param walls The walls.
+     * @return The area.
+     */
+    public static double totalArea(List<Wall> walls) {
+        double total = 0d;
+        for (Wall wall : walls) {
+            total += wall.area();
+        }
+        return total;
+    }
+}
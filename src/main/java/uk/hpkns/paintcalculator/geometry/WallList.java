@@ -0,0 +1,162 @@
+package uk.hpkns.paintcalculator.geometry;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * An editable list of walls which keeps a running total of their area.
+ * <p>
+ * Every edit adjusts the total by the area it added or removed, so the total is always available without
+ * recalculating every wall. Adding or removing an obstruction costs the same however many walls there are.
+ * Listeners are told after every edit.
+ */
+public class WallList {
+    private final List<Wall> walls = new ArrayList<>();
+    private final List<Runnable> listeners = new ArrayList<>();
+    private double[] areas = new double[16];
+    private CompensatedSum total = new CompensatedSum();
+
+    /**
+     * @param listener Called after every change to the walls.
+     */
+    public void addListener(Runnable listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * @return The number of walls.
+     */
+    public int size() {
+        return walls.size();
+    }
+
+    /**
+     * @param i The index of the wall.
+     * @return The wall.
+     */
+    public Wall get(int i) {
+        return walls.get(i);
+    }
+
+    /**
+     * @return The walls, as an unmodifiable view.
+     */
+    public List<Wall> walls() {
+        return Collections.unmodifiableList(walls);
+    }
+
+    /**
+     * @return The area of all the walls, minus obstructions.
+     */
+    public double totalArea() {
+        return total.result();
+    }
+
+    /**
+     * Add a wall to the end of the list.
+     * @param wall The wall.
+     */
+    public void add(Wall wall) {
+        if (walls.size() == areas.length)
+            areas = Arrays.copyOf(areas, areas.length * 2);
+        areas[walls.size()] = wall.area();
+        walls.add(wall);
+        total.add(areas[walls.size() - 1]);
+        changed();
+    }
+
+    /**
+     * Add every wall in a store to the end of the list, telling listeners once at the end.
+     * @param store The walls.
+     */
+    public void addAll(WallStore store) {
+        int size = walls.size() + store.size();
+        if (size > areas.length)
+            areas = Arrays.copyOf(areas, Math.max(size, areas.length * 2));
+        for (int i = 0; i < store.size(); i++) {
+            Wall wall = store.wall(i);
+            areas[walls.size()] = wall.area();
+            walls.add(wall);
+            total.add(areas[walls.size() - 1]);
+        }
+        changed();
+    }
+
+    /**
+     * Replace a wall.
+     * @param i The index of the wall.
+     * @param wall The new wall.
+     */
+    public void set(int i, Wall wall) {
+        double area = wall.area();
+        total.add(area - areas[i]);
+        areas[i] = area;
+        walls.set(i, wall);
+        changed();
+    }
+
+    /**
+     * Remove a wall.
+     * @param i The index of the wall.
+     */
+    public void remove(int i) {
+        total.add(-areas[i]);
+        walls.remove(i);
+        System.arraycopy(areas, i + 1, areas, i, walls.size() - i);
+        if (walls.isEmpty())
+            total = new CompensatedSum(); // Don't leave rounding residue behind
+        changed();
+    }
+
+    /**
+     * Remove every wall.
+     */
+    public void clear() {
+        walls.clear();
+        total = new CompensatedSum();
+        changed();
+    }
+
+    /**
+     * Add an obstruction to a wall.
+     * @param i The index of the wall.
+     * @param obs The obstruction.
+     */
+    public void addObstruction(int i, Shape obs) {
+        if (obs instanceof Placed || walls.get(i).hasPlacedObstructions()) {
+            set(i, walls.get(i).withObstruction(obs)); // The overlaps have to be worked out again
+            return;
+        }
+        double area = obs.area();
+        total.add(-area);
+        areas[i] -= area;
+        walls.set(i, walls.get(i).withObstruction(obs));
+        changed();
+    }
+
+    /**
+     * Remove an obstruction from a wall.
+     * @param i The index of the wall.
+     * @param j The index of the obstruction on the wall.
+     */
+    public void removeObstruction(int i, int j) {
+        Wall wall = walls.get(i);
+        if (wall.hasPlacedObstructions()) {
+            set(i, wall.withoutObstruction(j));
+            return;
+        }
+        double area = wall.obstructions().get(j).area();
+        total.add(area);
+        areas[i] += area;
+        walls.set(i, wall.withoutObstruction(j));
+        changed();
+    }
+
+    private void changed() {
+        for (Runnable listener : listeners) {
+            listener.run();
+        }
+    }
+}
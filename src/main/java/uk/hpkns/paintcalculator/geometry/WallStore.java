@@ -0,0 +1,388 @@
+package uk.hpkns.paintcalculator.geometry;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A compact store of many walls for bulk calculation.
+ * <p>
+ * Rather than an object per wall and per obstruction, the walls are held in parallel primitive arrays: wall
+ * dimensions, plus the tags and dimensions of every obstruction laid end to end, with {@code obstructionStart[i]}
+ * giving the index of wall {@code i}'s first obstruction. Totals are then simple loops over arrays which allocate
+ * nothing.
+ * <p>
+ * Obstructions always belong to the most recently added wall. Positions are only stored once an obstruction is
+ * {@link Placed placed}, and only walls with placed obstructions pay for working out their {@link UnionArea union}.
+ */
+public final class WallStore {
+    private static final int INITIAL_CAPACITY = 16;
+
+    private double[] width;
+    private double[] height;
+    private int[] obstructionStart;
+    private byte[] tag;
+    private double[] dimA;
+    private double[] dimB;
+    // Null until the first placed obstruction; NaN for obstructions which aren't placed. Kept when cleared, so
+    // placedWalls says whether any wall in the store has one
+    private double[] posX;
+    private double[] posY;
+    private boolean[] placed;
+    private int placedWalls;
+
+    private int walls;
+    private int obstructions;
+
+    public WallStore() {
+        this(INITIAL_CAPACITY, INITIAL_CAPACITY);
+    }
+
+    /**
+     * @param wallCapacity The number of walls to make room for up front.
+     * @param obstructionCapacity The number of obstructions to make room for up front.
+     */
+    public WallStore(int wallCapacity, int obstructionCapacity) {
+        wallCapacity = Math.max(wallCapacity, 1);
+        obstructionCapacity = Math.max(obstructionCapacity, 1);
+        width = new double[wallCapacity];
+        height = new double[wallCapacity];
+        obstructionStart = new int[wallCapacity + 1];
+        tag = new byte[obstructionCapacity];
+        dimA = new double[obstructionCapacity];
+        dimB = new double[obstructionCapacity];
+    }
+
+    /**
+     * Copy walls into a new store.
+     * @param walls The walls.
+     * @return The store.
+     */
+    public static WallStore of(List<Wall> walls) {
+        int obs = 0;
+        for (Wall wall : walls) {
+            obs += wall.obstructions().size();
+        }
+        WallStore store = new WallStore(walls.size(), obs);
+        for (Wall wall : walls) {
+            store.add(wall);
+        }
+        return store;
+    }
+
+    /**
+     * Add a wall with no obstructions yet.
+     * @param w The width in metres.
+     * @param h The height in metres.
+     * @return The index of the new wall.
+     */
+    public int addWall(double w, double h) {
+        if (walls == width.length) {
+            int capacity = width.length * 2;
+            width = Arrays.copyOf(width, capacity);
+            height = Arrays.copyOf(height, capacity);
+            obstructionStart = Arrays.copyOf(obstructionStart, capacity + 1);
+            if (placed != null)
+                placed = Arrays.copyOf(placed, capacity);
+        }
+        width[walls] = w;
+        if (placed != null)
+            placed[walls] = false;
+        height[walls] = h;
+        walls++;
+        obstructionStart[walls] = obstructions;
+        return walls - 1;
+    }
+
+    /**
+     * Add an obstruction to the most recently added wall.
+     * @param shape The shape tag.
+     * @param a The first dimension.
+     * @param b The second dimension, or 0 if the shape only has one.
+     * @throws IllegalArgumentException If the tag isn't a known shape.
+     * @throws IllegalStateException If there are no walls yet.
+     */
+    public void addObstruction(byte shape, double a, double b) {
+        if (walls == 0)
+            throw new IllegalStateException("There is no wall to add the obstruction to");
+        Shape.dimensions(shape); // validates the tag
+        if (obstructions == tag.length) {
+            int capacity = tag.length * 2;
+            tag = Arrays.copyOf(tag, capacity);
+            dimA = Arrays.copyOf(dimA, capacity);
+            dimB = Arrays.copyOf(dimB, capacity);
+            if (posX != null) {
+                posX = Arrays.copyOf(posX, capacity);
+                posY = Arrays.copyOf(posY, capacity);
+            }
+        }
+        tag[obstructions] = shape;
+        dimA[obstructions] = a;
+        dimB[obstructions] = b;
+        if (posX != null) {
+            posX[obstructions] = Double.NaN;
+            posY[obstructions] = Double.NaN;
+        }
+        obstructions++;
+        obstructionStart[walls] = obstructions;
+    }
+
+    /**
+     * Add a placed obstruction to the most recently added wall.
+     * @param shape The shape tag.
+     * @param a The first dimension.
+     * @param b The second dimension, or 0 if the shape only has one.
+     * @param x The distance of the obstruction's centre from the left of the wall.
+     * @param y The distance of the obstruction's centre from the bottom of the wall.
+     * @throws IllegalArgumentException If the tag isn't a known shape or the position isn't a number.
+     * @throws IllegalStateException If there are no walls yet.
+     */
+    public void addObstruction(byte shape, double a, double b, double x, double y) {
+        if (Double.isNaN(x) || Double.isNaN(y))
+            throw new IllegalArgumentException("The position of an obstruction must be a number");
+        if (posX == null) {
+            posX = new double[tag.length];
+            posY = new double[tag.length];
+            Arrays.fill(posX, Double.NaN);
+            Arrays.fill(posY, Double.NaN);
+            placed = new boolean[width.length];
+        }
+        addObstruction(shape, a, b);
+        posX[obstructions - 1] = x;
+        posY[obstructions - 1] = y;
+        if (!placed[walls - 1]) {
+            placed[walls - 1] = true;
+            placedWalls++;
+        }
+    }
+
+    /**
+     * Add a wall and its obstructions.
+     * @param wall The wall.
+     * @return The index of the new wall.
+     */
+    public int add(Wall wall) {
+        int index = addWall(wall.width(), wall.height());
+        for (Shape obs : wall.obstructions()) {
+            if (obs instanceof Placed p)
+                addObstruction(obs.tag(), obs.a(), obs.b(), p.x(), p.y());
+            else
+                addObstruction(obs.tag(), obs.a(), obs.b());
+        }
+        return index;
+    }
+
+    /**
+     * Remove the most recently added wall and its obstructions, for example when it turns out to be invalid.
+     */
+    public void removeLast() {
+        if (walls == 0)
+            throw new IllegalStateException("There are no walls");
+        walls--;
+        obstructions = obstructionStart[walls];
+        if (placed != null && placed[walls])
+            placedWalls--;
+    }
+
+    /**
+     * Remove every wall, keeping the allocated capacity for reuse.
+     */
+    public void clear() {
+        walls = 0;
+        obstructions = 0;
+        // Walls reset their own flag when added, so only the count needs resetting
+        placedWalls = 0;
+    }
+
+    /**
+     * @return The number of walls.
+     */
+    public int size() {
+        return walls;
+    }
+
+    /**
+     * @return The total number of obstructions across all walls.
+     */
+    public int obstructionCount() {
+        return obstructions;
+    }
+
+    /**
+     * @param i The index of the wall.
+     * @return The width of the wall in metres.
+     */
+    public double width(int i) {
+        return width[i];
+    }
+
+    /**
+     * @param i The index of the wall.
+     * @return The height of the wall in metres.
+     */
+    public double height(int i) {
+        return height[i];
+    }
+
+    /**
+     * @param i The index of the wall.
+     * @return The index of the wall's first obstruction.
+     */
+    public int obstructionStart(int i) {
+        return obstructionStart[i];
+    }
+
+    /**
+     * @param i The index of the wall.
+     * @return The index after the wall's last obstruction.
+     */
+    public int obstructionEnd(int i) {
+        return obstructionStart[i + 1];
+    }
+
+    /**
+     * @param j The index of the obstruction.
+     * @return The shape tag of the obstruction.
+     */
+    public byte tag(int j) {
+        return tag[j];
+    }
+
+    /**
+     * @param j The index of the obstruction.
+     * @return The first dimension of the obstruction.
+     */
+    public double dimA(int j) {
+        return dimA[j];
+    }
+
+    /**
+     * @param j The index of the obstruction.
+     * @return The second dimension of the obstruction, or 0 if the shape only has one.
+     */
+    public double dimB(int j) {
+        return dimB[j];
+    }
+
+    /**
+     * @param j The index of the obstruction.
+     * @return The distance of the obstruction's centre from the left of the wall, or NaN if it isn't placed.
+     */
+    public double x(int j) {
+        return posX == null ? Double.NaN : posX[j];
+    }
+
+    /**
+     * @param j The index of the obstruction.
+     * @return The distance of the obstruction's centre from the bottom of the wall, or NaN if it isn't placed.
+     */
+    public double y(int j) {
+        return posY == null ? Double.NaN : posY[j];
+    }
+
+    /**
+     * @param i The index of the wall.
+     * @return Whether any of the wall's obstructions are placed.
+     */
+    public boolean hasPlacedObstructions(int i) {
+        return placed != null && placed[i];
+    }
+
+    /**
+     * @return Whether any obstruction in the store is placed.
+     */
+    public boolean hasPlacedObstructions() {
+        return placedWalls > 0;
+    }
+
+    /**
+     * @param i The index of the wall.
+     * @return The wall as a record.
+     */
+    public Wall wall(int i) {
+        List<Shape> list = new ArrayList<>(obstructionStart[i + 1] - obstructionStart[i]);
+        for (int j = obstructionStart[i]; j < obstructionStart[i + 1]; j++) {
+            Shape obs = Shape.of(tag[j], dimA[j], dimB[j]);
+            list.add(Double.isNaN(x(j)) ? obs : new Placed(obs, posX[j], posY[j]));
+        }
+        return new Wall(width[i], height[i], list);
+    }
+
+    // The backing arrays, for kernels which work over every wall or obstruction at once. Only the first size() or
+    // obstructionCount() elements are used.
+
+    double[] widths() {
+        return width;
+    }
+
+    double[] heights() {
+        return height;
+    }
+
+    int[] obstructionStarts() {
+        return obstructionStart;
+    }
+
+    byte[] tags() {
+        return tag;
+    }
+
+    double[] dimAs() {
+        return dimA;
+    }
+
+    double[] dimBs() {
+        return dimB;
+    }
+
+    /**
+     * @param i The index of the wall.
+     * @return The area of the wall, ignoring obstructions.
+     */
+    public double grossArea(int i) {
+        return width[i] * height[i];
+    }
+
+    /**
+     * @param i The index of the wall.
+     * @return The area taken up by the wall's obstructions.
+     */
+    public double obstructionArea(int i) {
+        if (hasPlacedObstructions(i))
+            return UnionArea.obstructionArea(width[i], height[i], tag, dimA, dimB, posX, posY,
+                    obstructionStart[i], obstructionStart[i + 1]);
+        double total = 0d;
+        for (int j = obstructionStart[i]; j < obstructionStart[i + 1]; j++) {
+            total += Shape.area(tag[j], dimA[j], dimB[j]);
+        }
+        return total;
+    }
+
+    /**
+     * @param i The index of the wall.
+     * @return The area of the wall, minus obstructions.
+     */
+    public double area(int i) {
+        return grossArea(i) - obstructionArea(i);
+    }
+
+    /**
+     * @return The area of all the walls, minus obstructions.
+     */
+    public double totalArea() {
+        return totalArea(0, walls);
+    }
+
+    /**
+     * @param from The index of the first wall to include.
+     * @param to The index after the last wall to include.
+     * @return The area of the range of walls, minus obstructions.
+     */
+    public double totalArea(int from, int to) {
+        double total = 0d;
+        for (int i = from; i < to; i++) {
+            total += area(i);
+        }
+        return total;
+    }
+}
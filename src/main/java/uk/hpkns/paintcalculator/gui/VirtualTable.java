@@ -0,0 +1,225 @@
+package uk.hpkns.paintcalculator.gui;
+
+import com.googlecode.lanterna.SGR;
+import com.googlecode.lanterna.TerminalPosition;
+import com.googlecode.lanterna.TerminalSize;
+import com.googlecode.lanterna.TerminalTextUtils;
+import com.googlecode.lanterna.graphics.ThemeDefinition;
+import com.googlecode.lanterna.gui2.AbstractInteractableComponent;
+import com.googlecode.lanterna.gui2.InteractableRenderer;
+import com.googlecode.lanterna.gui2.TextGUIGraphics;
+import com.googlecode.lanterna.input.KeyStroke;
+
+/**
+ * A table which reads its cells from a backing store as it draws them, rather than holding every row as strings like
+ * Lanterna's {@link com.googlecode.lanterna.gui2.table.Table}. Only the visible window of rows is ever formatted, so
+ * scrolling, paging and jumping to a row cost the same however many rows there are.
+ * <p>
+ * The rows are read afresh on every draw, so after the store changes the table only needs {@link #invalidate()}.
+ * Arrow keys move the selection, Page Up and Page Down move it a page, Home and End go to the first and last rows,
+ * and Enter runs the select action.
+ */
+public class VirtualTable extends AbstractInteractableComponent<VirtualTable> {
+    /**
+     * The rows shown by a table.
+     */
+    public interface Rows {
+        /**
+         * @return The number of rows.
+         */
+        int size();
+
+        /**
+         * Format a cell. This is only called for rows being drawn.
+         * @param row The index of the row.
+         * @param column The index of the column.
+         * @return The text of the cell.
+         */
+        String cell(int row, int column);
+    }
+
+    private static final int GAP = 2;
+
+    private final Rows rows;
+    private final String[] headers;
+    private final int[] widths;
+    private int pageSize = 10;
+    private int selected;
+    private int top;
+    private Runnable selectAction;
+
+    /**
+     * @param rows The rows.
+     * @param headers The header of each column.
+     */
+    public VirtualTable(Rows rows, String... headers) {
+        this.rows = rows;
+        this.headers = headers.clone();
+        this.widths = new int[headers.length];
+        for (int c = 0; c < headers.length; c++) {
+            widths[c] = TerminalTextUtils.getColumnWidth(headers[c]);
+        }
+    }
+
+    /**
+     * @param pageSize The number of rows shown at once.
+     * @return This table.
+     */
+    public synchronized VirtualTable setPageSize(int pageSize) {
+        if (pageSize <= 0)
+            throw new IllegalArgumentException("The page size must be at least 1");
+        this.pageSize = pageSize;
+        invalidate();
+        return this;
+    }
+
+    /**
+     * @param selectAction Called when Enter is pressed on a row.
+     * @return This table.
+     */
+    public synchronized VirtualTable setSelectAction(Runnable selectAction) {
+        this.selectAction = selectAction;
+        return this;
+    }
+
+    /**
+     * @return The index of the selected row, or -1 if there are no rows.
+     */
+    public synchronized int getSelectedRow() {
+        int size = rows.size();
+        return size == 0 ? -1 : Math.min(selected, size - 1);
+    }
+
+    /**
+     * Select a row, scrolling it into view.
+     * @param row The index of the row, which is clamped to the rows there are.
+     * @return This table.
+     */
+    public synchronized VirtualTable setSelectedRow(int row) {
+        selected = Math.max(0, Math.min(row, rows.size() - 1));
+        if (selected < top)
+            top = selected;
+        else if (selected >= top + pageSize)
+            top = selected - pageSize + 1;
+        invalidate();
+        return this;
+    }
+
+    @Override
+    protected synchronized Result handleKeyStroke(KeyStroke keyStroke) {
+        switch (keyStroke.getKeyType()) {
+            case ArrowUp -> {
+                if (selected == 0)
+                    return Result.MOVE_FOCUS_UP;
+                setSelectedRow(selected - 1);
+            }
+            case ArrowDown -> {
+                if (selected >= rows.size() - 1)
+                    return Result.MOVE_FOCUS_DOWN;
+                setSelectedRow(selected + 1);
+            }
+            case PageUp -> setSelectedRow(selected - pageSize);
+            case PageDown -> setSelectedRow(selected + pageSize);
+            case Home -> setSelectedRow(0);
+            case End -> setSelectedRow(rows.size() - 1);
+            case Enter -> {
+                if (selectAction != null && rows.size() > 0)
+                    selectAction.run();
+            }
+            default -> {
+                return super.handleKeyStroke(keyStroke);
+            }
+        }
+        return Result.HANDLED;
+    }
+
+    @Override
+    protected InteractableRenderer<VirtualTable> createDefaultRenderer() {
+        return new Renderer();
+    }
+
+    /**
+     * Draws the header, the visible window of rows and a line saying where the window is. Each column is as wide as
+     * the widest cell shown in it so far, so columns don't shrink back while scrolling.
+     */
+    private static final class Renderer implements InteractableRenderer<VirtualTable> {
+        @Override
+        public TerminalPosition getCursorLocation(VirtualTable table) {
+            return null;
+        }
+
+        @Override
+        public TerminalSize getPreferredSize(VirtualTable table) {
+            synchronized (table) {
+                int size = table.rows.size();
+                int top = Math.max(0, Math.min(table.top, size - table.pageSize));
+                format(table, top, Math.min(table.pageSize, size - top));
+                int width = 0;
+                for (int w : table.widths) {
+                    width += w + GAP;
+                }
+                width = Math.max(width - GAP, status(size, size, size).length());
+                return new TerminalSize(width, table.pageSize + 2);
+            }
+        }
+
+        @Override
+        public void drawComponent(TextGUIGraphics graphics, VirtualTable table) {
+            synchronized (table) {
+                ThemeDefinition theme = table.getThemeDefinition();
+                int size = table.rows.size();
+                int visible = Math.max(0, Math.min(table.pageSize, graphics.getSize().getRows() - 2));
+                table.top = Math.max(0, Math.min(table.top, size - visible));
+                int selected = table.getSelectedRow();
+                String[][] cells = format(table, table.top, Math.min(visible, size - table.top));
+
+                graphics.applyThemeStyle(theme.getNormal());
+                graphics.fill(' ');
+                graphics.enableModifiers(SGR.BOLD);
+                drawRow(graphics, table, 0, table.headers);
+                graphics.disableModifiers(SGR.BOLD);
+                for (int r = 0; r < cells.length; r++) {
+                    boolean isSelected = table.top + r == selected;
+                    if (isSelected) {
+                        graphics.applyThemeStyle(table.isFocused() ? theme.getActive() : theme.getSelected());
+                        graphics.fillRectangle(new TerminalPosition(0, r + 1),
+                                new TerminalSize(graphics.getSize().getColumns(), 1), ' ');
+                    }
+                    drawRow(graphics, table, r + 1, cells[r]);
+                    if (isSelected)
+                        graphics.applyThemeStyle(theme.getNormal());
+                }
+                if (graphics.getSize().getRows() > visible + 1)
+                    graphics.putString(0, visible + 1,
+                            size == 0 ? "No rows" : status(table.top + 1, table.top + cells.length, size));
+            }
+        }
+
+        /**
+         * Format a window of rows, widening the columns to fit them.
+         * @return The cells of each row.
+         */
+        private static String[][] format(VirtualTable table, int top, int count) {
+            String[][] cells = new String[Math.max(count, 0)][table.headers.length];
+            for (int r = 0; r < cells.length; r++) {
+                for (int c = 0; c < table.headers.length; c++) {
+                    cells[r][c] = table.rows.cell(top + r, c);
+                    table.widths[c] = Math.max(table.widths[c], TerminalTextUtils.getColumnWidth(cells[r][c]));
+                }
+            }
+            return cells;
+        }
+
+        private static String status(int first, int last, int size) {
+            return String.format("%d-%d of %d", first, last, size);
+        }
+
+        private static void drawRow(TextGUIGraphics graphics, VirtualTable table, int y, String[] cells) {
+            int x = 0;
+            for (int c = 0; c < cells.length; c++) {
+                graphics.putString(x, y, TerminalTextUtils.fitString(cells[c], table.widths[c]));
+                x += table.widths[c] + GAP;
+            }
+        }
+    }
+}
@@ -0,0 +1,224 @@
+package uk.hpkns.paintcalculator.io;
+
+import uk.hpkns.paintcalculator.geometry.CompensatedSum;
+import uk.hpkns.paintcalculator.geometry.Shape;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * A project file mapped into memory and read in place, without copying walls into objects or arrays. See
+ * {@link ProjectFile} for the layout. Instances are immutable and thread-safe.
+ */
+public final class MappedProject {
+    private final int walls;
+    private final int obstructions;
+    private final DoubleBuffer width;
+    private final DoubleBuffer height;
+    private final DoubleBuffer dimA;
+    private final DoubleBuffer dimB;
+    private final IntBuffer obstructionStart;
+    private final ByteBuffer tag;
+
+    private MappedProject(ByteBuffer buf, int walls, int obstructions) {
+        this.walls = walls;
+        this.obstructions = obstructions;
+        int pos = ProjectFile.HEADER_SIZE;
+        width = slice(buf, pos, walls * 8).asDoubleBuffer();
+        pos += walls * 8;
+        height = slice(buf, pos, walls * 8).asDoubleBuffer();
+        pos += walls * 8;
+        dimA = slice(buf, pos, obstructions * 8).asDoubleBuffer();
+        pos += obstructions * 8;
+        dimB = slice(buf, pos, obstructions * 8).asDoubleBuffer();
+        pos += obstructions * 8;
+        obstructionStart = slice(buf, pos, (walls + 1) * 4).asIntBuffer();
+        pos += (walls + 1) * 4;
+        tag = slice(buf, pos, obstructions);
+    }
+
+    /**
+     * Map a project file.
+     * @param path The file.
+     * @return The mapped project.
+     * @throws IOException If the file couldn't be read or isn't a valid project file.
+     */
+    public static MappedProject open(Path path) throws IOException {
+        MappedByteBuffer buf;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE)
+                throw new IOException("The project file is too large");
+            // The mapping stays valid after the channel is closed
+            buf = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        buf.order(ByteOrder.LITTLE_ENDIAN);
+
+        if (buf.limit() < ProjectFile.HEADER_SIZE || !ProjectFile.hasMagic(buf))
+            throw new IOException("Not a project file");
+        int version = buf.getInt(4);
+        if (version != ProjectFile.VERSION)
+            throw new IOException(String.format("Unsupported project file version %d", version));
+        int walls = buf.getInt(8);
+        int obstructions = buf.getInt(12);
+        if (walls < 0 || obstructions < 0 || ProjectFile.size(walls, obstructions) != buf.limit())
+            throw new IOException("The project file is truncated or corrupt");
+
+        MappedProject project = new MappedProject(buf, walls, obstructions);
+        project.validate();
+        return project;
+    }
+
+    /**
+     * Check the obstruction indices are in order and in range, so that later reads can't run off the columns, and
+     * that every shape tag is known and every dimension is a finite number of zero or more, so that later reads can't
+     * fail.
+     */
+    private void validate() throws IOException {
+        int previous = 0;
+        for (int i = 0; i <= walls; i++) {
+            int start = obstructionStart.get(i);
+            if (start < previous || start > obstructions)
+                throw new IOException("The project file is truncated or corrupt");
+            previous = start;
+        }
+        if (previous != obstructions)
+            throw new IOException("The project file is truncated or corrupt");
+
+        for (int i = 0; i < walls; i++) {
+            if (!size(width.get(i)) || !size(height.get(i)))
+                throw new IOException(String.format("Wall %d of the project file isn't a valid size", i + 1));
+        }
+        for (int j = 0; j < obstructions; j++) {
+            byte shape = tag.get(j);
+            if (shape != Shape.RECTANGULAR && shape != Shape.CIRCULAR && shape != Shape.OVAL)
+                throw new IOException(String.format("Obstruction %d of the project file has an invalid shape %d",
+                        j + 1, shape));
+            if (!size(dimA.get(j)) || !size(dimB.get(j)))
+                throw new IOException(String.format("Obstruction %d of the project file isn't a valid size", j + 1));
+        }
+    }
+
+    private static boolean size(double dimension) {
+        return dimension >= 0 && dimension < Double.POSITIVE_INFINITY;
+    }
+
+    private static ByteBuffer slice(ByteBuffer buf, int offset, int length) {
+        return buf.slice(offset, length).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    /**
+     * @return The number of walls.
+     */
+    public int size() {
+        return walls;
+    }
+
+    /**
+     * @return The total number of obstructions across all walls.
+     */
+    public int obstructionCount() {
+        return obstructions;
+    }
+
+    /**
+     * @param i The index of the wall.
+     * @return The width of the wall in metres.
+     */
+    public double width(int i) {
+        return width.get(i);
+    }
+
+    /**
+     * @param i The index of the wall.
+     * @return The height of the wall in metres.
+     */
+    public double height(int i) {
+        return height.get(i);
+    }
+
+    /**
+     * @param i The index of the wall.
+     * @return The index of the wall's first obstruction.
+     */
+    public int obstructionStart(int i) {
+        return obstructionStart.get(i);
+    }
+
+    /**
+     * @param i The index of the wall.
+     * @return The index after the wall's last obstruction.
+     */
+    public int obstructionEnd(int i) {
+        return obstructionStart.get(i + 1);
+    }
+
+    /**
+     * @param j The index of the obstruction.
+     * @return The shape tag of the obstruction.
+     */
+    public byte tag(int j) {
+        return tag.get(j);
+    }
+
+    /**
+     * @param j The index of the obstruction.
+     * @return The first dimension of the obstruction.
+     */
+    public double dimA(int j) {
+        return dimA.get(j);
+    }
+
+    /**
+     * @param j The index of the obstruction.
+     * @return The second dimension of the obstruction, or 0 if the shape only has one.
+     */
+    public double dimB(int j) {
+        return dimB.get(j);
+    }
+
+    /**
+     * @param i The index of the wall.
+     * @return The area of the wall, ignoring obstructions.
+     */
+    public double grossArea(int i) {
+        return width.get(i) * height.get(i);
+    }
+
+    /**
+     * @param i The index of the wall.
+     * @return The area taken up by the wall's obstructions.
+     */
+    public double obstructionArea(int i) {
+        double total = 0d;
+        for (int j = obstructionStart.get(i), end = obstructionStart.get(i + 1); j < end; j++) {
+            total += Shape.area(tag.get(j), dimA.get(j), dimB.get(j));
+        }
+        return total;
+    }
+
+    /**
+     * @param i The index of the wall.
+     * @return The area of the wall, minus obstructions.
+     */
+    public double area(int i) {
+        return grossArea(i) - obstructionArea(i);
+    }
+
+    /**
+     * @return The area of all the walls, minus obstructions, with compensated summation.
+     */
+    public double totalArea() {
+        CompensatedSum total = new CompensatedSum();
+        for (int i = 0; i < walls; i++) {
+            total.add(area(i));
+        }
+        return total.result();
+    }
+}
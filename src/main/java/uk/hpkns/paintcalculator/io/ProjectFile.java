@@ -0,0 +1,131 @@
+package uk.hpkns.paintcalculator.io;
+
+import uk.hpkns.paintcalculator.geometry.WallStore;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Saves and loads projects in a fixed-layout binary format, designed to be read in place through a memory map.
+ * <p>
+ * All values are little-endian. After a 16 byte header the file holds the columns of a {@link WallStore} one after
+ * another, ordered so that every column is aligned to its element size:
+ * <pre>
+ * offset  size      contents
+ * 0       4         magic "PNTC"
+ * 4       4         format version, currently 1
+ * 8       4         number of walls, W
+ * 12      4         number of obstructions, O
+ * 16      8 W       wall widths (double)
+ *         8 W       wall heights (double)
+ *         8 O       obstruction first dimensions (double)
+ *         8 O       obstruction second dimensions (double)
+ *         4 (W+1)   index of each wall's first obstruction, then O (int)
+ *         O         obstruction shape tags (byte)
+ * </pre>
+ * The whole file is mapped at once, so it must be smaller than 2 GiB.
+ */
+public final class ProjectFile {
+    /**
+     * The file extension used for project files.
+     */
+    public static final String EXTENSION = ".pcp";
+
+    static final byte[] MAGIC = "PNTC".getBytes(StandardCharsets.US_ASCII);
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 16;
+
+    private ProjectFile() {
+    }
+
+    /**
+     * Save walls to a project file, replacing it if it exists.
+     * @param path The file to write.
+     * @param store The walls.
+     * @throws IOException If the file couldn't be written, or an obstruction has been placed.
+     */
+    public static void save(Path path, WallStore store) throws IOException {
+        if (store.hasPlacedObstructions())
+            throw new IOException("Project files can't store where obstructions are placed");
+        int walls = store.size();
+        int obstructions = store.obstructionCount();
+        long size = size(walls, obstructions);
+        if (size > Integer.MAX_VALUE)
+            throw new IOException("The project is too large to save");
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            MappedByteBuffer buf = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            buf.order(ByteOrder.LITTLE_ENDIAN);
+
+            buf.put(MAGIC).putInt(VERSION).putInt(walls).putInt(obstructions);
+            for (int i = 0; i < walls; i++) {
+                buf.putDouble(store.width(i));
+            }
+            for (int i = 0; i < walls; i++) {
+                buf.putDouble(store.height(i));
+            }
+            for (int j = 0; j < obstructions; j++) {
+                buf.putDouble(store.dimA(j));
+            }
+            for (int j = 0; j < obstructions; j++) {
+                buf.putDouble(store.dimB(j));
+            }
+            for (int i = 0; i < walls; i++) {
+                buf.putInt(store.obstructionStart(i));
+            }
+            buf.putInt(obstructions);
+            for (int j = 0; j < obstructions; j++) {
+                buf.put(store.tag(j));
+            }
+            buf.force();
+        }
+    }
+
+    /**
+     * Load a project file into a new store.
+     * @param path The file to read.
+     * @return The walls.
+     * @throws IOException If the file couldn't be read or isn't a valid project file.
+     */
+    public static WallStore load(Path path) throws IOException {
+        MappedProject project = MappedProject.open(path);
+        WallStore store = new WallStore(project.size(), project.obstructionCount());
+        for (int i = 0; i < project.size(); i++) {
+            store.addWall(project.width(i), project.height(i));
+            for (int j = project.obstructionStart(i); j < project.obstructionEnd(i); j++) {
+                store.addObstruction(project.tag(j), project.dimA(j), project.dimB(j));
+            }
+        }
+        return store;
+    }
+
+    /**
+     * @param walls The number of walls.
+     * @param obstructions The number of obstructions.
+     * @return The size of a project file in bytes.
+     */
+    static long size(long walls, long obstructions) {
+        return HEADER_SIZE + 16 * walls + 16 * obstructions + 4 * (walls + 1) + obstructions;
+    }
+
+    /**
+     * @param buf A buffer positioned anywhere.
+     * @return True if the buffer starts with the project file magic.
+     */
+    static boolean hasMagic(ByteBuffer buf) {
+        if (buf.limit() < MAGIC.length)
+            return false;
+        for (int i = 0; i < MAGIC.length; i++) {
+            if (buf.get(i) != MAGIC[i])
+                return false;
+        }
+        return true;
+    }
+}
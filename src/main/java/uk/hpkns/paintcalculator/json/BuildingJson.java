@@ -0,0 +1,115 @@
+package uk.hpkns.paintcalculator.json;
+
+import uk.hpkns.paintcalculator.building.Building;
+import uk.hpkns.paintcalculator.building.Floor;
+import uk.hpkns.paintcalculator.building.Node;
+import uk.hpkns.paintcalculator.building.Room;
+import uk.hpkns.paintcalculator.cans.CanCatalogue;
+import uk.hpkns.paintcalculator.cans.CanMix;
+import uk.hpkns.paintcalculator.cans.Objective;
+import uk.hpkns.paintcalculator.geometry.WallStore;
+import uk.hpkns.paintcalculator.metrics.Counter;
+import uk.hpkns.paintcalculator.metrics.Metrics;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Reads buildings from their JSON form, and writes their subtotals. Names are optional, for example
+ * <pre>{"name": "Office", "floors": [{"name": "Ground", "rooms": [{"name": "Kitchen", "walls": [...]}]}]}</pre>
+ * Walls take the form read by {@link WallJson}.
+ */
+public final class BuildingJson {
+    private BuildingJson() {
+    }
+
+    /**
+     * Read a building.
+     * @param value The parsed JSON building.
+     * @return The building.
+     * @throws IllegalArgumentException If the building is malformed or a wall has no area left.
+     */
+    public static Building read(Object value) {
+        Map<?, ?> obj = Json.object(value, "Building");
+        Building building = new Building(Json.string(obj, "name", "Building"));
+        WallStore store = new WallStore();
+        List<?> floors = Json.array(obj, "floors");
+        for (int f = 0; f < floors.size(); f++) {
+            Map<?, ?> floorObj = Json.object(floors.get(f), "Floor");
+            Floor floor = building.add(new Floor(Json.string(floorObj, "name", "Floor " + (f + 1))));
+            List<?> rooms = Json.array(floorObj, "rooms");
+            for (int r = 0; r < rooms.size(); r++) {
+                Map<?, ?> roomObj = Json.object(rooms.get(r), "Room");
+                Room room = floor.add(new Room(Json.string(roomObj, "name", "Room " + (r + 1))));
+                List<?> walls = Json.array(roomObj, "walls");
+                for (int w = 0; w < walls.size(); w++) {
+                    String where = String.format("Floor %d room %d wall %d", f + 1, r + 1, w + 1);
+                    store.clear();
+                    try {
+                        WallJson.read(walls.get(w), store);
+                    } catch (IllegalArgumentException e) {
+                        Metrics.count(Counter.MALFORMED);
+                        throw new IllegalArgumentException(String.format("%s: %s", where, e.getMessage()), e);
+                    }
+                    if (store.obstructionArea(0) > store.grossArea(0)) {
+                        Metrics.count(Counter.NO_WALL_LEFT);
+                        throw new IllegalArgumentException(String.format("%s: There is no wall left!", where));
+                    }
+                    room.add(store.wall(0));
+                }
+            }
+        }
+        return building;
+    }
+
+    /**
+     * Write the paint needed for a part of a building and everything in it, for example
+     * <pre>{"name":"Office","area":9.6,"litres":76.8,"cans":16,"floors":[{"name":"Ground",...,"rooms":[...]}]}</pre>
+     * The areas must be up to date, or they are recalculated on this thread.
+     * @param sb Where to write the JSON.
+     * @param node The part of the building.
+     * @param coats The number of coats of paint.
+     * @param canSize The size of the paint cans in litres, or 0 not to count cans.
+     */
+    public static void write(StringBuilder sb, Node node, int coats, double canSize) {
+        write(sb, node, coats, canSize, null, null);
+    }
+
+    /**
+     * Write the paint needed for a part of a building and everything in it, as {@link #write(StringBuilder, Node, int,
+     * double)} does, but with each part's own best mix of cans from a catalogue, written as {@link CanJson} does.
+     * @param sb Where to write the JSON.
+     * @param node The part of the building.
+     * @param coats The number of coats of paint.
+     * @param canSize The size of the paint cans in litres, or 0 not to count cans. Unused if there is a catalogue.
+     * @param catalogue The cans on sale, or null to use the single can size.
+     * @param objective What to choose each mix for, if there is a catalogue.
+     * @throws IllegalArgumentException If a part needs too much paint to pack into cans.
+     */
+    public static void write(StringBuilder sb, Node node, int coats, double canSize, CanCatalogue catalogue,
+                             Objective objective) {
+        sb.append("{\"name\":").append(Json.quote(node.name()));
+        CanMix mix = catalogue != null ? catalogue.pack(node.litres(coats), objective) : null;
+        int cans = mix != null ? mix.cans() : canSize > 0 ? node.cans(coats, canSize) : 0;
+        sb.append(String.format(Locale.ROOT, ",\"area\":%s,\"litres\":%s,\"cans\":%d",
+                Double.toString(node.area()), Double.toString(node.litres(coats)), cans));
+        if (mix != null)
+            CanJson.writeMix(sb, mix);
+        List<? extends Node> children = node.children();
+        if (node instanceof Building)
+            sb.append(",\"floors\":[");
+        else if (node instanceof Floor)
+            sb.append(",\"rooms\":[");
+        else {
+            sb.append('}');
+            return;
+        }
+        for (int i = 0; i < children.size(); i++) {
+            if (i > 0)
+                sb.append(',');
+            write(sb, children.get(i), coats, canSize, catalogue, objective);
+        }
+        sb.append("]}");
+    }
+}
@@ -0,0 +1,56 @@
+package uk.hpkns.paintcalculator.json;
+
+import uk.hpkns.paintcalculator.cans.Can;
+import uk.hpkns.paintcalculator.cans.CanCatalogue;
+import uk.hpkns.paintcalculator.cans.CanMix;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads can catalogues from their JSON form, for example
+ * <pre>[{"litres": 2.5, "pence": 1999}, {"litres": 5, "pence": 3299}]</pre>
+ * and writes the mixes of cans chosen from them.
+ */
+public final class CanJson {
+    private CanJson() {
+    }
+
+    /**
+     * Read a catalogue.
+     * @param entries The parsed JSON cans.
+     * @return The catalogue.
+     * @throws IllegalArgumentException If a can is malformed, or the catalogue is empty, too big or too fine to pack.
+     */
+    public static CanCatalogue readCatalogue(List<?> entries) {
+        List<Can> cans = new ArrayList<>(entries.size());
+        for (Object entry : entries) {
+            Map<?, ?> can = Json.object(entry, "Can");
+            double pence = Json.number(can, "pence");
+            if (pence != Math.rint(pence))
+                throw new IllegalArgumentException("\"pence\" must be a whole number");
+            cans.add(new Can(Json.number(can, "litres"), (long) pence));
+        }
+        return CanCatalogue.of(cans);
+    }
+
+    /**
+     * Write a mix of cans as members of the enclosing object, for example
+     * <pre>,"mix":[{"litres":5.0,"count":2},{"litres":2.5,"count":1}],"pence":8597</pre>
+     * @param sb Where to write the JSON.
+     * @param mix The mix.
+     */
+    public static void writeMix(StringBuilder sb, CanMix mix) {
+        sb.append(",\"mix\":[");
+        boolean first = true;
+        for (Map.Entry<Can, Integer> entry : mix.counts().entrySet()) {
+            if (!first)
+                sb.append(',');
+            first = false;
+            sb.append("{\"litres\":").append(entry.getKey().litres()).append(",\"count\":").append(entry.getValue())
+                    .append('}');
+        }
+        sb.append("],\"pence\":").append(mix.pence());
+    }
+}
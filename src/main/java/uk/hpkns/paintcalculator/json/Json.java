@@ -0,0 +1,304 @@
+package uk.hpkns.paintcalculator.json;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A small JSON reader, enough to read wall records without pulling in a library.
+ * Objects become {@link Map}s, arrays become {@link List}s, numbers become {@link Double}s.
+ * Objects and arrays may be nested up to {@value #MAX_DEPTH} deep, so untrusted input can't overflow the stack.
+ */
+public final class Json {
+    /**
+     * The deepest objects and arrays may be nested, far deeper than any request needs.
+     */
+    public static final int MAX_DEPTH = 64;
+
+    private final CharSequence src;
+    private int pos;
+    private int depth;
+
+    private Json(CharSequence src) {
+        this.src = src;
+    }
+
+    /**
+     * Parse a complete JSON document.
+     * @param src The JSON text.
+     * @return The parsed value.
+     * @throws IllegalArgumentException If the text is not valid JSON or is nested too deep.
+     */
+    public static Object parse(CharSequence src) {
+        Json json = new Json(src);
+        json.skipWhitespace();
+        Object value = json.readValue();
+        json.skipWhitespace();
+        if (json.pos != src.length())
+            throw json.error("Unexpected trailing characters");
+        return value;
+    }
+
+    /**
+     * Read a member of an object as a number.
+     * @param obj The object.
+     * @param key The member name.
+     * @return The number.
+     * @throws IllegalArgumentException If the member is missing, not a number or too big for a double.
+     */
+    public static double number(Map<?, ?> obj, String key) {
+        Object value = obj.get(key);
+        if (!(value instanceof Double d))
+            throw new IllegalArgumentException(String.format("\"%s\" must be a number", key));
+        if (!Double.isFinite(d))
+            throw new IllegalArgumentException(String.format("\"%s\" is too big", key));
+        return d;
+    }
+
+    /**
+     * Read a member of an object as a number, or a default if it is absent.
+     * @param obj The object.
+     * @param key The member name.
+     * @param def The value to use if the member is absent.
+     * @return The number.
+     * @throws IllegalArgumentException If the member is present but not a number or too big for a double.
+     */
+    public static double number(Map<?, ?> obj, String key, double def) {
+        return obj.containsKey(key) ? number(obj, key) : def;
+    }
+
+    /**
+     * Read a member of an object as a string, or a default if it is absent.
+     * @param obj The object.
+     * @param key The member name.
+     * @param def The value to use if the member is absent.
+     * @return The string.
+     * @throws IllegalArgumentException If the member is present but not a string.
+     */
+    public static String string(Map<?, ?> obj, String key, String def) {
+        Object value = obj.get(key);
+        if (value == null)
+            return def;
+        if (!(value instanceof String s))
+            throw new IllegalArgumentException(String.format("\"%s\" must be a string", key));
+        return s;
+    }
+
+    /**
+     * Read a member of an object as a nested object.
+     * @param value The value to check.
+     * @param what A description of the value for error messages.
+     * @return The object.
+     * @throws IllegalArgumentException If the value is not an object.
+     */
+    public static Map<?, ?> object(Object value, String what) {
+        if (!(value instanceof Map<?, ?> m))
+            throw new IllegalArgumentException(String.format("%s must be an object", what));
+        return m;
+    }
+
+    /**
+     * Read a member of an object as an array, or an empty array if it is absent.
+     * @param obj The object.
+     * @param key The member name.
+     * @return The array.
+     * @throws IllegalArgumentException If the member is present but not an array.
+     */
+    public static List<?> array(Map<?, ?> obj, String key) {
+        Object value = obj.get(key);
+        if (value == null)
+            return List.of();
+        if (!(value instanceof List<?> l))
+            throw new IllegalArgumentException(String.format("\"%s\" must be an array", key));
+        return l;
+    }
+
+    /**
+     * Quote a string for output as JSON.
+     * @param s The string.
+     * @return The quoted string.
+     */
+    public static String quote(String s) {
+        StringBuilder sb = new StringBuilder(s.length() + 2).append('"');
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            switch (c) {
+                case '"' -> sb.append("\\\"");
+                case '\\' -> sb.append("\\\\");
+                case '\n' -> sb.append("\\n");
+                case '\r' -> sb.append("\\r");
+                case '\t' -> sb.append("\\t");
+                default -> {
+                    if (c < 0x20)
+                        sb.append(String.format("\\u%04x", (int) c));
+                    else
+                        sb.append(c);
+                }
+            }
+        }
+        return sb.append('"').toString();
+    }
+
+    private Object readValue() {
+        if (pos >= src.length())
+            throw error("Unexpected end of input");
+        char c = src.charAt(pos);
+        if ((c == '{' || c == '[') && depth == MAX_DEPTH)
+            throw error(String.format("Nested more than %d deep", MAX_DEPTH));
+        return switch (c) {
+            case '{' -> readObject();
+            case '[' -> readArray();
+            case '"' -> readString();
+            case 't' -> readLiteral("true", Boolean.TRUE);
+            case 'f' -> readLiteral("false", Boolean.FALSE);
+            case 'n' -> readLiteral("null", null);
+            default -> {
+                if (c == '-' || (c >= '0' && c <= '9'))
+                    yield readNumber();
+                throw error("Unexpected character '" + c + "'");
+            }
+        };
+    }
+
+    private Map<String, Object> readObject() {
+        Map<String, Object> obj = new LinkedHashMap<>();
+        pos++; // {
+        skipWhitespace();
+        if (peek() == '}') {
+            pos++;
+            return obj;
+        }
+        depth++;
+        while (true) {
+            skipWhitespace();
+            if (peek() != '"')
+                throw error("Expected member name");
+            String key = readString();
+            skipWhitespace();
+            expect(':');
+            skipWhitespace();
+            obj.put(key, readValue());
+            skipWhitespace();
+            char c = next();
+            if (c == '}') {
+                depth--;
+                return obj;
+            }
+            if (c != ',')
+                throw error("Expected ',' or '}'");
+        }
+    }
+
+    private List<Object> readArray() {
+        List<Object> arr = new ArrayList<>();
+        pos++; // [
+        skipWhitespace();
+        if (peek() == ']') {
+            pos++;
+            return arr;
+        }
+        depth++;
+        while (true) {
+            skipWhitespace();
+            arr.add(readValue());
+            skipWhitespace();
+            char c = next();
+            if (c == ']') {
+                depth--;
+                return arr;
+            }
+            if (c != ',')
+                throw error("Expected ',' or ']'");
+        }
+    }
+
+    private String readString() {
+        pos++; // "
+        StringBuilder sb = new StringBuilder();
+        while (true) {
+            char c = next();
+            if (c == '"')
+                return sb.toString();
+            if (c != '\\') {
+                sb.append(c);
+                continue;
+            }
+            char esc = next();
+            switch (esc) {
+                case '"', '\\', '/' -> sb.append(esc);
+                case 'b' -> sb.append('\b');
+                case 'f' -> sb.append('\f');
+                case 'n' -> sb.append('\n');
+                case 'r' -> sb.append('\r');
+                case 't' -> sb.append('\t');
+                case 'u' -> {
+                    if (pos + 4 > src.length())
+                        throw error("Truncated unicode escape");
+                    try {
+                        sb.append((char) Integer.parseInt(src.subSequence(pos, pos + 4).toString(), 16));
+                    } catch (NumberFormatException e) {
+                        throw error("Invalid unicode escape");
+                    }
+                    pos += 4;
+                }
+                default -> throw error("Invalid escape '\\" + esc + "'");
+            }
+        }
+    }
+
+    private Double readNumber() {
+        int start = pos;
+        while (pos < src.length()) {
+            char c = src.charAt(pos);
+            if ((c >= '0' && c <= '9') || c == '-' || c == '+' || c == '.' || c == 'e' || c == 'E')
+                pos++;
+            else
+                break;
+        }
+        try {
+            return Double.parseDouble(src.subSequence(start, pos).toString());
+        } catch (NumberFormatException e) {
+            pos = start;
+            throw error("Invalid number");
+        }
+    }
+
+    private Object readLiteral(String literal, Object value) {
+        for (int i = 0; i < literal.length(); i++) {
+            if (next() != literal.charAt(i))
+                throw error("Invalid literal");
+        }
+        return value;
+    }
+
+    private void skipWhitespace() {
+        while (pos < src.length()) {
+            char c = src.charAt(pos);
+            if (c != ' ' && c != '\t' && c != '\n' && c != '\r')
+                return;
+            pos++;
+        }
+    }
+
+    private char peek() {
+        if (pos >= src.length())
+            throw error("Unexpected end of input");
+        return src.charAt(pos);
+    }
+
+    private char next() {
+        char c = peek();
+        pos++;
+        return c;
+    }
+
+    private void expect(char c) {
+        if (next() != c)
+            throw error("Expected '" + c + "'");
+    }
+
+    private IllegalArgumentException error(String message) {
+        return new IllegalArgumentException(String.format("%s at offset %d", message, pos));
+    }
+}
@@ -0,0 +1,69 @@
+package uk.hpkns.paintcalculator.json;
+
+import uk.hpkns.paintcalculator.geometry.Shape;
+import uk.hpkns.paintcalculator.geometry.WallStore;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads walls from their JSON form, for example
+ * <pre>{"width": 4, "height": 2.4, "obstructions": [{"shape": "rectangular", "width": 0.9, "height": 2},
+ * {"shape": "circular", "radius": 0.3}, {"shape": "oval", "semiMajor": 0.5, "semiMinor": 0.25}]}</pre>
+ * An obstruction may also give {@code "x"} and {@code "y"}, the position of its centre from the wall's bottom-left
+ * corner, so that overlapping obstructions and those hanging off the edge aren't counted twice. Positions may be
+ * negative, but dimensions can't be.
+ */
+public final class WallJson {
+    private WallJson() {
+    }
+
+    /**
+     * Read a wall and add it to a store.
+     * @param value The parsed JSON wall.
+     * @param store The store to add the wall to.
+     * @throws IllegalArgumentException If the wall is malformed or has a negative dimension. The store may have been
+     * partly added to.
+     */
+    public static void read(Object value, WallStore store) {
+        Map<?, ?> obj = Json.object(value, "Wall");
+        List<?> obstructions = Json.array(obj, "obstructions");
+
+        store.addWall(dimension(obj, "width"), dimension(obj, "height"));
+        for (Object o : obstructions) {
+            Map<?, ?> obs = Json.object(o, "Obstruction");
+            Object shape = obs.get("shape");
+            byte tag;
+            double a;
+            double b = 0;
+            switch (shape instanceof String s ? s : "") {
+                case "rectangular" -> {
+                    tag = Shape.RECTANGULAR;
+                    a = dimension(obs, "width");
+                    b = dimension(obs, "height");
+                }
+                case "circular" -> {
+                    tag = Shape.CIRCULAR;
+                    a = dimension(obs, "radius");
+                }
+                case "oval" -> {
+                    tag = Shape.OVAL;
+                    a = dimension(obs, "semiMajor");
+                    b = dimension(obs, "semiMinor");
+                }
+                default -> throw Shape.invalid(shape);
+            }
+            if (obs.containsKey("x") || obs.containsKey("y"))
+                store.addObstruction(tag, a, b, Json.number(obs, "x"), Json.number(obs, "y"));
+            else
+                store.addObstruction(tag, a, b);
+        }
+    }
+
+    private static double dimension(Map<?, ?> obj, String key) {
+        double value = Json.number(obj, key);
+        if (value < 0)
+            throw new IllegalArgumentException(String.format("\"%s\" can't be negative", key));
+        return value;
+    }
+}
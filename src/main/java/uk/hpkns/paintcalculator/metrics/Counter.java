@@ -0,0 +1,38 @@
+package uk.hpkns.paintcalculator.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The things {@link Metrics} counts.
+ */
+public enum Counter {
+    /**
+     * Walls calculated.
+     */
+    WALLS,
+    /**
+     * Obstructions calculated.
+     */
+    OBSTRUCTIONS,
+    /**
+     * Obstructions rejected because their shape isn't known.
+     */
+    INVALID_SHAPE,
+    /**
+     * Walls rejected because their obstructions cover more than the whole wall.
+     */
+    NO_WALL_LEFT,
+    /**
+     * Records or requests rejected because they couldn't be read, including those with an invalid shape.
+     */
+    MALFORMED;
+
+    final LongAdder adder = new LongAdder();
+
+    /**
+     * @return The count so far.
+     */
+    public long get() {
+        return adder.sum();
+    }
+}
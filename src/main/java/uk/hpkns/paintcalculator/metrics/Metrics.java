@@ -0,0 +1,130 @@
+package uk.hpkns.paintcalculator.metrics;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Counters and latency histograms for the calculation engine.
+ * <p>
+ * Metrics are off unless the {@value #PROPERTY} system property is {@code true} when this class is first used,
+ * which {@code --metrics} arranges. The flag is a constant, so when it is off the JIT removes the calls entirely and
+ * they cost nothing on the hot paths.
+ */
+public final class Metrics implements MetricsMXBean {
+    /**
+     * The system property which turns metrics on.
+     */
+    public static final String PROPERTY = "paintcalculator.metrics";
+
+    /**
+     * The name the metrics are registered under with JMX.
+     */
+    public static final String OBJECT_NAME = "uk.hpkns.paintcalculator:type=Metrics";
+
+    /**
+     * Whether metrics are being recorded.
+     */
+    public static final boolean ENABLED = Boolean.getBoolean(PROPERTY);
+
+    private static final Metrics INSTANCE = new Metrics();
+
+    private Metrics() {
+    }
+
+    /**
+     * Count one occurrence.
+     * @param counter What to count.
+     */
+    public static void count(Counter counter) {
+        if (ENABLED)
+            counter.adder.increment();
+    }
+
+    /**
+     * Count some occurrences.
+     * @param counter What to count.
+     * @param n The number of occurrences.
+     */
+    public static void count(Counter counter, long n) {
+        if (ENABLED)
+            counter.adder.add(n);
+    }
+
+    /**
+     * Start timing an operation.
+     * @return The start time to pass to {@link #stop(Operation, long)}.
+     */
+    public static long start() {
+        return ENABLED ? System.nanoTime() : 0;
+    }
+
+    /**
+     * Finish timing an operation.
+     * @param operation The operation.
+     * @param start The time returned by {@link #start()}.
+     */
+    public static void stop(Operation operation, long start) {
+        if (ENABLED)
+            operation.histogram.record(System.nanoTime() - start);
+    }
+
+    /**
+     * Register the metrics with the platform MBean server, if they are enabled.
+     */
+    public static void register() {
+        if (!ENABLED)
+            return;
+        try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(INSTANCE, new ObjectName(OBJECT_NAME));
+        } catch (JMException e) {
+            System.err.printf("Couldn't register metrics with JMX: %s\n", e.getMessage());
+        }
+    }
+
+    /**
+     * Print every counter and histogram.
+     * @param out Where to print.
+     */
+    public static void dump(PrintStream out) {
+        out.println("Metrics");
+        for (Counter counter : Counter.values()) {
+            out.printf("    %-16s %d\n", counter, counter.get());
+        }
+        for (Operation operation : Operation.values()) {
+            LatencyHistogram h = operation.histogram;
+            if (h.count() == 0)
+                continue;
+            out.printf("    %-16s n=%d mean=%.1fus p50=%.1fus p90=%.1fus p99=%.1fus max=%.1fus\n", operation, h.count(),
+                    h.mean() / 1e3, h.percentile(0.5) / 1e3, h.percentile(0.9) / 1e3, h.percentile(0.99) / 1e3,
+                    h.max() / 1e3);
+        }
+    }
+
+    @Override
+    public Map<String, Long> getCounters() {
+        Map<String, Long> map = new LinkedHashMap<>();
+        for (Counter counter : Counter.values()) {
+            map.put(counter.name(), counter.get());
+        }
+        return map;
+    }
+
+    @Override
+    public Map<String, Long> getLatencies() {
+        Map<String, Long> map = new LinkedHashMap<>();
+        for (Operation operation : Operation.values()) {
+            LatencyHistogram h = operation.histogram;
+            map.put(operation + ".count", h.count());
+            map.put(operation + ".mean", Math.round(h.mean()));
+            map.put(operation + ".p50", h.percentile(0.5));
+            map.put(operation + ".p90", h.percentile(0.9));
+            map.put(operation + ".p99", h.percentile(0.99));
+            map.put(operation + ".max", h.max());
+        }
+        return map;
+    }
+}
@@ -0,0 +1,19 @@
+package uk.hpkns.paintcalculator.metrics;
+
+import java.util.Map;
+
+/**
+ * The JMX view of {@link Metrics}, registered as {@value Metrics#OBJECT_NAME}.
+ */
+public interface MetricsMXBean {
+    /**
+     * @return Each counter's name and count.
+     */
+    Map<String, Long> getCounters();
+
+    /**
+     * @return For each operation, its count and its mean, 50th, 90th, 99th percentile and maximum latencies in
+     * nanoseconds, keyed like {@code QUOTE.p99}.
+     */
+    Map<String, Long> getLatencies();
+}
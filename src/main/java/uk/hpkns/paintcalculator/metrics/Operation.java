@@ -0,0 +1,36 @@
+package uk.hpkns.paintcalculator.metrics;
+
+/**
+ * The operations {@link Metrics} times.
+ */
+public enum Operation {
+    /**
+     * Calculating and writing one chunk of walls in batch mode.
+     */
+    BATCH_CHUNK,
+    /**
+     * Estimating a whole mapped project file in batch mode.
+     */
+    PROJECT,
+    /**
+     * Quoting one request in the quote service.
+     */
+    QUOTE,
+    /**
+     * Totalling a store with {@link uk.hpkns.paintcalculator.geometry.ParallelArea}.
+     */
+    PARALLEL_TOTAL,
+    /**
+     * Estimating the spread in paint needed with {@link uk.hpkns.paintcalculator.uncertainty.MonteCarlo}.
+     */
+    MONTE_CARLO;
+
+    final LatencyHistogram histogram = new LatencyHistogram();
+
+    /**
+     * @return The latencies recorded so far.
+     */
+    public LatencyHistogram histogram() {
+        return histogram;
+    }
+}
@@ -0,0 +1,169 @@
+package uk.hpkns.paintcalculator.script;
+
+import uk.hpkns.paintcalculator.Paint;
+import uk.hpkns.paintcalculator.geometry.Shape;
+import uk.hpkns.paintcalculator.geometry.Wall;
+import uk.hpkns.paintcalculator.geometry.WallStore;
+import uk.hpkns.paintcalculator.metrics.Counter;
+import uk.hpkns.paintcalculator.metrics.Metrics;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Answers the questionnaire from a script, without printing any prompts. The answers are the same as typed in the
+ * questionnaire: the number of walls, each wall's width, height and obstructions, the number of a wall to enter
+ * again or any other number to continue, the number of coats and the can size. Any number of rooms may follow one
+ * another, and for each one line is written with the number of cans and the litres of paint needed.
+ * <p>
+ * Unlike the questionnaire, a wrong answer isn't asked again: the script stops with an error giving its line and
+ * column.
+ */
+public final class Script {
+    private final ScriptReader reader;
+    private final WallStore store = new WallStore();
+
+    /**
+     * @param in The answers.
+     */
+    public Script(InputStream in) {
+        this.reader = new ScriptReader(in);
+    }
+
+    /**
+     * Answer the questionnaire for every room in a stream.
+     * @param in The answers.
+     * @param out Where to write each room's cans and litres.
+     * @param err Where to report a wrong answer.
+     * @return The exit status: 0 if every room was answered, or 1 if the script stopped at a wrong answer.
+     */
+    public static int run(InputStream in, OutputStream out, PrintStream err) {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.US_ASCII), 1 << 16);
+        Script script = new Script(in);
+        int status = 0;
+        try {
+            while (script.hasNext()) {
+                script.room(writer);
+            }
+        } catch (IllegalArgumentException e) {
+            Metrics.count(Counter.MALFORMED);
+            status = 1;
+            flush(writer, err);
+            err.println(e.getMessage());
+        } catch (IOException e) {
+            status = 1;
+            flush(writer, err);
+            err.printf("Couldn't read the script: %s\n", e.getMessage());
+        }
+        return flush(writer, err) ? status : 1;
+    }
+
+    private static boolean flush(Writer writer, PrintStream err) {
+        try {
+            writer.flush();
+            return true;
+        } catch (IOException e) {
+            err.printf("Couldn't write the results: %s\n", e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * @return Whether there's another room to answer.
+     * @throws IOException If the answers couldn't be read.
+     */
+    public boolean hasNext() throws IOException {
+        return reader.hasNext();
+    }
+
+    /**
+     * Read one room's answers and write its cans and litres.
+     * @param out Where to write the line for the room.
+     * @throws IOException If the answers couldn't be read or the line written.
+     * @throws IllegalArgumentException If an answer is wrong.
+     */
+    public void room(Writer out) throws IOException {
+        store.clear();
+        int walls = reader.nextInt("the number of walls");
+        if (walls < 0)
+            throw reader.error("The number of walls can't be negative");
+        for (int i = 0; i < walls; i++) {
+            readWall();
+        }
+
+        // Walls to enter again, until any other number
+        while (true) {
+            int option = reader.nextInt("the number of a wall to edit");
+            if (option > walls || option <= 0)
+                break;
+            readWall();
+            Wall edited = store.wall(walls);
+            store.removeLast();
+            replace(option - 1, edited);
+        }
+
+        int coats = reader.nextInt("the number of coats");
+        double canSize = reader.nextDouble("the can size");
+        if (!(canSize > 0))
+            throw reader.error("The can size must be more than 0");
+
+        double litres = Paint.litres(store.totalArea(), coats);
+        Metrics.count(Counter.WALLS, store.size());
+        Metrics.count(Counter.OBSTRUCTIONS, store.obstructionCount());
+        out.write(String.format(Locale.ROOT, "%d %.2f\n", Paint.cans(litres, canSize), litres));
+    }
+
+    /**
+     * Read a wall and add it to the end of the store.
+     */
+    private void readWall() throws IOException {
+        double width = dimension("the width of a wall");
+        double height = dimension("the height of a wall");
+        int i = store.addWall(width, height);
+        int obstructions = reader.nextInt("the number of obstructions");
+        if (obstructions < 0)
+            throw reader.error("The number of obstructions can't be negative");
+        for (int j = 0; j < obstructions; j++) {
+            int shape = reader.nextInt("the shape of an obstruction");
+            switch (shape) {
+                case Shape.RECTANGULAR -> store.addObstruction(Shape.RECTANGULAR,
+                        dimension("the width of an obstruction"),
+                        dimension("the height of an obstruction"));
+                case Shape.CIRCULAR -> store.addObstruction(Shape.CIRCULAR,
+                        dimension("the radius of an obstruction"), 0);
+                case Shape.OVAL -> store.addObstruction(Shape.OVAL,
+                        dimension("the semi-major axis of an obstruction"),
+                        dimension("the semi-minor axis of an obstruction"));
+                default -> throw reader.error(Shape.invalid(shape).getMessage());
+            }
+        }
+        if (store.obstructionArea(i) > store.grossArea(i)) {
+            Metrics.count(Counter.NO_WALL_LEFT);
+            throw reader.error("There is no wall left!");
+        }
+    }
+
+    private double dimension(String what) throws IOException {
+        double value = reader.nextDouble(what);
+        if (value < 0)
+            throw reader.error(String.format("Expected %s, but found a negative number", what));
+        return value;
+    }
+
+    /**
+     * Replace a wall. The store only appends, so the walls are added again; walls are rarely entered twice.
+     */
+    private void replace(int index, Wall wall) {
+        List<Wall> walls = new ArrayList<>(store.size());
+        for (int i = 0; i < store.size(); i++) {
+            walls.add(i == index ? wall : store.wall(i));
+        }
+        store.clear();
+        for (Wall w : walls) {
+            store.add(w);
+        }
+    }
+}
@@ -0,0 +1,247 @@
+package uk.hpkns.paintcalculator.script;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Reads whitespace separated numbers from a stream of answers, keeping track of the line and column of each.
+ * <p>
+ * Nothing is allocated per number. Each token is copied into a fixed buffer and parsed there: decimals whose digits,
+ * as a whole number, and power of ten are both exact as doubles are converted with a single multiplication or
+ * division, which is correctly rounded (Clinger's fast path). Anything else, such as a number with many digits or a
+ * large exponent, falls back to {@link Double#parseDouble(String)}.
+ */
+public final class ScriptReader {
+    private static final int BUFFER = 1 << 16;
+
+    /**
+     * The longest number accepted, in characters.
+     */
+    private static final int MAX_TOKEN = 64;
+
+    /**
+     * Every power of ten which is exact as a double.
+     */
+    private static final double[] POWERS = {
+        1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+        1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    private final InputStream in;
+    private final byte[] buf = new byte[BUFFER];
+    private int pos;
+    private int limit;
+    private int line = 1;
+    private int column = 1;
+
+    private final byte[] token = new byte[MAX_TOKEN];
+    private int tokenLength;
+    private int tokenLine;
+    private int tokenColumn;
+
+    /**
+     * @param in The stream to read, which is buffered here.
+     */
+    public ScriptReader(InputStream in) {
+        this.in = in;
+    }
+
+    /**
+     * Skip whitespace and check whether another answer follows.
+     * @return Whether there's another answer before the end of the input.
+     * @throws IOException If the input couldn't be read.
+     */
+    public boolean hasNext() throws IOException {
+        skipWhitespace();
+        return peek() >= 0;
+    }
+
+    /**
+     * Read a whole number.
+     * @param what What the number is, for the error message, such as "the number of walls".
+     * @return The number.
+     * @throws IOException If the input couldn't be read.
+     * @throws IllegalArgumentException If the next answer isn't a whole number, or there isn't one.
+     */
+    public int nextInt(String what) throws IOException {
+        readToken(what);
+        int i = 0;
+        boolean negative = token[0] == '-';
+        if (negative || token[0] == '+')
+            i++;
+        if (i == tokenLength)
+            throw mismatch(what);
+        long value = 0;
+        for (; i < tokenLength; i++) {
+            int d = token[i] - '0';
+            if (d < 0 || d > 9)
+                throw mismatch(what);
+            value = value * 10 + d;
+            if (value > Integer.MAX_VALUE + 1L)
+                throw error(String.format("%s is too large", token()));
+        }
+        value = negative ? -value : value;
+        if (value > Integer.MAX_VALUE)
+            throw error(String.format("%s is too large", token()));
+        return (int) value;
+    }
+
+    /**
+     * Read a decimal number.
+     * @param what What the number is, for the error message, such as "the width of a wall".
+     * @return The number.
+     * @throws IOException If the input couldn't be read.
+     * @throws IllegalArgumentException If the next answer isn't a number, is too large to be finite, or there isn't
+     * one.
+     */
+    public double nextDouble(String what) throws IOException {
+        readToken(what);
+        int i = 0;
+        boolean negative = token[0] == '-';
+        if (negative || token[0] == '+')
+            i++;
+
+        long mantissa = 0;
+        int significant = 0;
+        int exponent = 0;
+        boolean exact = true;
+        boolean digits = false;
+        for (; i < tokenLength && isDigit(token[i]); i++) {
+            digits = true;
+            int d = token[i] - '0';
+            if (significant < 18) {
+                mantissa = mantissa * 10 + d;
+                if (mantissa != 0)
+                    significant++;
+            } else {
+                exponent++;
+                exact &= d == 0;
+            }
+        }
+        if (i < tokenLength && token[i] == '.') {
+            for (i++; i < tokenLength && isDigit(token[i]); i++) {
+                digits = true;
+                int d = token[i] - '0';
+                if (significant < 18) {
+                    mantissa = mantissa * 10 + d;
+                    exponent--;
+                    if (mantissa != 0)
+                        significant++;
+                } else {
+                    exact &= d == 0;
+                }
+            }
+        }
+        if (!digits)
+            throw mismatch(what);
+        if (i < tokenLength && (token[i] == 'e' || token[i] == 'E')) {
+            i++;
+            boolean negativeExponent = i < tokenLength && token[i] == '-';
+            if (i < tokenLength && (token[i] == '-' || token[i] == '+'))
+                i++;
+            if (i == tokenLength)
+                throw mismatch(what);
+            int e = 0;
+            for (; i < tokenLength && isDigit(token[i]); i++) {
+                e = Math.min(e * 10 + token[i] - '0', 100_000);
+            }
+            exponent += negativeExponent ? -e : e;
+        }
+        if (i != tokenLength)
+            throw mismatch(what);
+
+        double value;
+        if (mantissa == 0)
+            value = 0d;
+        else if (exact && mantissa <= 1L << 53 && exponent >= -22 && exponent <= 22)
+            value = exponent < 0 ? mantissa / POWERS[-exponent] : mantissa * POWERS[exponent];
+        else
+            value = Math.abs(Double.parseDouble(token()));
+        if (value == Double.POSITIVE_INFINITY)
+            throw error(String.format("%s is too large", token()));
+        return negative ? -value : value;
+    }
+
+    /**
+     * @return The line of the last answer read, from 1.
+     */
+    public int line() {
+        return tokenLine;
+    }
+
+    /**
+     * @return The column of the start of the last answer read, from 1.
+     */
+    public int column() {
+        return tokenColumn;
+    }
+
+    /**
+     * @param message What's wrong.
+     * @return An exception saying what's wrong with the last answer read, and where it is.
+     */
+    public IllegalArgumentException error(String message) {
+        return new IllegalArgumentException(String.format("Line %d, column %d: %s", tokenLine, tokenColumn, message));
+    }
+
+    private IllegalArgumentException mismatch(String what) {
+        return error(String.format("Expected %s, but found '%s'", what, token()));
+    }
+
+    private String token() {
+        return new String(token, 0, tokenLength, StandardCharsets.ISO_8859_1);
+    }
+
+    private static boolean isDigit(byte c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static boolean isWhitespace(int c) {
+        return c == ' ' || c == '\n' || c == '\r' || c == '\t';
+    }
+
+    private void readToken(String what) throws IOException {
+        skipWhitespace();
+        tokenLine = line;
+        tokenColumn = column;
+        tokenLength = 0;
+        int c;
+        while ((c = peek()) >= 0 && !isWhitespace(c)) {
+            if (tokenLength == MAX_TOKEN)
+                throw error(String.format("Expected %s, but found a longer answer than %d characters", what,
+                        MAX_TOKEN));
+            token[tokenLength++] = (byte) c;
+            pos++;
+            column++;
+        }
+        if (tokenLength == 0)
+            throw error(String.format("Expected %s, but the input ended", what));
+    }
+
+    private void skipWhitespace() throws IOException {
+        int c;
+        while ((c = peek()) >= 0 && isWhitespace(c)) {
+            pos++;
+            if (c == '\n') {
+                line++;
+                column = 1;
+            } else {
+                column++;
+            }
+        }
+    }
+
+    /**
+     * @return The next byte without consuming it, or -1 at the end of the input.
+     */
+    private int peek() throws IOException {
+        if (pos == limit) {
+            pos = 0;
+            limit = Math.max(in.read(buf), 0);
+            if (limit == 0)
+                return -1;
+        }
+        return buf[pos] & 0xff;
+    }
+}
@@ -0,0 +1,195 @@
+package uk.hpkns.paintcalculator.server;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import uk.hpkns.paintcalculator.cache.RoomCache;
+import uk.hpkns.paintcalculator.json.Json;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Objects;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Serves {@link QuoteService} over HTTP, so quotes don't pay for starting a JVM each time.
+ * <p>
+ * {@code POST /quote} with a request body as described by {@link QuoteService} returns the quote as JSON, or a
+ * {@code 400} with {@code {"error": "..."}} if the request is invalid, or a {@code 500} if quoting fails
+ * unexpectedly. Each request runs on its own virtual thread when the runtime supports them, otherwise on a cached
+ * thread pool.
+ * <p>
+ * {@code GET /stats} returns the room quote cache's size in rooms and bytes and its hit, miss and eviction counts.
+ */
+public class QuoteServer {
+    /**
+     * The largest request body accepted, in bytes.
+     */
+    private static final int MAX_REQUEST_BYTES = 16 * 1024 * 1024;
+
+    /**
+     * The number of rooms cached unless told otherwise.
+     */
+    public static final int DEFAULT_CACHE_SIZE = 10_000;
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final QuoteService service;
+
+    /**
+     * Create and start a server with the default cache size.
+     * @param port The port to listen on, or 0 for any free port.
+     * @throws IOException If the port couldn't be bound.
+     */
+    public QuoteServer(int port) throws IOException {
+        this(port, DEFAULT_CACHE_SIZE);
+    }
+
+    /**
+     * Create and start a server.
+     * @param port The port to listen on, or 0 for any free port.
+     * @param cacheSize The number of rooms to cache, or 0 not to cache.
+     * @throws IOException If the port couldn't be bound.
+     */
+    public QuoteServer(int port, int cacheSize) throws IOException {
+        this(port, new QuoteService(cacheSize));
+    }
+
+    /**
+     * Create and start a server for a given service.
+     * @param port The port to listen on, or 0 for any free port.
+     * @param service The service to answer quotes with.
+     * @throws IOException If the port couldn't be bound.
+     */
+    QuoteServer(int port, QuoteService service) throws IOException {
+        this.service = service;
+        server = HttpServer.create(new InetSocketAddress(port), 0);
+        executor = perRequestExecutor();
+        server.setExecutor(executor);
+        server.createContext("/quote", this::handle);
+        server.createContext("/stats", this::handleStats);
+        server.start();
+    }
+
+    /**
+     * Run from the command line arguments {@code --serve <port> [--cache-size N]}. The server keeps running after
+     * this returns.
+     * @param args The command line arguments, starting with {@code --serve}.
+     * @throws IOException If the port couldn't be bound.
+     */
+    public static void run(String[] args) throws IOException {
+        if (args.length < 2)
+            throw new IllegalArgumentException("Usage: --serve <port> [--cache-size N]");
+
+        int cacheSize = DEFAULT_CACHE_SIZE;
+        for (int i = 2; i < args.length; i += 2) {
+            if (i + 1 >= args.length)
+                throw new IllegalArgumentException(String.format("Missing value for %s", args[i]));
+            if (Objects.equals(args[i], "--cache-size"))
+                cacheSize = Integer.parseInt(args[i + 1]);
+            else
+                throw new IllegalArgumentException(String.format("Unknown option %s", args[i]));
+        }
+
+        QuoteServer server = new QuoteServer(Integer.parseInt(args[1]), cacheSize);
+        System.out.printf("Listening on port %d\n", server.getPort());
+    }
+
+    /**
+     * @return The port the server is listening on.
+     */
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * Stop the server, waiting up to a second for requests in progress.
+     */
+    public void stop() {
+        server.stop(1);
+        executor.shutdown();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try {
+            if (!"POST".equals(exchange.getRequestMethod())) {
+                exchange.getResponseHeaders().set("Allow", "POST");
+                respond(exchange, 405, "{\"error\":\"Use POST\"}");
+                return;
+            }
+
+            String body;
+            try (InputStream in = exchange.getRequestBody()) {
+                byte[] bytes = in.readNBytes(MAX_REQUEST_BYTES + 1);
+                if (bytes.length > MAX_REQUEST_BYTES) {
+                    respond(exchange, 413, "{\"error\":\"Request too large\"}");
+                    return;
+                }
+                body = new String(bytes, StandardCharsets.UTF_8);
+            }
+
+            String response;
+            try {
+                response = service.quote(body);
+            } catch (IllegalArgumentException e) {
+                respond(exchange, 400, "{\"error\":" + Json.quote(e.getMessage()) + "}");
+                return;
+            } catch (RuntimeException | Error e) {
+                // Anything else is a bug, but the client still deserves an answer.
+                e.printStackTrace();
+                respond(exchange, 500, "{\"error\":\"Internal error\"}");
+                return;
+            }
+            respond(exchange, 200, response);
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private void handleStats(HttpExchange exchange) throws IOException {
+        try {
+            RoomCache<?, ?> cache = service.getCache();
+            if (cache == null) {
+                respond(exchange, 200, "{\"cache\":null}");
+                return;
+            }
+            respond(exchange, 200, String.format(
+                    "{\"cache\":{\"size\":%d,\"capacity\":%d,\"bytes\":%d,\"maxBytes\":%d,\"hits\":%d,"
+                            + "\"misses\":%d,\"evictions\":%d}}",
+                    cache.size(), cache.getCapacity(), cache.getBytes(), cache.getMaxBytes(), cache.getHits(),
+                    cache.getMisses(), cache.getEvictions()));
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    /**
+     * @return A virtual-thread-per-task executor on Java 21 and later, otherwise a cached thread pool.
+     */
+    private static ExecutorService perRequestExecutor() {
+        try {
+            return (ExecutorService) MethodHandles.publicLookup()
+                    .findStatic(Executors.class, "newVirtualThreadPerTaskExecutor",
+                            MethodType.methodType(ExecutorService.class))
+                    .invoke();
+        } catch (NoSuchMethodException | IllegalAccessException e) {
+            return Executors.newCachedThreadPool();
+        } catch (Throwable e) {
+            throw new IllegalStateException("Couldn't create virtual thread executor", e);
+        }
+    }
+}
@@ -0,0 +1,251 @@
+package uk.hpkns.paintcalculator.server;
+
+import uk.hpkns.paintcalculator.Paint;
+import uk.hpkns.paintcalculator.building.Building;
+import uk.hpkns.paintcalculator.building.RollUp;
+import uk.hpkns.paintcalculator.cache.RoomCache;
+import uk.hpkns.paintcalculator.cans.Can;
+import uk.hpkns.paintcalculator.cans.CanCatalogue;
+import uk.hpkns.paintcalculator.cans.CanMix;
+import uk.hpkns.paintcalculator.cans.Objective;
+import uk.hpkns.paintcalculator.cache.RoomKey;
+import uk.hpkns.paintcalculator.geometry.WallStore;
+import uk.hpkns.paintcalculator.json.BuildingJson;
+import uk.hpkns.paintcalculator.json.CanJson;
+import uk.hpkns.paintcalculator.json.Json;
+import uk.hpkns.paintcalculator.json.WallJson;
+import uk.hpkns.paintcalculator.metrics.Counter;
+import uk.hpkns.paintcalculator.metrics.Metrics;
+import uk.hpkns.paintcalculator.metrics.Operation;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Quotes paint for rooms described in JSON, for embedding in other services. A request is either a single room
+ * <pre>{"coats": 2, "canSize": 5, "walls": [...]}</pre>
+ * or many rooms at once, each of which may override the coats and can size
+ * <pre>{"coats": 2, "canSize": 5, "rooms": [{"walls": [...]}, {"walls": [...], "coats": 3}]}</pre>
+ * Any request may give a catalogue of cans, to quote the best mix of them for each room instead of a single can size
+ * <pre>{"coats": 2, "catalogue": [{"litres": 2.5, "pence": 1999}, {"litres": 5, "pence": 3299}], "objective": "cheapest",
+ * "rooms": [...]}</pre>
+ * or a whole building, in the form read by {@link BuildingJson}, to get subtotals for every floor and room
+ * <pre>{"coats": 2, "canSize": 5, "building": {"floors": [{"rooms": [{"walls": [...]}]}]}}</pre>
+ * Walls take the form read by {@link uk.hpkns.paintcalculator.json.WallJson}. Instances are thread-safe.
+ * <p>
+ * A catalogue may have up to 32 cans. One with more, or with sizes too fine to pack exactly such as 4.095 and 4.096
+ * litres, is rejected as malformed before any table is built.
+ * <p>
+ * Room areas are calculated from the room's {@link RoomKey}, so the same layout always gives the same area
+ * whatever order its walls are listed in. A service with a cache keeps each room's whole quote, cans and all, by its
+ * layout, coats, can size, catalogue and objective, so a repeated room skips the geometry and the packing; its quote
+ * is identical to a fresh one. The cache keeps at most 64 MiB of layouts, however few rooms that is.
+ */
+public class QuoteService {
+    /**
+     * The most bytes of room layouts a cache keeps, whatever its size in rooms.
+     */
+    public static final long CACHE_BYTES = 64L << 20;
+
+    private final RoomCache<CacheKey, RoomQuote> cache;
+
+    /**
+     * Everything a room's quote depends on.
+     */
+    private record CacheKey(RoomKey room, int coats, double canSize, List<Can> cans, Objective objective) {
+    }
+
+    /**
+     * Create a service which calculates every room afresh.
+     */
+    public QuoteService() {
+        this(0);
+    }
+
+    /**
+     * @param cacheSize The number of rooms to cache, or 0 not to cache.
+     */
+    public QuoteService(int cacheSize) {
+        this.cache = cacheSize > 0 ? new RoomCache<>(cacheSize, CACHE_BYTES, k -> k.room().bytes()) : null;
+    }
+
+    /**
+     * @return The cache of room quotes, or null if rooms aren't cached.
+     */
+    public RoomCache<?, ?> getCache() {
+        return cache;
+    }
+    /**
+     * Quote a request.
+     * @param request The request JSON.
+     * @return The response JSON, with a quote per room and the totals.
+     * @throws IllegalArgumentException If the request is malformed, a wall has no area left or the quote is too big.
+     */
+    public String quote(CharSequence request) {
+        long start = Metrics.start();
+        List<RoomQuote> rooms;
+        try {
+            Map<?, ?> obj = Json.object(Json.parse(request), "Request");
+            if (obj.containsKey("building"))
+                return quoteBuilding(obj);
+            rooms = quote(obj);
+        } finally {
+            Metrics.stop(Operation.QUOTE, start);
+        }
+
+        double area = 0d;
+        double litres = 0d;
+        long cans = 0;
+        long pence = 0;
+        boolean priced = false;
+        StringBuilder sb = new StringBuilder(64 + rooms.size() * 64).append("{\"rooms\":[");
+        for (int i = 0; i < rooms.size(); i++) {
+            RoomQuote room = rooms.get(i);
+            if (i > 0)
+                sb.append(',');
+            appendQuote(sb, room.area(), room.litres(), room.cans());
+            if (room.mix() != null) {
+                CanJson.writeMix(sb, room.mix());
+                pence += room.mix().pence();
+                priced = true;
+            }
+            sb.append('}');
+            area += room.area();
+            litres += room.litres();
+            cans += room.cans();
+        }
+        checkNumbers("Total", area, litres, 0);
+        sb.append("],\"total\":");
+        appendQuote(sb, area, litres, cans);
+        if (priced)
+            sb.append(",\"pence\":").append(pence);
+        return sb.append("}}").toString();
+    }
+
+    /**
+     * Quote a parsed request.
+     * @param request The request object.
+     * @return A quote for each room, in the order given.
+     * @throws IllegalArgumentException If the request is malformed, a wall has no area left or the quote is too big.
+     */
+    public List<RoomQuote> quote(Map<?, ?> request) {
+        int coats = coats(request, 1);
+        double canSize = Json.number(request, "canSize", 0);
+        CanCatalogue catalogue = catalogue(request);
+        Objective objective = Objective.parse(Json.string(request, "objective", "cheapest"));
+
+        WallStore store = new WallStore();
+        if (!request.containsKey("rooms"))
+            return List.of(quoteRoom(request, coats, canSize, catalogue, objective, store, 0));
+
+        List<?> rooms = Json.array(request, "rooms");
+        List<RoomQuote> quotes = new ArrayList<>(rooms.size());
+        for (int i = 0; i < rooms.size(); i++) {
+            Map<?, ?> room = Json.object(rooms.get(i), "Room");
+            quotes.add(quoteRoom(room, coats(room, coats), Json.number(room, "canSize", canSize), catalogue, objective,
+                    store, i));
+        }
+        return quotes;
+    }
+
+    /**
+     * Quote a whole building, with subtotals for every floor and room, each with its own mix of cans if a catalogue is
+     * given. The building is recalculated on the common fork-join pool.
+     * @param request The request object, with the building in its {@code building} member.
+     * @return The response JSON, for example {@code {"building":{"name":...,"area":...,"floors":[...]}}}.
+     * @throws IllegalArgumentException If the request is malformed, a wall has no area left or the quote is too big.
+     */
+    public String quoteBuilding(Map<?, ?> request) {
+        int coats = coats(request, 1);
+        double canSize = Json.number(request, "canSize", 0);
+        CanCatalogue catalogue = catalogue(request);
+        Objective objective = Objective.parse(Json.string(request, "objective", "cheapest"));
+        Building building = BuildingJson.read(request.get("building"));
+        RollUp.refresh(building, ForkJoinPool.commonPool());
+        // Every floor and room is part of the building, so if its numbers fit, theirs do too
+        checkNumbers("Building", building.area(), building.litres(coats), catalogue != null ? 0 : canSize);
+
+        StringBuilder sb = new StringBuilder(256).append("{\"building\":");
+        BuildingJson.write(sb, building, coats, canSize, catalogue, objective);
+        return sb.append('}').toString();
+    }
+
+    private RoomQuote quoteRoom(Map<?, ?> room, int coats, double canSize, CanCatalogue catalogue, Objective objective,
+                                WallStore store, int index) {
+        store.clear();
+        List<?> walls = Json.array(room, "walls");
+        for (int i = 0; i < walls.size(); i++) {
+            try {
+                WallJson.read(walls.get(i), store);
+            } catch (IllegalArgumentException e) {
+                Metrics.count(Counter.MALFORMED);
+                throw new IllegalArgumentException(
+                        String.format("Room %d wall %d: %s", index + 1, i + 1, e.getMessage()), e);
+            }
+        }
+
+        Metrics.count(Counter.WALLS, store.size());
+        Metrics.count(Counter.OBSTRUCTIONS, store.obstructionCount());
+        RoomKey key = RoomKey.of(store, 0, store.size());
+        if (cache == null)
+            return calculate(key, coats, canSize, catalogue, objective, store, index);
+        // Only rooms which were quoted are cached, and every wall of those has some left
+        return cache.get(new CacheKey(key, coats, canSize, catalogue != null ? catalogue.cans() : null, objective),
+                k -> calculate(key, coats, canSize, catalogue, objective, store, index));
+    }
+
+    private static RoomQuote calculate(RoomKey key, int coats, double canSize, CanCatalogue catalogue,
+                                       Objective objective, WallStore store, int index) {
+        for (int i = 0; i < store.size(); i++) {
+            if (store.obstructionArea(i) > store.grossArea(i)) {
+                Metrics.count(Counter.NO_WALL_LEFT);
+                throw new IllegalArgumentException(
+                        String.format("Room %d wall %d: There is no wall left!", index + 1, i + 1));
+            }
+        }
+        double area = key.area();
+        double litres = Paint.litres(area, coats);
+        checkNumbers(String.format("Room %d", index + 1), area, litres, catalogue != null ? 0 : canSize);
+        if (catalogue != null) {
+            CanMix mix = catalogue.pack(litres, objective);
+            return new RoomQuote(area, litres, mix.cans(), mix);
+        }
+        return new RoomQuote(area, litres, canSize > 0 ? Paint.cans(litres, canSize) : 0);
+    }
+
+    /**
+     * Check that an area and the paint and cans it needs can be given as JSON numbers. The input's numbers are all
+     * finite, but can multiply up to infinity, which JSON can't write.
+     * @param where The part of the request the numbers are for.
+     * @param area The area in square metres.
+     * @param litres The paint needed in litres.
+     * @param canSize The size of the paint cans in litres, or 0 if cans aren't counted.
+     * @throws IllegalArgumentException If any of them is too big.
+     */
+    private static void checkNumbers(String where, double area, double litres, double canSize) {
+        if (!Double.isFinite(area) || !Double.isFinite(litres))
+            throw new IllegalArgumentException(String.format("%s: The area is too big", where));
+        if (canSize > 0 && !(litres / canSize < Integer.MAX_VALUE))
+            throw new IllegalArgumentException(String.format("%s: Too many cans are needed to count", where));
+    }
+
+    private static CanCatalogue catalogue(Map<?, ?> request) {
+        return request.containsKey("catalogue") ? CanJson.readCatalogue(Json.array(request, "catalogue")) : null;
+    }
+
+    private static int coats(Map<?, ?> obj, int def) {
+        double coats = Json.number(obj, "coats", def);
+        if (coats != Math.rint(coats) || coats < 0)
+            throw new IllegalArgumentException("\"coats\" must be a whole number");
+        return (int) coats;
+    }
+
+    private static void appendQuote(StringBuilder sb, double area, double litres, long cans) {
+        sb.append(String.format(Locale.ROOT, "{\"area\":%s,\"litres\":%s,\"cans\":%d",
+                Double.toString(area), Double.toString(litres), cans));
+    }
+
+}
@@ -0,0 +1,21 @@
+package uk.hpkns.paintcalculator.server;
+
+import uk.hpkns.paintcalculator.cans.CanMix;
+
+/**
+ * The paint needed for one room.
+ * @param area The area to paint in square metres.
+ * @param litres The paint needed in litres, for all coats.
+ * @param cans The number of cans needed, or 0 if no can size or catalogue was given.
+ * @param mix The cans to buy from the catalogue, or null if no catalogue was given.
+ */
+public record RoomQuote(double area, double litres, int cans, CanMix mix) {
+    /**
+     * @param area The area to paint in square metres.
+     * @param litres The paint needed in litres, for all coats.
+     * @param cans The number of cans needed, or 0 if no can size was given.
+     */
+    public RoomQuote(double area, double litres, int cans) {
+        this(area, litres, cans, null);
+    }
+}
@@ -0,0 +1,154 @@
+package uk.hpkns.paintcalculator.uncertainty;
+
+import uk.hpkns.paintcalculator.Paint;
+import uk.hpkns.paintcalculator.geometry.Shape;
+import uk.hpkns.paintcalculator.geometry.WallStore;
+import uk.hpkns.paintcalculator.metrics.Metrics;
+import uk.hpkns.paintcalculator.metrics.Operation;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Estimates the spread in how much paint is needed when every measurement may be out by up to its tolerance.
+ * <p>
+ * Each sample moves every dimension by an amount drawn evenly from within its tolerance and works out the paint for
+ * the lot. Samples are taken in fixed blocks of {@value #BLOCK}, across a fork-join pool, and each block draws from
+ * its own {@link SplittableRandom}, split in turn from the seed. The results therefore depend only on the walls,
+ * tolerances and seed, never on how many threads ran them. Samples are written into an array made once, so nothing
+ * is allocated per sample.
+ * <p>
+ * A wall whose obstructions cover more than all of it as measured is rejected, as it is by the questionnaire and
+ * batch mode. Within a sample, though, a wall whose obstructions come out bigger than it has nothing to paint rather
+ * than a negative area: rejecting the sample instead would bias the spread towards smaller obstructions.
+ * <p>
+ * Placed obstructions aren't supported, as their union can't be sampled without allocating.
+ */
+public final class MonteCarlo {
+    /**
+     * The number of samples each stream of random numbers draws.
+     */
+    public static final int BLOCK = 8192;
+
+    private final Tolerance tolerance;
+    private final long seed;
+    private final double[] samples;
+
+    /**
+     * @param tolerance How far out each measurement may be.
+     * @param samples The number of samples to take.
+     * @param seed The seed from which every sample is drawn.
+     */
+    public MonteCarlo(Tolerance tolerance, int samples, long seed) {
+        if (samples <= 0)
+            throw new IllegalArgumentException("There must be at least one sample");
+        this.tolerance = tolerance;
+        this.seed = seed;
+        this.samples = new double[samples];
+    }
+
+    /**
+     * Estimate the spread in paint needed using the common pool.
+     * @param store The walls, as measured.
+     * @param coats The number of coats.
+     * @return The percentiles of paint needed.
+     */
+    public Percentiles litres(WallStore store, int coats) {
+        return litres(store, coats, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Estimate the spread in paint needed. This reuses the samples, so isn't safe to call from several threads at
+     * once.
+     * @param store The walls, as measured.
+     * @param coats The number of coats.
+     * @param pool The pool to run on.
+     * @return The percentiles of paint needed.
+     * @throws IllegalArgumentException If any obstructions are placed, or cover more than all of their wall.
+     */
+    public Percentiles litres(WallStore store, int coats, ForkJoinPool pool) {
+        if (store.hasPlacedObstructions())
+            throw new IllegalArgumentException("Uncertainty can't be estimated for placed obstructions");
+        for (int i = 0; i < store.size(); i++) {
+            if (!(store.area(i) >= 0))
+                throw new IllegalArgumentException(String.format("Wall %d has no area left to paint", i + 1));
+        }
+
+        long start = Metrics.start();
+        int n = samples.length;
+        SplittableRandom root = new SplittableRandom(seed);
+        SplittableRandom[] streams = new SplittableRandom[(n + BLOCK - 1) / BLOCK];
+        for (int k = 0; k < streams.length; k++) {
+            streams[k] = root.split();
+        }
+        pool.invoke(new SampleTask(store, coats, streams, 0, streams.length));
+        Arrays.parallelSort(samples);
+        Percentiles percentiles = new Percentiles(n, percentile(0.5), percentile(0.9), percentile(0.99));
+        Metrics.stop(Operation.MONTE_CARLO, start);
+        return percentiles;
+    }
+
+    /**
+     * @param p The share of samples, between 0 and 1.
+     * @return The smallest sorted sample which at least that share of samples don't exceed.
+     */
+    private double percentile(double p) {
+        int rank = (int) Math.ceil(p * samples.length);
+        return samples[Math.max(rank, 1) - 1];
+    }
+
+    /**
+     * Take one block of samples.
+     */
+    private void sample(WallStore store, int coats, SplittableRandom random, int from, int to) {
+        double wallTolerance = tolerance.wall();
+        double obstructionTolerance = tolerance.obstruction();
+        for (int s = from; s < to; s++) {
+            double area = 0d;
+            for (int i = 0; i < store.size(); i++) {
+                double w = Math.max(0, store.width(i) + wallTolerance * random.nextDouble(-1, 1));
+                double h = Math.max(0, store.height(i) + wallTolerance * random.nextDouble(-1, 1));
+                double obstructions = 0d;
+                for (int j = store.obstructionStart(i); j < store.obstructionEnd(i); j++) {
+                    byte tag = store.tag(j);
+                    double a = Math.max(0, store.dimA(j) + obstructionTolerance * random.nextDouble(-1, 1));
+                    double b = tag == Shape.CIRCULAR
+                            ? 0
+                            : Math.max(0, store.dimB(j) + obstructionTolerance * random.nextDouble(-1, 1));
+                    obstructions += Shape.area(tag, a, b);
+                }
+                // Obstructions which have grown past the wall leave nothing to paint
+                area += Math.max(0, w * h - obstructions);
+            }
+            samples[s] = Paint.litres(area, coats);
+        }
+    }
+
+    private final class SampleTask extends RecursiveAction {
+        private final WallStore store;
+        private final int coats;
+        private final SplittableRandom[] streams;
+        private final int from;
+        private final int to;
+
+        SampleTask(WallStore store, int coats, SplittableRandom[] streams, int from, int to) {
+            this.store = store;
+            this.coats = coats;
+            this.streams = streams;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from == 1) {
+                sample(store, coats, streams[from], from * BLOCK, Math.min((from + 1) * BLOCK, samples.length));
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new SampleTask(store, coats, streams, from, mid), new SampleTask(store, coats, streams, mid, to));
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package uk.hpkns.paintcalculator.uncertainty;
+
+/**
+ * Amounts of paint which that share of estimates didn't exceed.
+ * @param samples The number of estimates.
+ * @param p50 The median, in litres.
+ * @param p90 The 90th percentile, in litres.
+ * @param p99 The 99th percentile, in litres.
+ */
+public record Percentiles(int samples, double p50, double p90, double p99) {
+}
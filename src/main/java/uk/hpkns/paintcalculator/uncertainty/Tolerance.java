@@ -0,0 +1,32 @@
+package uk.hpkns.paintcalculator.uncertainty;
+
+/**
+ * How far out each measurement may be, either way.
+ * @param wall The tolerance on the width and height of walls in metres.
+ * @param obstruction The tolerance on each dimension of an obstruction in metres.
+ */
+public record Tolerance(double wall, double obstruction) {
+    public Tolerance {
+        if (!(wall >= 0) || !(obstruction >= 0) || Double.isInfinite(wall) || Double.isInfinite(obstruction))
+            throw new IllegalArgumentException("Tolerances must be zero or more");
+    }
+
+    /**
+     * Parse tolerances given as metres, either one for every measurement or walls and obstructions separately, for
+     * example {@code 0.02} or {@code 0.02,0.01}.
+     * @param s The tolerances.
+     * @return The tolerances.
+     * @throws IllegalArgumentException If they aren't one or two numbers of zero or more.
+     */
+    public static Tolerance parse(String s) {
+        String[] parts = s.split(",", -1);
+        if (parts.length > 2)
+            throw new IllegalArgumentException(String.format("Invalid tolerance '%s'", s));
+        try {
+            double wall = Double.parseDouble(parts[0].trim());
+            return new Tolerance(wall, parts.length == 1 ? wall : Double.parseDouble(parts[1].trim()));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(String.format("Invalid tolerance '%s'", s));
+        }
+    }
+}
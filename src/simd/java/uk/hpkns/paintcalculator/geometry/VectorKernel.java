@@ -0,0 +1,80 @@
+package uk.hpkns.paintcalculator.geometry;
+
+import jdk.incubator.vector.ByteVector;
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * The vectorized loops behind {@link SimdArea}. This class links against {@code jdk.incubator.vector}, so it's only
+ * compiled by the {@code simd} profile, and {@link SimdArea} only loads it once the module is known to be present.
+ */
+final class VectorKernel implements AreaKernel {
+    private static final VectorSpecies<Double> DOUBLES = DoubleVector.SPECIES_PREFERRED;
+
+    /**
+     * Tags are loaded 8 at a time and widened into a vector of doubles, which is never wider than 8 lanes.
+     */
+    private static final VectorSpecies<Byte> TAGS = ByteVector.SPECIES_64;
+
+    VectorKernel() {
+    }
+
+    /**
+     * @return Whether the preferred vector shape can be used, which needs no more than 8 lanes of doubles.
+     */
+    @Override
+    public boolean isSupported() {
+        return DOUBLES.length() > 1 && DOUBLES.length() <= TAGS.length();
+    }
+
+    /**
+     * Multiply two arrays element by element.
+     * @param x The first factors.
+     * @param y The second factors.
+     * @param n The number of elements.
+     * @param out Where to write the products.
+     */
+    @Override
+    public void products(double[] x, double[] y, int n, double[] out) {
+        int i = 0;
+        for (int bound = DOUBLES.loopBound(n); i < bound; i += DOUBLES.length()) {
+            DoubleVector.fromArray(DOUBLES, x, i)
+                    .mul(DoubleVector.fromArray(DOUBLES, y, i))
+                    .intoArray(out, i);
+        }
+        for (; i < n; i++) {
+            out[i] = x[i] * y[i];
+        }
+    }
+
+    /**
+     * Calculate the area of every obstruction, choosing each lane's formula with masks on its tag.
+     * @param tag The shape tags.
+     * @param a The first dimensions.
+     * @param b The second dimensions.
+     * @param n The number of obstructions.
+     * @param out Where to write the areas.
+     */
+    @Override
+    public void obstructionAreas(byte[] tag, double[] a, double[] b, int n, double[] out) {
+        int i = 0;
+        // Each step reads 8 tags, however many lanes are used
+        for (int bound = n - TAGS.length(); i <= bound; i += DOUBLES.length()) {
+            DoubleVector tags = (DoubleVector) ByteVector.fromArray(TAGS, tag, i)
+                    .convertShape(VectorOperators.B2D, DOUBLES, 0);
+            VectorMask<Double> rectangular = tags.eq(Shape.RECTANGULAR);
+            VectorMask<Double> circular = tags.eq(Shape.CIRCULAR);
+
+            DoubleVector va = DoubleVector.fromArray(DOUBLES, a, i);
+            DoubleVector vb = DoubleVector.fromArray(DOUBLES, b, i).blend(va, circular);
+            // Same operations in the same order as Shape.area, so every lane rounds the same way
+            DoubleVector curved = va.mul(Math.PI).mul(vb);
+            va.mul(vb).blend(curved, rectangular.not()).intoArray(out, i);
+        }
+        for (; i < n; i++) {
+            out[i] = Shape.area(tag[i], a[i], b[i]);
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package uk.hpkns.paintcalculator.batch;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BatchEstimatorTest {
+    @Test
+    void projectFilesRejectOptionsTheyCantHonour() {
+        // Rejected before the file is opened, so it needn't exist
+        String[][] cases = {
+                {"--threads", "4"},
+                {"--simd"},
+                {"--exact"},
+                {"--coats", "2", "--simd", "--can-size", "5"},
+        };
+        String[] expected = {"--threads", "--simd", "--exact", "--simd"};
+        for (int i = 0; i < cases.length; i++) {
+            String[] args = new String[2 + cases[i].length];
+            args[0] = "--batch";
+            args[1] = "missing.pcp";
+            System.arraycopy(cases[i], 0, args, 2, cases[i].length);
+            IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> BatchEstimator.run(args));
+            assertEquals(expected[i] + " can't be used with project files", e.getMessage());
+        }
+    }
+
+    @Test
+    void wallsPastTheGroupLimitAreRejected() throws IOException {
+        ForkJoinPool pool = new ForkJoinPool(2);
+        try {
+            for (boolean exact : new boolean[]{false, true}) {
+                for (ForkJoinPool threads : new ForkJoinPool[]{null, pool}) {
+                    assertRejectsPastTheGroupLimit(new BatchEstimator(1, 0, threads, false, exact));
+                }
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * One wall in each of 10 groups too many, then walls in groups which already exist and with none, which must
+     * still be estimated.
+     */
+    private static void assertRejectsPastTheGroupLimit(BatchEstimator estimator) throws IOException {
+        int groups = PartialResult.MAX_GROUPS + 10;
+        StringBuilder csv = new StringBuilder();
+        for (int i = 0; i < groups; i++) {
+            csv.append('g').append(i).append(",2,1\n");
+        }
+        csv.append("g0,3,1\n4,1\n");
+
+        StringWriter out = new StringWriter();
+        try (CsvWallReader reader = new CsvWallReader(new BufferedReader(new StringReader(csv.toString())))) {
+            estimator.estimate(reader, out);
+        }
+        PartialResult result = estimator.getResult();
+        assertEquals(PartialResult.MAX_GROUPS + 2, result.getWalls());
+        assertEquals(10, result.getRejected());
+        assertEquals(PartialResult.MAX_GROUPS, result.getGroups().size());
+        assertEquals(2, result.getGroups().get("g0").getWalls());
+        assertEquals(2d * PartialResult.MAX_GROUPS + 3 + 4, estimator.getTotalArea());
+        assertTrue(out.toString().contains("# walls=" + (PartialResult.MAX_GROUPS + 2) + " rejected=10\n"));
+        assertFalse(out.toString().contains("\n" + (PartialResult.MAX_GROUPS + 1) + ","));
+    }
+}
@@ -0,0 +1,115 @@
+package uk.hpkns.paintcalculator.batch;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.Writer;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * The totals of {@code --exact} must be the same however the input is ordered, split into shards, merged or
+ * calculated on threads.
+ */
+class ExactTotalsTest {
+    private static final int TRIALS = 25;
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void totalsDontDependOnOrderOrPartition() throws IOException {
+        Random random = new Random(42);
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            for (int trial = 0; trial < TRIALS; trial++) {
+                List<String> lines = randomLines(random, 1 + random.nextInt(3_000));
+                PartialResult expected = estimate(lines, 0, 1, null);
+
+                List<String> shuffled = new ArrayList<>(lines);
+                Collections.shuffle(shuffled, random);
+                assertSameTotals(expected, estimate(shuffled, 0, 1, null));
+                assertSameTotals(expected, estimate(shuffled, 0, 1, pool));
+
+                // Shards of the shuffled input, merged in a random order, some of them through saved files
+                int shards = 1 + random.nextInt(7);
+                List<PartialResult> parts = new ArrayList<>();
+                for (int shard = 0; shard < shards; shard++) {
+                    PartialResult part = estimate(shuffled, shard, shards, random.nextBoolean() ? pool : null);
+                    if (random.nextBoolean()) {
+                        Path file = dir.resolve("shard-" + shard + ".part");
+                        part.save(file);
+                        part = PartialResult.load(file);
+                    }
+                    parts.add(part);
+                }
+                Collections.shuffle(parts, random);
+                PartialResult merged = parts.get(0);
+                for (PartialResult part : parts.subList(1, parts.size())) {
+                    merged.merge(part);
+                }
+                assertSameTotals(expected, merged);
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private static PartialResult estimate(List<String> lines, int shard, int shards, ForkJoinPool pool)
+            throws IOException {
+        BatchEstimator estimator = new BatchEstimator(2, 0, pool, false, true);
+        estimator.setShard(shard, shards);
+        try (CsvWallReader reader = new CsvWallReader(new BufferedReader(new StringReader(String.join("\n", lines))))) {
+            estimator.estimate(reader, Writer.nullWriter());
+        }
+        return estimator.getResult();
+    }
+
+    private static void assertSameTotals(PartialResult expected, PartialResult actual) {
+        assertEquals(expected.getWalls(), actual.getWalls());
+        assertEquals(expected.getRejected(), actual.getRejected());
+        assertEquals(expected.getArea(), actual.getArea());
+        assertEquals(expected.getGroups().keySet(), actual.getGroups().keySet());
+        for (Map.Entry<String, PartialResult.Group> entry : expected.getGroups().entrySet()) {
+            PartialResult.Group group = actual.getGroups().get(entry.getKey());
+            assertEquals(entry.getValue().getWalls(), group.getWalls(), entry.getKey());
+            assertEquals(entry.getValue().getArea(), group.getArea(), entry.getKey());
+        }
+    }
+
+    /**
+     * Walls with up to four obstructions of every shape, dimensions given to between 0 and 5 decimal places so that
+     * some need rounding, a few groups, and the odd wall with no area left.
+     */
+    private static List<String> randomLines(Random random, int walls) {
+        String[] groups = {"", "Ground,", "First,", "Loft,"};
+        List<String> lines = new ArrayList<>(walls);
+        for (int i = 0; i < walls; i++) {
+            StringBuilder sb = new StringBuilder(groups[random.nextInt(groups.length)]);
+            sb.append(decimal(random, 1, 9)).append(',').append(decimal(random, 2, 3));
+            int obstructions = random.nextInt(5);
+            for (int j = 0; j < obstructions; j++) {
+                int shape = 1 + random.nextInt(3);
+                sb.append(',').append(shape).append(',').append(decimal(random, 0.05, 1.5));
+                if (shape != 2)
+                    sb.append(',').append(decimal(random, 0.05, 1.5));
+            }
+            lines.add(sb.toString());
+        }
+        return lines;
+    }
+
+    private static String decimal(Random random, double min, double max) {
+        return String.format("%." + random.nextInt(6) + "f", min + random.nextDouble() * (max - min));
+    }
+}
@@ -0,0 +1,52 @@
+package uk.hpkns.paintcalculator.batch;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PartialResultTest {
+    @TempDir
+    Path dir;
+
+    @Test
+    void addsMillimetresPastWhatADoubleHolds() throws IOException {
+        PartialResult result = new PartialResult(1, true);
+        long big = (1L << 53) + 1;
+        result.add("Big", big);
+        result.add("Big", Long.MAX_VALUE);
+        result.add(null, -big);
+        BigDecimal expected = BigDecimal.valueOf(Long.MAX_VALUE).movePointLeft(6);
+        assertEquals(0, expected.compareTo(result.getArea()));
+        BigDecimal group = BigDecimal.valueOf(big).add(BigDecimal.valueOf(Long.MAX_VALUE)).movePointLeft(6);
+        assertEquals(0, group.compareTo(result.getGroups().get("Big").getArea()));
+
+        Path file = dir.resolve("big.part");
+        result.save(file);
+        PartialResult loaded = PartialResult.load(file);
+        assertEquals(0, expected.compareTo(loaded.getArea()));
+        assertEquals(0, group.compareTo(loaded.getGroups().get("Big").getArea()));
+    }
+
+    @Test
+    void limitsGroupsWhateverTheMergeOrder() {
+        PartialResult a = new PartialResult(2);
+        PartialResult b = new PartialResult(2);
+        for (int i = 0; i < PartialResult.MAX_GROUPS; i++) {
+            a.add("Group " + i, 1.0);
+            b.add("Group " + (i + 1), 1.0);
+        }
+        assertThrows(IllegalArgumentException.class, () -> a.add("One too many", 1.0));
+        assertThrows(IllegalArgumentException.class, () -> b.merge(a));
+
+        PartialResult c = new PartialResult(2);
+        c.add("Group 0", 1.0);
+        a.merge(c);
+        assertEquals(PartialResult.MAX_GROUPS, a.getGroups().size());
+        assertEquals(2, a.getGroups().get("Group 0").getWalls());
+    }
+}
@@ -0,0 +1,84 @@
+package uk.hpkns.paintcalculator.batch;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.function.Executable;
+import uk.hpkns.paintcalculator.geometry.MillimetreStore;
+import uk.hpkns.paintcalculator.geometry.WallStore;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.Writer;
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Records which the readers reject are counted, and the rest of the batch carries on.
+ */
+class WallRecordReaderTest {
+    private static final String CSV = String.join("\n",
+            "4,2.5",
+            "-4,2.5",
+            "-4,-2.5",
+            "4,2.5,1,-0.9,2",
+            "4,2.5,2,-0.3",
+            "Ground,4,2.5,3,0.5,-0.25",
+            "0,2.5",
+            "4,2.5,1,0,0");
+
+    private static final String JSONL = String.join("\n",
+            "{\"width\":4,\"height\":2.5}",
+            "{\"width\":-4,\"height\":-2.5}",
+            "{\"width\":4,\"height\":2.5,\"obstructions\":[{\"shape\":\"circular\",\"radius\":-0.3}]}",
+            "{\"width\":4,\"height\":2.5,\"obstructions\":[{\"shape\":\"rectangular\",\"width\":1,\"height\":1,"
+                    + "\"x\":-0.2,\"y\":-0.2}]}");
+
+    @Test
+    void csvRejectsNegativeDimensions() throws IOException {
+        for (boolean exact : new boolean[]{false, true}) {
+            BatchEstimator estimator = new BatchEstimator(1, 0, null, false, exact);
+            estimator.estimate(csv(), Writer.nullWriter());
+            assertEquals(5, estimator.getRejected());
+            assertEquals(3, estimator.getResult().getWalls());
+            assertEquals(0, new BigDecimal("20").compareTo(estimator.getResult().getArea()));
+        }
+
+        CsvWallReader reader = csv();
+        assertTrue(reader.next(new WallStore()));
+        assertMessage("Line 2: Field 1 can't be negative", () -> reader.next(new WallStore()));
+        assertMessage("Line 3: Field 1 can't be negative", () -> reader.next(new MillimetreStore()));
+        assertMessage("Line 4: Field 4 can't be negative", () -> reader.next(new WallStore()));
+        assertMessage("Line 5: Field 4 can't be negative", () -> reader.next(new MillimetreStore()));
+        assertMessage("Line 6: Field 6 can't be negative", () -> reader.next(new WallStore()));
+    }
+
+    @Test
+    void jsonLinesRejectsNegativeDimensions() throws IOException {
+        // Placed obstructions may hang off the edge, but can't be worked out in whole millimetres
+        for (boolean exact : new boolean[]{false, true}) {
+            BatchEstimator estimator = new BatchEstimator(1, 0, null, false, exact);
+            estimator.estimate(jsonl(), Writer.nullWriter());
+            assertEquals(exact ? 1 : 2, estimator.getResult().getWalls());
+            assertEquals(exact ? 3 : 2, estimator.getRejected());
+        }
+
+        JsonLinesWallReader reader = jsonl();
+        assertTrue(reader.next(new WallStore()));
+        assertMessage("Line 2: \"width\" can't be negative", () -> reader.next(new WallStore()));
+        assertMessage("Line 3: \"radius\" can't be negative", () -> reader.next(new MillimetreStore()));
+        assertTrue(reader.next(new WallStore()));
+    }
+
+    private static void assertMessage(String expected, Executable executable) {
+        assertEquals(expected, assertThrows(IllegalArgumentException.class, executable).getMessage());
+    }
+
+    private static CsvWallReader csv() {
+        return new CsvWallReader(new BufferedReader(new StringReader(CSV)));
+    }
+
+    private static JsonLinesWallReader jsonl() {
+        return new JsonLinesWallReader(new BufferedReader(new StringReader(JSONL)));
+    }
+}
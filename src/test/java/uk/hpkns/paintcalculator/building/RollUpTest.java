@@ -0,0 +1,174 @@
+package uk.hpkns.paintcalculator.building;
+
+import org.junit.jupiter.api.Test;
+import uk.hpkns.paintcalculator.Paint;
+import uk.hpkns.paintcalculator.geometry.Rectangle;
+import uk.hpkns.paintcalculator.geometry.Wall;
+
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RollUpTest {
+    private static Building building(SplittableRandom random, int floors, int rooms) {
+        Building building = new Building("Office");
+        for (int f = 0; f < floors; f++) {
+            Floor floor = building.add(new Floor("Floor " + f));
+            for (int r = 0; r < rooms; r++) {
+                Room room = floor.add(new Room("Room " + r));
+                for (int w = 0; w < 4; w++) {
+                    room.add(new Wall(2 + random.nextDouble(4), 2.4));
+                }
+            }
+        }
+        return building;
+    }
+
+    /**
+     * @return The area of a part of a building, recalculated from its walls without using any cached area.
+     */
+    private static double fresh(Node node) {
+        if (node instanceof Room room)
+            return Wall.totalArea(room.walls());
+        double area = 0;
+        for (Node child : node.children()) {
+            area += fresh(child);
+        }
+        return area;
+    }
+
+    private static void assertFresh(Node node) {
+        assertFalse(node.isStale(), node.name());
+        assertEquals(fresh(node), node.area(), 1e-9, node.name());
+        for (Node child : node.children()) {
+            assertFresh(child);
+        }
+    }
+
+    @Test
+    void roomEditMarksOnlyItsAncestorsStale() {
+        Building building = building(new SplittableRandom(1), 3, 5);
+        ForkJoinPool pool = new ForkJoinPool(2);
+        try {
+            RollUp.refresh(building, pool);
+            assertFresh(building);
+
+            Floor floor = building.get(1);
+            Room room = floor.get(2);
+            room.addObstruction(0, new Rectangle(1, 1));
+            assertTrue(room.isStale());
+            assertTrue(floor.isStale());
+            assertTrue(building.isStale());
+            assertFalse(building.get(0).isStale());
+            assertFalse(building.get(2).isStale());
+            for (int r = 0; r < floor.size(); r++) {
+                assertEquals(r == 2, floor.get(r).isStale(), floor.get(r).name());
+            }
+
+            assertEquals(fresh(building), RollUp.refresh(building, pool), 1e-9);
+            assertFresh(building);
+
+            room.set(1, new Wall(10, 3));
+            room.remove(3);
+            room.removeObstruction(0, 0);
+            assertTrue(building.isStale());
+            RollUp.refresh(building, pool);
+            assertFresh(building);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    void floorAndBuildingEditsAreRecalculated() {
+        SplittableRandom random = new SplittableRandom(2);
+        Building building = building(random, 2, 3);
+        ForkJoinPool pool = new ForkJoinPool(2);
+        try {
+            RollUp.refresh(building, pool);
+
+            // A room added to a floor marks the floor and building, not the rooms already there
+            Floor floor = building.get(0);
+            floor.add(new Room("Hall")).add(new Wall(3, 2.4));
+            assertTrue(floor.isStale());
+            assertTrue(building.isStale());
+            assertFalse(floor.get(0).isStale());
+            assertFalse(building.get(1).isStale());
+            RollUp.refresh(building, pool);
+            assertFresh(building);
+
+            // A room removed from a floor no longer counts, and later edits to it don't reach its old floor
+            Room removed = floor.remove(0);
+            assertNull(removed.parent());
+            RollUp.refresh(building, pool);
+            assertFresh(building);
+            removed.add(new Wall(100, 100));
+            assertFalse(floor.isStale());
+            assertFalse(building.isStale());
+
+            // Floors added and removed only mark the building
+            Floor loft = building.add(new Floor("Loft"));
+            loft.add(new Room("Store")).add(new Wall(2, 2));
+            assertTrue(building.isStale());
+            assertFalse(building.get(0).isStale());
+            RollUp.refresh(building, pool);
+            assertFresh(building);
+            building.remove(1);
+            RollUp.refresh(building, pool);
+            assertFresh(building);
+            assertEquals(2, building.size());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    void subtotalsFollowEditsOnAnyPool() {
+        SplittableRandom random = new SplittableRandom(3);
+        Building building = building(random, 4, 40);
+        ForkJoinPool one = new ForkJoinPool(1);
+        ForkJoinPool four = new ForkJoinPool(4);
+        try {
+            for (int edit = 0; edit < 50; edit++) {
+                Floor floor = building.get(random.nextInt(building.size()));
+                Room room = floor.get(random.nextInt(floor.size()));
+                room.set(random.nextInt(room.walls().size()), new Wall(1 + random.nextDouble(5), 2.4));
+
+                List<Subtotal> serial = RollUp.subtotals(building, 2, 5, one);
+                Building copy = copy(building);
+                List<Subtotal> parallel = RollUp.subtotals(copy, 2, 5, four);
+                assertEquals(serial.size(), parallel.size());
+                for (int i = 0; i < serial.size(); i++) {
+                    Subtotal s = serial.get(i);
+                    Subtotal p = parallel.get(i);
+                    assertEquals(s.node().name(), p.node().name());
+                    assertEquals(s.depth(), p.depth());
+                    assertEquals(Double.doubleToLongBits(s.area()), Double.doubleToLongBits(p.area()));
+                    assertEquals(Paint.litres(s.area(), 2), s.litres());
+                    assertEquals(Paint.cans(s.litres(), 5), s.cans());
+                    assertEquals(fresh(s.node()), s.area(), 1e-9);
+                }
+            }
+        } finally {
+            one.shutdown();
+            four.shutdown();
+        }
+    }
+
+    /**
+     * @return A new building with the same walls, so every part of it starts stale.
+     */
+    private static Building copy(Building building) {
+        Building copy = new Building(building.name());
+        for (Floor floor : building.children()) {
+            Floor f = copy.add(new Floor(floor.name()));
+            for (Room room : floor.children()) {
+                Room r = f.add(new Room(room.name()));
+                room.walls().forEach(r::add);
+            }
+        }
+        return copy;
+    }
+}
@@ -0,0 +1,94 @@
+package uk.hpkns.paintcalculator.cache;
+
+import org.junit.jupiter.api.Test;
+import uk.hpkns.paintcalculator.geometry.WallStore;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RoomCacheTest {
+    private static RoomKey room(int walls) {
+        WallStore store = new WallStore();
+        for (int i = 0; i < walls; i++)
+            store.addWall(i + 1, 2.4);
+        return RoomKey.of(store, 0, walls);
+    }
+
+    @Test
+    void evictsByCountLeastRecentlyUsedFirst() {
+        RoomCache<String, String> cache = new RoomCache<>(2, Long.MAX_VALUE, String::length);
+        cache.get("a", k -> k + "!");
+        cache.get("b", k -> k + "!");
+        cache.get("a", k -> fail());
+        cache.get("c", k -> k + "!");
+        assertEquals(2, cache.size());
+        assertEquals(1, cache.getEvictions());
+        assertEquals("a!", cache.get("a", k -> fail()));
+        assertEquals("b?", cache.get("b", k -> k + "?"));
+        assertEquals(2, cache.getHits());
+    }
+
+    @Test
+    void evictsByBytes() {
+        RoomKey small = room(1);
+        RoomKey large = room(10);
+        long budget = small.bytes() + large.bytes();
+        RoomCache<RoomKey, Double> cache = new RoomCache<>(100, budget, RoomKey::bytes);
+        cache.get(small, RoomKey::area);
+        cache.get(large, RoomKey::area);
+        assertEquals(budget, cache.getBytes());
+        assertEquals(2, cache.size());
+
+        // Another large room pushes both older ones out to stay within the budget
+        RoomKey other = room(11);
+        assertTrue(other.bytes() > large.bytes());
+        cache.get(other, RoomKey::area);
+        assertEquals(1, cache.size());
+        assertEquals(other.bytes(), cache.getBytes());
+        assertEquals(2, cache.getEvictions());
+        assertTrue(cache.getBytes() <= cache.getMaxBytes());
+    }
+
+    @Test
+    void oversizedKeysAreCalculatedButNotCached() {
+        RoomKey small = room(1);
+        RoomKey huge = room(1000);
+        RoomCache<RoomKey, Double> cache = new RoomCache<>(100, small.bytes() * 10, RoomKey::bytes);
+        cache.get(small, RoomKey::area);
+
+        AtomicInteger calculated = new AtomicInteger();
+        for (int i = 0; i < 3; i++) {
+            assertEquals(huge.area(), cache.get(huge, k -> {
+                calculated.incrementAndGet();
+                return k.area();
+            }));
+        }
+        assertEquals(3, calculated.get());
+        assertEquals(1, cache.size());
+        assertEquals(small.bytes(), cache.getBytes());
+        assertEquals(0, cache.getEvictions());
+    }
+
+    @Test
+    void replacingAnEntryDoesntCountItTwice() throws Exception {
+        RoomKey key = room(3);
+        RoomCache<RoomKey, Double> cache = new RoomCache<>(10, 1 << 20, RoomKey::bytes);
+        // Two threads missing together both put the same room
+        Thread[] threads = new Thread[8];
+        for (int i = 0; i < threads.length; i++) {
+            threads[i] = new Thread(() -> cache.get(key, RoomKey::area));
+            threads[i].start();
+        }
+        for (Thread thread : threads)
+            thread.join();
+        assertEquals(1, cache.size());
+        assertEquals(key.bytes(), cache.getBytes());
+    }
+
+    @Test
+    void rejectsEmptyBounds() {
+        assertThrows(IllegalArgumentException.class, () -> new RoomCache<String, String>(0, 1, String::length));
+        assertThrows(IllegalArgumentException.class, () -> new RoomCache<String, String>(1, 0, String::length));
+    }
+}
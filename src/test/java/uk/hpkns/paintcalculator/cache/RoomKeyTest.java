@@ -0,0 +1,93 @@
+package uk.hpkns.paintcalculator.cache;
+
+import org.junit.jupiter.api.Test;
+import uk.hpkns.paintcalculator.geometry.Shape;
+import uk.hpkns.paintcalculator.geometry.WallStore;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RoomKeyTest {
+    @Test
+    void sameLayoutInAnyOrderHasTheSameKeyAndArea() {
+        Random random = new Random(3);
+        for (int trial = 0; trial < 200; trial++) {
+            List<double[][]> walls = randomWalls(random);
+            RoomKey key = key(walls);
+            double area = key.area();
+            for (int shuffle = 0; shuffle < 5; shuffle++) {
+                List<double[][]> shuffled = new ArrayList<>();
+                for (double[][] wall : walls) {
+                    List<double[]> obstructions = new ArrayList<>(List.of(wall).subList(1, wall.length));
+                    Collections.shuffle(obstructions, random);
+                    obstructions.add(0, wall[0]);
+                    shuffled.add(obstructions.toArray(double[][]::new));
+                }
+                Collections.shuffle(shuffled, random);
+                RoomKey other = key(shuffled);
+                assertEquals(key, other);
+                assertEquals(key.hashCode(), other.hashCode());
+                assertEquals(Double.doubleToLongBits(area), Double.doubleToLongBits(other.area()));
+            }
+        }
+    }
+
+    @Test
+    void differentLayoutsHaveDifferentKeys() {
+        WallStore a = new WallStore();
+        a.addWall(4, 2.4);
+        a.addObstruction(Shape.RECTANGULAR, 1, 2);
+        a.addWall(3, 2.4);
+        WallStore b = new WallStore();
+        b.addWall(4, 2.4);
+        b.addWall(3, 2.4);
+        b.addObstruction(Shape.RECTANGULAR, 1, 2);
+        assertNotEquals(RoomKey.of(a, 0, 2), RoomKey.of(b, 0, 2));
+        assertEquals(RoomKey.of(a, 0, 1), RoomKey.of(a, 0, 1));
+        assertEquals(RoomKey.of(a, 0, 0), RoomKey.of(b, 2, 2));
+    }
+
+    /**
+     * Each wall is its width and height, then its obstructions as tag, dimensions and position, which may be NaN.
+     */
+    private static List<double[][]> randomWalls(Random random) {
+        List<double[][]> walls = new ArrayList<>();
+        int count = random.nextInt(8);
+        for (int i = 0; i < count; i++) {
+            int obstructions = random.nextInt(6);
+            double[][] wall = new double[1 + obstructions][];
+            wall[0] = new double[] {1 + random.nextInt(4), 2.4};
+            boolean placed = random.nextBoolean();
+            for (int j = 1; j <= obstructions; j++) {
+                wall[j] = new double[] {
+                        1 + random.nextInt(3), 0.1 * (1 + random.nextInt(4)), 0.1 * (1 + random.nextInt(4)),
+                        placed ? random.nextDouble() : Double.NaN, placed ? random.nextDouble() : Double.NaN
+                };
+            }
+            walls.add(wall);
+        }
+        return walls;
+    }
+
+    private static RoomKey key(List<double[][]> walls) {
+        WallStore store = new WallStore();
+        store.addWall(9, 9); // Not part of the room
+        for (double[][] wall : walls) {
+            store.addWall(wall[0][0], wall[0][1]);
+            for (int j = 1; j < wall.length; j++) {
+                double[] o = wall[j];
+                byte tag = (byte) o[0];
+                double b = tag == Shape.CIRCULAR ? 0 : o[2];
+                if (Double.isNaN(o[3]))
+                    store.addObstruction(tag, o[1], b);
+                else
+                    store.addObstruction(tag, o[1], b, o[3], o[4]);
+            }
+        }
+        return RoomKey.of(store, 1, store.size());
+    }
+}
@@ -0,0 +1,130 @@
+package uk.hpkns.paintcalculator.cans;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CanCatalogueTest {
+    @Test
+    void packsAsWellAsEveryMixChecked() {
+        SplittableRandom random = new SplittableRandom(13);
+        for (int trial = 0; trial < 300; trial++) {
+            // Sizes in quarter litres, so the unit is often bigger than a millilitre
+            List<Can> cans = new ArrayList<>();
+            int count = 1 + random.nextInt(4);
+            for (int c = 0; c < count; c++) {
+                cans.add(new Can(0.25 * (1 + random.nextInt(12)), random.nextInt(4000)));
+            }
+            CanCatalogue catalogue = CanCatalogue.of(cans);
+            for (int amount = 0; amount < 10; amount++) {
+                // Up to 40 L, which is past the table for most catalogues
+                long millilitres = random.nextInt(40_000);
+                for (Objective objective : Objective.values()) {
+                    CanMix mix = catalogue.pack(millilitres / 1000d, objective);
+                    long[] expected = bruteForce(catalogue.cans(), millilitres, objective);
+                    String where = cans + " " + millilitres + " ml " + objective;
+                    assertArrayEquals(expected, score(mix, objective), where);
+                    assertTrue(Math.round(mix.litres() * 1000) >= millilitres, where);
+                }
+            }
+        }
+    }
+
+    @Test
+    void scalesSizesByTheirGreatestCommonDivisor() {
+        CanCatalogue catalogue = CanCatalogue.of(List.of(new Can(2.5, 1999), new Can(5, 3299), new Can(10, 5599)));
+        CanMix mix = catalogue.pack(76.8, Objective.CHEAPEST);
+        // 44491p, where 8 x 10 L would be 44792p
+        assertEquals(Map.of(new Can(10, 5599), 7, new Can(5, 3299), 1, new Can(2.5, 1999), 1), mix.counts());
+        assertEquals(44491, mix.pence());
+        assertEquals(77.5, mix.litres());
+
+        CanMix waste = CanCatalogue.of(List.of(new Can(0.75, 899), new Can(2.5, 1999))).pack(3.2, Objective.LEAST_WASTE);
+        assertEquals(3.25, waste.litres(), 1e-9);
+        assertEquals(Map.of(new Can(0.75, 899), 1, new Can(2.5, 1999), 1), waste.counts());
+    }
+
+    @Test
+    void rejectsCataloguesTooBigToTabulate() {
+        // Sizes a millilitre apart need a table of 4096 x 4096 units
+        assertThrows(IllegalArgumentException.class,
+                () -> CanCatalogue.of(List.of(new Can(4.095, 1), new Can(4.096, 2))));
+        // A single can of more units than the table holds
+        assertThrows(IllegalArgumentException.class,
+                () -> CanCatalogue.of(List.of(new Can(0.001, 1), new Can(CanCatalogue.MAX_TABLE / 1000d + 1, 2))));
+        List<Can> many = new ArrayList<>();
+        for (int c = 1; c <= CanCatalogue.MAX_CANS + 1; c++) {
+            many.add(new Can(c, c * 100L));
+        }
+        assertThrows(IllegalArgumentException.class, () -> CanCatalogue.of(many));
+        assertDoesNotThrow(() -> CanCatalogue.of(many.subList(0, CanCatalogue.MAX_CANS)));
+        assertThrows(IllegalArgumentException.class, () -> CanCatalogue.of(Collections.emptyList()));
+    }
+
+    @Test
+    void rejectsSizesWhichArentWholeMillilitres() {
+        assertThrows(IllegalArgumentException.class, () -> new Can(0.0004, 1));
+        assertThrows(IllegalArgumentException.class, () -> new Can(Double.NaN, 1));
+        assertThrows(IllegalArgumentException.class, () -> new Can(Double.POSITIVE_INFINITY, 1));
+        assertThrows(IllegalArgumentException.class, () -> new Can(1, -1));
+        assertThrows(IllegalArgumentException.class, () -> CanCatalogue.parse("2.5:19.99"));
+        assertThrows(IllegalArgumentException.class, () -> CanCatalogue.parse("2.5"));
+        // Rounded to the millilitre, as documented
+        assertEquals(2501, new Can(2.5005, 1).millilitres());
+    }
+
+    @Test
+    void rejectsAmountsItCantPack() {
+        CanCatalogue catalogue = CanCatalogue.parse("2.5:1999,5:3299");
+        for (double litres : new double[]{-1, Double.NaN, Double.POSITIVE_INFINITY, 1e16}) {
+            for (Objective objective : Objective.values()) {
+                assertThrows(IllegalArgumentException.class, () -> catalogue.pack(litres, objective), "" + litres);
+            }
+        }
+        assertTrue(catalogue.pack(0, Objective.CHEAPEST).counts().isEmpty());
+    }
+
+    /**
+     * @return What the objective compares, in order: price or paint first, then the other, then the number of cans.
+     */
+    private static long[] score(long pence, long millilitres, long cans, Objective objective) {
+        return objective == Objective.CHEAPEST
+                ? new long[]{pence, millilitres, cans}
+                : new long[]{millilitres, pence, cans};
+    }
+
+    private static long[] score(CanMix mix, Objective objective) {
+        return score(mix.pence(), Math.round(mix.litres() * 1000), mix.cans(), objective);
+    }
+
+    /**
+     * Try every number of each can which could be in the best mix. The last can only ever needs enough to make up
+     * the rest, since more would cost no less and hold more.
+     */
+    private static long[] bruteForce(List<Can> cans, long millilitres, Objective objective) {
+        return bruteForce(cans, 0, millilitres, 0, 0, 0, objective);
+    }
+
+    private static long[] bruteForce(List<Can> cans, int c, long needed, long pence, long millilitres, long count,
+                                     Objective objective) {
+        Can can = cans.get(c);
+        long most = Math.max(0, (needed + can.millilitres() - 1) / can.millilitres());
+        if (c == cans.size() - 1)
+            return score(pence + most * can.pence(), millilitres + most * can.millilitres(), count + most, objective);
+        long[] best = null;
+        for (long k = 0; k <= most; k++) {
+            long[] score = bruteForce(cans, c + 1, needed - k * can.millilitres(), pence + k * can.pence(),
+                    millilitres + k * can.millilitres(), count + k, objective);
+            if (best == null || Arrays.compare(score, best) < 0)
+                best = score;
+        }
+        return best;
+    }
+}
@@ -0,0 +1,97 @@
+package uk.hpkns.paintcalculator.geometry;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MillimetresTest {
+    @Test
+    void parsesMetresToMillimetres() {
+        assertEquals(2400, Millimetres.parse("2.4"));
+        assertEquals(3000, Millimetres.parse("+3"));
+        assertEquals(12000, Millimetres.parse("12."));
+        assertEquals(500, Millimetres.parse(".5"));
+        assertEquals(0, Millimetres.parse("-0"));
+        assertEquals(0, Millimetres.parse("0.0"));
+    }
+
+    @Test
+    void roundsHalvesAwayFromZero() {
+        assertEquals(1, Millimetres.parse("0.0005"));
+        assertEquals(-1, Millimetres.parse("-0.0005"));
+        assertEquals(0, Millimetres.parse("0.00049999"));
+        assertEquals(3, Millimetres.parse("0.0025"));
+        assertEquals(-3, Millimetres.parse("-0.0025"));
+        assertEquals(7001, Millimetres.parse("7.0005e0"));
+    }
+
+    @Test
+    void readsExponents() {
+        assertEquals(120, Millimetres.parse("1.2e-1"));
+        assertEquals(1_000_000, Millimetres.parse("1E3"));
+        assertEquals(1, Millimetres.parse("5e-4"));
+        assertEquals(0, Millimetres.parse("4.9e-4"));
+        assertEquals(1_234_567_890_123_457L, Millimetres.parse("1234567890123456.5e-3"));
+        assertEquals(0, Millimetres.parse("1e-9999"));
+        assertThrows(IllegalArgumentException.class, () -> Millimetres.parse("1e99999"));
+    }
+
+    @Test
+    void keepsEighteenSignificantDigits() {
+        // Digits past the 18th can only decide rounding when they are right after the millimetres
+        assertEquals(123, Millimetres.parse("0.12345678901234567890123"));
+        assertEquals(123_456_789_012_345_679L, Millimetres.parse("123456789012345.6785"));
+        assertEquals(1, Millimetres.parse("0.000500000000000000000001"));
+        assertThrows(IllegalArgumentException.class, () -> Millimetres.parse("1234567890123456789"));
+        assertThrows(IllegalArgumentException.class, () -> Millimetres.parse("12345678901234567.891"));
+    }
+
+    @Test
+    void rejectsWhatIsNotANumber() {
+        for (String text : new String[]{"", "-", ".", "1e", "1.2.3", "abc", "1x", "NaN", "Infinity", "0x10"}) {
+            assertThrows(IllegalArgumentException.class, () -> Millimetres.parse(text), text);
+        }
+    }
+
+    @Test
+    void agreesWithBigDecimal() {
+        SplittableRandom random = new SplittableRandom(1);
+        for (int i = 0; i < 200_000; i++) {
+            String text = (random.nextBoolean() ? "-" : "") + random.nextInt(100_000) + "."
+                    + random.nextLong(10_000_000);
+            if (random.nextInt(4) == 0)
+                text += "e" + (random.nextInt(10) - 5);
+            long expected = new BigDecimal(text).movePointRight(3).setScale(0, RoundingMode.HALF_UP).longValueExact();
+            assertEquals(expected, Millimetres.parse(text), text);
+        }
+    }
+
+    @Test
+    void roundsDoublesToMillimetres() {
+        assertEquals(2400, Millimetres.of(2.4));
+        assertEquals(-1, Millimetres.of(-0.0005));
+        assertThrows(IllegalArgumentException.class, () -> Millimetres.of(Double.NaN));
+        assertThrows(IllegalArgumentException.class, () -> Millimetres.of(1e300));
+    }
+
+    @Test
+    void roundsCurvedAreasToTheNearestSquareMillimetre() {
+        assertEquals(6_000_000, Millimetres.area(Shape.RECTANGULAR, 2000, 3000));
+        assertEquals(Math.round(Math.PI * 250 * 250), Millimetres.area(Shape.CIRCULAR, 250, 0));
+        assertEquals(3, Millimetres.area(Shape.CIRCULAR, 1, 0));
+        assertEquals(6, Millimetres.area(Shape.OVAL, 2, 1));
+        assertThrows(ArithmeticException.class, () -> Millimetres.area(Shape.RECTANGULAR, Long.MAX_VALUE, 2));
+    }
+
+    @Test
+    void writesSquareMetresExactly() {
+        assertEquals("8.64", Millimetres.squareMetres(8_640_000));
+        assertEquals("12.0", Millimetres.squareMetres(12_000_000));
+        assertEquals("-0.0015", Millimetres.squareMetres(-1_500));
+        assertEquals("0.000001", Millimetres.squareMetres(1));
+    }
+}
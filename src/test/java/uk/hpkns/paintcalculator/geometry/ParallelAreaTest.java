@@ -0,0 +1,93 @@
+package uk.hpkns.paintcalculator.geometry;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ParallelAreaTest {
+    /**
+     * One thread, two, and more threads than this machine has cores, so the blocks are stolen in a different order
+     * each time.
+     */
+    private static final int[] THREADS = {1, 2, Math.max(8, Runtime.getRuntime().availableProcessors() * 2)};
+
+    @Test
+    void totalIsBitIdenticalOnEveryPool() {
+        SplittableRandom random = new SplittableRandom(9);
+        // Either side of a block, and many blocks with a ragged last one
+        int[] sizes = {0, 1, ParallelArea.BLOCK - 1, ParallelArea.BLOCK, ParallelArea.BLOCK + 1, 300_001};
+        for (int size : sizes) {
+            WallStore store = randomWalls(random, size);
+            long expected = Double.doubleToLongBits(ParallelArea.totalArea(store, new ForkJoinPool(1)));
+            for (int threads : THREADS) {
+                ForkJoinPool pool = new ForkJoinPool(threads);
+                try {
+                    for (int run = 0; run < 3; run++) {
+                        assertEquals(expected, Double.doubleToLongBits(ParallelArea.totalArea(store, pool)),
+                                String.format("%d walls on %d threads", size, threads));
+                    }
+                } finally {
+                    pool.shutdown();
+                }
+            }
+            assertEquals(expected, Double.doubleToLongBits(ParallelArea.totalArea(store)), size + " walls");
+            assertEquals(store.totalArea(), Double.longBitsToDouble(expected), 1e-9 * Math.abs(store.totalArea()));
+        }
+    }
+
+    @Test
+    void areasMatchEachWallOnEveryPool() {
+        WallStore store = randomWalls(new SplittableRandom(10), 50_000);
+        MillimetreStore millimetres = new MillimetreStore();
+        for (int i = 0; i < store.size(); i++) {
+            if (!store.hasPlacedObstructions(i))
+                millimetres.add(store, i);
+        }
+        for (int threads : THREADS) {
+            ForkJoinPool pool = new ForkJoinPool(threads);
+            try {
+                double[] areas = new double[store.size()];
+                ParallelArea.areas(store, areas, pool);
+                for (int i = 0; i < store.size(); i++) {
+                    assertEquals(Double.doubleToLongBits(store.area(i)), Double.doubleToLongBits(areas[i]),
+                            String.format("Wall %d on %d threads", i, threads));
+                }
+
+                long[] exact = new long[millimetres.size()];
+                ParallelArea.areas(millimetres, exact, pool);
+                for (int i = 0; i < millimetres.size(); i++) {
+                    assertEquals(millimetres.areaOrTooBig(i), exact[i],
+                            String.format("Wall %d on %d threads", i, threads));
+                }
+            } finally {
+                pool.shutdown();
+            }
+        }
+    }
+
+    /**
+     * Walls from a few centimetres to a few kilometres across, so that the order areas are added in would change the
+     * rounding, with up to three obstructions, a few of them placed.
+     */
+    private static WallStore randomWalls(SplittableRandom random, int walls) {
+        WallStore store = new WallStore();
+        for (int i = 0; i < walls; i++) {
+            double scale = Math.pow(10, random.nextInt(-2, 4));
+            double width = scale * (1 + random.nextDouble(9));
+            double height = scale * (1 + random.nextDouble(2));
+            store.addWall(width, height);
+            for (int j = random.nextInt(4); j > 0; j--) {
+                double a = width * random.nextDouble(0.1);
+                double b = height * random.nextDouble(0.1);
+                if (random.nextInt(20) == 0)
+                    store.addObstruction(Shape.OVAL, a, b, random.nextDouble(width), random.nextDouble(height));
+                else
+                    store.addObstruction((byte) random.nextInt(1, 4), a, b);
+            }
+        }
+        return store;
+    }
+}
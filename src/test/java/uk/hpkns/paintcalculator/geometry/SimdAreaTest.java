@@ -0,0 +1,95 @@
+package uk.hpkns.paintcalculator.geometry;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class SimdAreaTest {
+    /**
+     * SimdArea promises the same result as the scalar path to the last bit, since each lane does the same operations
+     * in the same order.
+     */
+    private static final int ULPS = 0;
+
+    @Test
+    void matchesScalarAreasOfRandomShapes() {
+        SplittableRandom random = new SplittableRandom(42);
+        // Sizes either side of every vector width, so the tail loops are covered too
+        for (int walls = 0; walls < 40; walls++) {
+            WallStore store = randomWalls(random, walls, 7, false);
+            assertMatchesScalar(store);
+        }
+        assertMatchesScalar(randomWalls(random, 10_000, 20, false));
+    }
+
+    @Test
+    void matchesScalarAreasWithPlacedObstructions() {
+        assertMatchesScalar(randomWalls(new SplittableRandom(7), 2_000, 6, true));
+    }
+
+    @Test
+    void reusesScratchForSmallerStores() {
+        SplittableRandom random = new SplittableRandom(3);
+        SimdArea simd = new SimdArea();
+        for (int walls : new int[]{500, 20, 1_000, 1}) {
+            WallStore store = randomWalls(random, walls, 10, false);
+            double[] areas = new double[walls];
+            simd.areas(store, areas);
+            for (int i = 0; i < walls; i++) {
+                assertWithinUlps(scalarArea(store, i), areas[i], i);
+            }
+        }
+    }
+
+    @Test
+    void totalIsSummedInOrder() {
+        WallStore store = randomWalls(new SplittableRandom(11), 3_000, 5, false);
+        assertEquals(store.totalArea(), new SimdArea().totalArea(store), 0d);
+    }
+
+    private static void assertMatchesScalar(WallStore store) {
+        double[] areas = new double[store.size()];
+        new SimdArea().areas(store, areas);
+        for (int i = 0; i < store.size(); i++) {
+            assertWithinUlps(store.hasPlacedObstructions(i) ? store.area(i) : scalarArea(store, i), areas[i], i);
+        }
+    }
+
+    /**
+     * The area of a wall from {@link Shape#area}, subtracting each obstruction in order.
+     */
+    private static double scalarArea(WallStore store, int i) {
+        double obstructions = 0d;
+        for (int j = store.obstructionStart(i); j < store.obstructionEnd(i); j++) {
+            obstructions += Shape.area(store.tag(j), store.dimA(j), store.dimB(j));
+        }
+        return store.width(i) * store.height(i) - obstructions;
+    }
+
+    private static void assertWithinUlps(double expected, double actual, int wall) {
+        assertEquals(expected, actual, ULPS * Math.ulp(expected), "Wall " + wall);
+    }
+
+    private static WallStore randomWalls(SplittableRandom random, int walls, int maxObstructions, boolean placed) {
+        WallStore store = new WallStore();
+        byte[] shapes = {Shape.RECTANGULAR, Shape.CIRCULAR, Shape.OVAL};
+        for (int i = 0; i < walls; i++) {
+            double width = random.nextDouble(1, 20);
+            double height = random.nextDouble(2, 5);
+            store.addWall(width, height);
+            int obstructions = random.nextInt(maxObstructions + 1);
+            for (int j = 0; j < obstructions; j++) {
+                byte shape = shapes[random.nextInt(shapes.length)];
+                double a = random.nextDouble(0.01, 0.5);
+                double b = shape == Shape.CIRCULAR ? 0 : random.nextDouble(0.01, 0.5);
+                if (placed && random.nextBoolean())
+                    store.addObstruction(shape, a, b, random.nextDouble(0, width), random.nextDouble(0, height));
+                else
+                    store.addObstruction(shape, a, b);
+            }
+        }
+        return store;
+    }
+}
@@ -0,0 +1,136 @@
+package uk.hpkns.paintcalculator.geometry;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UnionAreaTest {
+    private static final double EPSILON = 1e-12;
+
+    /**
+     * The points per metre of the grid the brute-force areas are counted on.
+     */
+    private static final int GRID = 1000;
+
+    @Test
+    void disjointObstructionsAddUp() {
+        List<Shape> obstructions = List.of(
+                new Placed(new Rectangle(1, 1), 1, 1),
+                new Placed(new Rectangle(0.5, 2), 3, 1.5),
+                new Placed(new Circle(0.4), 5, 1),
+                new Placed(new Oval(0.6, 0.3), 7, 2));
+        double sum = obstructions.stream().mapToDouble(Shape::area).sum();
+        assertEquals(sum, UnionArea.obstructionArea(8, 3, obstructions), EPSILON);
+    }
+
+    @Test
+    void windowInARecessCountsOnce() {
+        List<Shape> obstructions = List.of(
+                new Placed(new Rectangle(2, 2), 2, 1.5),
+                new Placed(new Rectangle(1, 0.8), 2, 1.5),
+                new Placed(new Circle(0.2), 1.8, 1.2));
+        assertEquals(4, UnionArea.obstructionArea(5, 3, obstructions), EPSILON);
+    }
+
+    @Test
+    void boxesWhichOnlyTouchDontOverlap() {
+        List<Shape> side = List.of(
+                new Placed(new Rectangle(1, 1), 1, 1),
+                new Placed(new Rectangle(1, 1), 2, 1));
+        assertEquals(2, UnionArea.obstructionArea(5, 3, side), EPSILON);
+        List<Shape> corner = List.of(
+                new Placed(new Rectangle(1, 1), 1, 1),
+                new Placed(new Rectangle(1, 1), 2, 2),
+                new Placed(new Rectangle(2, 1), 2.5, 0.5));
+        assertEquals(4, UnionArea.obstructionArea(5, 3, corner), EPSILON);
+    }
+
+    @Test
+    void obstructionsOverTheEdgeAreClipped() {
+        assertEquals(0.5, UnionArea.obstructionArea(4, 3, List.of(new Placed(new Rectangle(1, 1), 0, 1))), EPSILON);
+        assertEquals(0.25, UnionArea.obstructionArea(4, 3, List.of(new Placed(new Rectangle(1, 1), 4, 3))), EPSILON);
+        assertEquals(0, UnionArea.obstructionArea(4, 3, List.of(new Placed(new Rectangle(1, 1), 9, 1))), EPSILON);
+        assertEquals(12, UnionArea.obstructionArea(4, 3, List.of(new Placed(new Rectangle(10, 10), 2, 1.5))),
+                EPSILON);
+        // Half a circle over the bottom edge
+        assertEquals(Math.PI / 2, UnionArea.obstructionArea(4, 3, List.of(new Placed(new Circle(1), 2, 0))), 0.01);
+    }
+
+    @Test
+    void curvedOverlapsMatchABruteForceCount() {
+        SplittableRandom random = new SplittableRandom(11);
+        for (int trial = 0; trial < 30; trial++) {
+            double width = 2 + random.nextDouble(3);
+            double height = 2 + random.nextDouble(1);
+            List<Shape> obstructions = new ArrayList<>();
+            int count = 2 + random.nextInt(5);
+            for (int i = 0; i < count; i++) {
+                Shape shape = switch (random.nextInt(3)) {
+                    case 0 -> new Rectangle(0.2 + random.nextDouble(1), 0.2 + random.nextDouble(1));
+                    case 1 -> new Circle(0.1 + random.nextDouble(0.6));
+                    default -> new Oval(0.1 + random.nextDouble(0.6), 0.1 + random.nextDouble(0.4));
+                };
+                obstructions.add(new Placed(shape, random.nextDouble(width), random.nextDouble(height)));
+            }
+            double expected = bruteForce(width, height, obstructions);
+            // The grid and the strips each miss a little around the curved edges
+            assertEquals(expected, UnionArea.obstructionArea(width, height, obstructions), 0.01 * expected + 0.005,
+                    obstructions.toString());
+        }
+    }
+
+    @Test
+    void unplacedObstructionsAreAddedToThePlacedUnion() {
+        List<Shape> placed = List.of(
+                new Placed(new Rectangle(1, 1), 1, 1),
+                new Placed(new Rectangle(1, 1), 1.5, 1));
+        List<Shape> mixed = new ArrayList<>(placed);
+        mixed.add(new Rectangle(1, 1));
+        mixed.add(new Circle(0.5));
+        assertEquals(1.5, UnionArea.obstructionArea(5, 3, placed), EPSILON);
+        assertEquals(2.5 + Math.PI / 4, UnionArea.obstructionArea(5, 3, mixed), EPSILON);
+
+        WallStore store = new WallStore();
+        store.add(new Wall(5, 3, mixed));
+        assertEquals(15 - 2.5 - Math.PI / 4, store.area(0), EPSILON);
+    }
+
+    /**
+     * Count the grid points inside any obstruction, at the centre of each square.
+     */
+    private static double bruteForce(double width, double height, List<Shape> obstructions) {
+        int columns = (int) Math.round(width * GRID);
+        int rows = (int) Math.round(height * GRID);
+        double dx = width / columns;
+        double dy = height / rows;
+        long inside = 0;
+        for (int i = 0; i < columns; i++) {
+            double px = (i + 0.5) * dx;
+            for (int j = 0; j < rows; j++) {
+                double py = (j + 0.5) * dy;
+                for (Shape obstruction : obstructions) {
+                    if (covers((Placed) obstruction, px, py)) {
+                        inside++;
+                        break;
+                    }
+                }
+            }
+        }
+        return inside * dx * dy;
+    }
+
+    private static boolean covers(Placed placed, double px, double py) {
+        double x = px - placed.x();
+        double y = py - placed.y();
+        if (placed.shape() instanceof Rectangle r)
+            return Math.abs(x) <= r.width() / 2 && Math.abs(y) <= r.height() / 2;
+        if (placed.shape() instanceof Circle c)
+            return x * x + y * y <= c.radius() * c.radius();
+        Oval o = (Oval) placed.shape();
+        return (x / o.semiMajor()) * (x / o.semiMajor()) + (y / o.semiMinor()) * (y / o.semiMinor()) <= 1;
+    }
+}
@@ -0,0 +1,126 @@
+package uk.hpkns.paintcalculator.geometry;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WallListTest {
+    private static final int STEPS = 20_000;
+
+    /**
+     * The running total only differs from a fresh one by rounding, a few ULPs of the largest area it has held.
+     */
+    private static final double RELATIVE = 1e-12;
+
+    @Test
+    void runningTotalMatchesRecalculationAfterEveryEdit() {
+        SplittableRandom random = new SplittableRandom(17);
+        WallList list = new WallList();
+        int[] changes = {0};
+        list.addListener(() -> changes[0]++);
+
+        double largest = 0;
+        for (int step = 0; step < STEPS; step++) {
+            int op = random.nextInt(100);
+            int size = list.size();
+            String what;
+            if (size == 0 || op < 30) {
+                list.add(randomWall(random));
+                what = "add";
+            } else if (op < 45) {
+                list.set(random.nextInt(size), randomWall(random));
+                what = "set";
+            } else if (op < 60) {
+                list.remove(random.nextInt(size));
+                what = "remove";
+            } else if (op < 61) {
+                list.clear();
+                what = "clear";
+            } else if (op < 66) {
+                WallStore store = new WallStore();
+                for (int i = random.nextInt(4); i > 0; i--) {
+                    store.add(randomWall(random));
+                }
+                list.addAll(store);
+                what = "addAll";
+            } else if (op < 88) {
+                int i = random.nextInt(size);
+                Wall wall = list.get(i);
+                Shape obstruction = randomObstruction(random, wall.width(), wall.height());
+                if (wall.obstructionArea() + obstruction.area() > wall.grossArea())
+                    continue;
+                list.addObstruction(i, obstruction);
+                what = "addObstruction";
+            } else {
+                int i = random.nextInt(size);
+                if (list.get(i).obstructions().isEmpty())
+                    continue;
+                list.removeObstruction(i, random.nextInt(list.get(i).obstructions().size()));
+                what = "removeObstruction";
+            }
+
+            double expected = 0;
+            double magnitude = 0;
+            for (Wall wall : list.walls()) {
+                expected += wall.area();
+                magnitude += Math.abs(wall.grossArea()) + Math.abs(wall.obstructionArea());
+            }
+            largest = Math.max(largest, magnitude);
+            assertEquals(expected, list.totalArea(), RELATIVE * largest + 1e-12,
+                    String.format("Step %d (%s) with %d walls", step, what, list.size()));
+            if (list.size() == 0)
+                assertEquals(0d, list.totalArea(), String.format("Step %d (%s)", step, what));
+        }
+        assertTrue(changes[0] > STEPS / 2);
+    }
+
+    @Test
+    void everyEditTellsListenersOnce() {
+        WallList list = new WallList();
+        int[] changes = {0};
+        list.addListener(() -> changes[0]++);
+        list.add(new Wall(4, 2.4));
+        list.addObstruction(0, new Rectangle(1, 1));
+        list.addObstruction(0, new Placed(new Circle(0.3), 3, 1));
+        list.removeObstruction(0, 1);
+        list.removeObstruction(0, 0);
+        list.set(0, new Wall(3, 2));
+        WallStore store = new WallStore();
+        store.addWall(1, 1);
+        store.addWall(2, 1);
+        list.addAll(store);
+        list.remove(1);
+        list.clear();
+        assertEquals(9, changes[0]);
+        assertEquals(0d, list.totalArea());
+    }
+
+    private static Wall randomWall(SplittableRandom random) {
+        double width = 1 + random.nextDouble(9);
+        double height = 2 + random.nextDouble(2);
+        List<Shape> obstructions = new ArrayList<>();
+        for (int i = random.nextInt(4); i > 0; i--) {
+            obstructions.add(randomObstruction(random, width, height));
+        }
+        Wall wall = new Wall(width, height, obstructions);
+        return wall.area() >= 0 ? wall : new Wall(width, height);
+    }
+
+    /**
+     * A small rectangle, circle or oval, placed somewhere on the wall a third of the time.
+     */
+    private static Shape randomObstruction(SplittableRandom random, double width, double height) {
+        Shape shape = switch (random.nextInt(3)) {
+            case 0 -> new Rectangle(0.1 + random.nextDouble(1.2), 0.1 + random.nextDouble(1.2));
+            case 1 -> new Circle(0.05 + random.nextDouble(0.5));
+            default -> new Oval(0.05 + random.nextDouble(0.6), 0.05 + random.nextDouble(0.4));
+        };
+        if (random.nextInt(3) == 0)
+            return new Placed(shape, random.nextDouble(width), random.nextDouble(height));
+        return shape;
+    }
+}
@@ -0,0 +1,52 @@
+package uk.hpkns.paintcalculator.geometry;
+
+import org.junit.jupiter.api.Test;
+import uk.hpkns.paintcalculator.uncertainty.MonteCarlo;
+import uk.hpkns.paintcalculator.uncertainty.Tolerance;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WallStoreTest {
+    @Test
+    void clearForgetsPlacedObstructions() {
+        WallStore store = new WallStore(2, 2);
+        store.addWall(4, 2.4);
+        store.addObstruction(Shape.CIRCULAR, 0.5, 0.5, 1, 1);
+        store.addObstruction(Shape.CIRCULAR, 0.5, 0.5, 1.5, 1);
+        assertTrue(store.hasPlacedObstructions());
+
+        store.clear();
+        assertFalse(store.hasPlacedObstructions());
+        // Walls added after clearing, past the old capacity, aren't placed however the old ones were
+        for (int i = 0; i < 5; i++) {
+            store.addWall(3, 2);
+            store.addObstruction(Shape.RECTANGULAR, 1, 2);
+            assertFalse(store.hasPlacedObstructions(i));
+            assertTrue(Double.isNaN(store.x(i)));
+        }
+        assertFalse(store.hasPlacedObstructions());
+        assertEquals(5 * (3 * 2 - 1 * 2), store.totalArea());
+
+        // Nothing placed is left, so uncertainty can be estimated again
+        new MonteCarlo(new Tolerance(0.01, 0), 100, 1).litres(store, 1);
+    }
+
+    @Test
+    void removeLastForgetsItsPlacedObstructions() {
+        WallStore store = new WallStore();
+        store.addWall(4, 2.4);
+        store.addObstruction(Shape.RECTANGULAR, 1, 1);
+        store.addWall(4, 2.4);
+        store.addObstruction(Shape.CIRCULAR, 0.5, 0.5, 1, 1);
+        store.addObstruction(Shape.CIRCULAR, 0.5, 0.5, 2, 1);
+        assertTrue(store.hasPlacedObstructions());
+
+        store.removeLast();
+        assertFalse(store.hasPlacedObstructions());
+        store.addWall(3, 2);
+        store.addObstruction(Shape.OVAL, 0.5, 0.25, 1, 1);
+        assertTrue(store.hasPlacedObstructions());
+        assertFalse(store.hasPlacedObstructions(0));
+        assertTrue(store.hasPlacedObstructions(1));
+    }
+}
@@ -0,0 +1,172 @@
+package uk.hpkns.paintcalculator.io;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import uk.hpkns.paintcalculator.geometry.Shape;
+import uk.hpkns.paintcalculator.geometry.WallStore;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProjectFileTest {
+    @TempDir
+    Path dir;
+
+    @Test
+    void saveLoadSaveKeepsEveryWall() throws IOException {
+        WallStore store = randomWalls(new SplittableRandom(1), 1_000, 6);
+        Path first = dir.resolve("first" + ProjectFile.EXTENSION);
+        ProjectFile.save(first, store);
+
+        WallStore loaded = ProjectFile.load(first);
+        assertSameWalls(store, loaded);
+
+        Path second = dir.resolve("second" + ProjectFile.EXTENSION);
+        ProjectFile.save(second, loaded);
+        assertArrayEquals(Files.readAllBytes(first), Files.readAllBytes(second));
+    }
+
+    @Test
+    void mappedProjectMatchesLoadedStore() throws IOException {
+        WallStore store = randomWalls(new SplittableRandom(2), 2_000, 10);
+        Path file = dir.resolve("walls" + ProjectFile.EXTENSION);
+        ProjectFile.save(file, store);
+
+        MappedProject mapped = MappedProject.open(file);
+        WallStore heap = ProjectFile.load(file);
+        assertEquals(heap.size(), mapped.size());
+        assertEquals(heap.obstructionCount(), mapped.obstructionCount());
+        for (int i = 0; i < heap.size(); i++) {
+            assertEquals(heap.width(i), mapped.width(i), 0d);
+            assertEquals(heap.height(i), mapped.height(i), 0d);
+            assertEquals(heap.obstructionStart(i), mapped.obstructionStart(i));
+            assertEquals(heap.obstructionEnd(i), mapped.obstructionEnd(i));
+            assertEquals(heap.area(i), mapped.area(i), 0d);
+        }
+        for (int j = 0; j < heap.obstructionCount(); j++) {
+            assertEquals(heap.tag(j), mapped.tag(j));
+            assertEquals(heap.dimA(j), mapped.dimA(j), 0d);
+            assertEquals(heap.dimB(j), mapped.dimB(j), 0d);
+        }
+    }
+
+    @Test
+    void emptyProjectRoundTrips() throws IOException {
+        Path file = dir.resolve("empty" + ProjectFile.EXTENSION);
+        ProjectFile.save(file, new WallStore());
+        assertEquals(ProjectFile.size(0, 0), Files.size(file));
+
+        assertEquals(0, ProjectFile.load(file).size());
+        MappedProject mapped = MappedProject.open(file);
+        assertEquals(0, mapped.size());
+        assertEquals(0d, mapped.totalArea(), 0d);
+    }
+
+    @Test
+    void largeProjectRoundTrips() throws IOException {
+        WallStore store = randomWalls(new SplittableRandom(3), 200_000, 10);
+        Path file = dir.resolve("large" + ProjectFile.EXTENSION);
+        ProjectFile.save(file, store);
+        assertEquals(ProjectFile.size(store.size(), store.obstructionCount()), Files.size(file));
+
+        assertSameWalls(store, ProjectFile.load(file));
+        assertEquals(store.totalArea(), MappedProject.open(file).totalArea(), 1e-6 * store.totalArea());
+    }
+
+    @Test
+    void placedObstructionsCantBeSaved() {
+        WallStore store = new WallStore();
+        store.addWall(4, 2.4);
+        store.addObstruction(Shape.RECTANGULAR, 1, 1, 2, 1);
+        assertThrows(IOException.class, () -> ProjectFile.save(dir.resolve("placed.pcp"), store));
+    }
+
+    @Test
+    void rejectsInvalidShapeTags() throws IOException {
+        Path file = saveOneWall();
+        byte[] bytes = Files.readAllBytes(file);
+        bytes[bytes.length - 1] = 9; // The last obstruction's tag
+        assertLoadFails(file, bytes);
+    }
+
+    @Test
+    void rejectsNonFiniteAndNegativeDimensions() throws IOException {
+        Path file = saveOneWall();
+        for (double value : new double[]{Double.NaN, Double.POSITIVE_INFINITY, -1}) {
+            // The first wall's width, then the first obstruction's first dimension
+            for (int offset : new int[]{ProjectFile.HEADER_SIZE, ProjectFile.HEADER_SIZE + 16}) {
+                byte[] bytes = Files.readAllBytes(file);
+                ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN).putDouble(offset, value);
+                assertLoadFails(file, bytes);
+                ProjectFile.save(file, oneWall());
+            }
+        }
+    }
+
+    @Test
+    void rejectsTruncatedAndForeignFiles() throws IOException {
+        Path file = saveOneWall();
+        byte[] bytes = Files.readAllBytes(file);
+        assertLoadFails(file, Arrays.copyOf(bytes, bytes.length - 1));
+        assertLoadFails(file, Arrays.copyOf(bytes, 8));
+        byte[] foreign = bytes.clone();
+        foreign[0] = 'X';
+        assertLoadFails(file, foreign);
+    }
+
+    private Path saveOneWall() throws IOException {
+        Path file = dir.resolve("one" + ProjectFile.EXTENSION);
+        ProjectFile.save(file, oneWall());
+        return file;
+    }
+
+    private static WallStore oneWall() {
+        WallStore store = new WallStore();
+        store.addWall(4, 2.4);
+        store.addObstruction(Shape.RECTANGULAR, 0.9, 2);
+        return store;
+    }
+
+    private static void assertLoadFails(Path file, byte[] bytes) throws IOException {
+        Files.write(file, bytes);
+        assertThrows(IOException.class, () -> ProjectFile.load(file));
+        assertThrows(IOException.class, () -> MappedProject.open(file));
+    }
+
+    private static void assertSameWalls(WallStore expected, WallStore actual) {
+        assertEquals(expected.size(), actual.size());
+        assertEquals(expected.obstructionCount(), actual.obstructionCount());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.width(i), actual.width(i), 0d);
+            assertEquals(expected.height(i), actual.height(i), 0d);
+            assertEquals(expected.obstructionStart(i), actual.obstructionStart(i));
+        }
+        for (int j = 0; j < expected.obstructionCount(); j++) {
+            assertEquals(expected.tag(j), actual.tag(j));
+            assertEquals(expected.dimA(j), actual.dimA(j), 0d);
+            assertEquals(expected.dimB(j), actual.dimB(j), 0d);
+        }
+    }
+
+    private static WallStore randomWalls(SplittableRandom random, int walls, int maxObstructions) {
+        WallStore store = new WallStore();
+        byte[] shapes = {Shape.RECTANGULAR, Shape.CIRCULAR, Shape.OVAL};
+        for (int i = 0; i < walls; i++) {
+            store.addWall(random.nextDouble(1, 20), random.nextDouble(2, 5));
+            int obstructions = random.nextInt(maxObstructions + 1);
+            for (int j = 0; j < obstructions; j++) {
+                byte shape = shapes[random.nextInt(shapes.length)];
+                store.addObstruction(shape, random.nextDouble(0.01, 0.5),
+                        shape == Shape.CIRCULAR ? 0 : random.nextDouble(0.01, 0.5));
+            }
+        }
+        return store;
+    }
+}
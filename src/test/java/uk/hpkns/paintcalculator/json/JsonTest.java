@@ -0,0 +1,43 @@
+package uk.hpkns.paintcalculator.json;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JsonTest {
+    @Test
+    void parsesNestingUpToTheLimit() {
+        Object value = Json.parse("[".repeat(Json.MAX_DEPTH) + "]".repeat(Json.MAX_DEPTH));
+        for (int i = 1; i < Json.MAX_DEPTH; i++)
+            value = ((List<?>) value).get(0);
+        assertEquals(List.of(), value);
+
+        String objects = "{\"a\":".repeat(Json.MAX_DEPTH - 1) + "{}" + "}".repeat(Json.MAX_DEPTH - 1);
+        assertInstanceOf(Map.class, Json.parse(objects));
+    }
+
+    @Test
+    void rejectsNestingPastTheLimit() {
+        String arrays = "[".repeat(Json.MAX_DEPTH + 1) + "]".repeat(Json.MAX_DEPTH + 1);
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> Json.parse(arrays));
+        assertEquals(String.format("Nested more than %d deep at offset %d", Json.MAX_DEPTH, Json.MAX_DEPTH),
+                e.getMessage());
+
+        String mixed = "{\"a\":[".repeat(Json.MAX_DEPTH) + "]}".repeat(Json.MAX_DEPTH);
+        assertThrows(IllegalArgumentException.class, () -> Json.parse(mixed));
+
+        // Far too deep to recurse into, and never closed.
+        assertThrows(IllegalArgumentException.class, () -> Json.parse("[".repeat(1_000_000)));
+    }
+
+    @Test
+    void siblingsDontCountTowardsDepth() {
+        String nested = "[".repeat(Json.MAX_DEPTH - 1) + "]".repeat(Json.MAX_DEPTH - 1);
+        List<?> value = (List<?>) Json.parse("[" + String.join(",", Collections.nCopies(100, nested)) + "]");
+        assertEquals(100, value.size());
+    }
+}
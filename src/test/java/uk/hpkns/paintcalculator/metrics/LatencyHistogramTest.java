@@ -0,0 +1,143 @@
+package uk.hpkns.paintcalculator.metrics;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LatencyHistogramTest {
+    private static final int SUB_BUCKETS = LatencyHistogram.SUB_BUCKETS;
+
+    @Test
+    void bucketBoundaries() {
+        // Below one full set of sub-buckets, every value has a bucket of its own
+        assertEquals(0, LatencyHistogram.bucket(0));
+        assertEquals(15, LatencyHistogram.bucket(15));
+        assertEquals(16, LatencyHistogram.bucket(16));
+        assertEquals(31, LatencyHistogram.bucket(31));
+        // From 32, each power of two is split into 16, so buckets start to hold more than one value
+        assertEquals(32, LatencyHistogram.bucket(32));
+        assertEquals(32, LatencyHistogram.bucket(33));
+        assertEquals(33, LatencyHistogram.bucket(34));
+        assertEquals(33, LatencyHistogram.upperBound(32));
+        assertTrue(LatencyHistogram.bucket(Long.MAX_VALUE) < 64 * SUB_BUCKETS);
+        assertEquals(Long.MAX_VALUE, LatencyHistogram.upperBound(LatencyHistogram.bucket(Long.MAX_VALUE)));
+    }
+
+    @Test
+    void bucketsAreContiguousAndNarrow() {
+        int last = LatencyHistogram.bucket(Long.MAX_VALUE);
+        long lower = 0;
+        for (int b = 0; b <= last; b++) {
+            long upper = LatencyHistogram.upperBound(b);
+            assertEquals(b, LatencyHistogram.bucket(lower), "Lowest value of bucket " + b);
+            assertEquals(b, LatencyHistogram.bucket(upper), "Highest value of bucket " + b);
+            // Within 1/16 of the lowest value in the bucket, so any value is reported to within about 6%
+            assertTrue(upper - lower <= Math.max(0, lower / SUB_BUCKETS), "Width of bucket " + b);
+            if (b < last)
+                assertEquals(b + 1, LatencyHistogram.bucket(upper + 1), "Value after bucket " + b);
+            lower = upper + 1;
+        }
+        assertEquals(Long.MIN_VALUE, lower); // Wrapped past the largest long
+    }
+
+    @Test
+    void smallValuesAreExact() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int value = 0; value < SUB_BUCKETS; value++) {
+            for (int i = 0; i < 10; i++) {
+                histogram.record(value);
+            }
+        }
+        for (int k = 1; k <= SUB_BUCKETS; k++) {
+            assertEquals(k - 1, histogram.percentile((double) k / SUB_BUCKETS), "Percentile " + k + "/16");
+        }
+        assertEquals(0, histogram.percentile(0));
+        assertEquals(7.5, histogram.mean());
+        assertEquals(15, histogram.max());
+    }
+
+    @Test
+    void percentilesOfAUniformDistribution() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int value = 1; value <= 1000; value++) {
+            histogram.record(value);
+        }
+        assertEquals(1000, histogram.count());
+        assertEquals(500.5, histogram.mean());
+        assertEquals(1, histogram.percentile(0));
+        // The 500th value is 500, reported as the top of its bucket
+        assertEquals(511, histogram.percentile(0.5));
+        assertEquals(927, histogram.percentile(0.9));
+        // 990 is in the bucket from 960 to 991
+        assertEquals(991, histogram.percentile(0.99));
+        // 1000 is in the bucket up to 1023, but never more than the largest value recorded is reported
+        assertEquals(1000, histogram.percentile(0.999));
+        assertEquals(1000, histogram.percentile(1));
+    }
+
+    @Test
+    void percentilesAreWithinTheBucketOfTheExactRank() {
+        SplittableRandom random = new SplittableRandom(4);
+        for (int trial = 0; trial < 20; trial++) {
+            LatencyHistogram histogram = new LatencyHistogram();
+            int n = 1 + random.nextInt(5_000);
+            long[] values = new long[n];
+            for (int i = 0; i < n; i++) {
+                // Log-normal-ish, from nanoseconds to seconds
+                values[i] = (long) Math.exp(random.nextDouble(0, 21));
+                histogram.record(values[i]);
+            }
+            Arrays.sort(values);
+            for (double p : new double[]{0.01, 0.25, 0.5, 0.9, 0.99, 0.999, 1}) {
+                long exact = values[(int) Math.max(1, Math.ceil(p * n)) - 1];
+                long reported = histogram.percentile(p);
+                assertTrue(reported >= exact, String.format("p%s: %d < %d", p, reported, exact));
+                assertTrue(reported <= Math.min(LatencyHistogram.upperBound(LatencyHistogram.bucket(exact)),
+                        values[n - 1]), String.format("p%s: %d for %d", p, reported, exact));
+            }
+            assertEquals(values[n - 1], histogram.max());
+        }
+    }
+
+    @Test
+    void extremesAndEmpty() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        assertEquals(0, histogram.percentile(0.5));
+        assertEquals(0, histogram.mean());
+
+        histogram.record(-5);
+        assertEquals(0, histogram.percentile(1));
+        histogram.record(Long.MAX_VALUE);
+        assertEquals(0, histogram.percentile(0.5));
+        assertEquals(Long.MAX_VALUE, histogram.percentile(1));
+        assertEquals(Long.MAX_VALUE, histogram.max());
+    }
+
+    @Test
+    void concurrentRecordsAreAllCounted() throws InterruptedException {
+        LatencyHistogram histogram = new LatencyHistogram();
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            Thread thread = new Thread(() -> {
+                for (int i = 0; i < 100_000; i++) {
+                    histogram.record(i % 100);
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertEquals(400_000, histogram.count());
+        assertEquals(49.5, histogram.mean());
+        assertEquals(99, histogram.max());
+        // 40% of values are below 40, which is in a bucket of 40 and 41
+        assertEquals(41, histogram.percentile(0.41));
+    }
+}
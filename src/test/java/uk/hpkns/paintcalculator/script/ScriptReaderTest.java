@@ -0,0 +1,134 @@
+package uk.hpkns.paintcalculator.script;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ScriptReaderTest {
+    @Test
+    void readsNumbersExactlyAsParseDoubleDoes() throws IOException {
+        SplittableRandom random = new SplittableRandom(17);
+        StringBuilder sb = new StringBuilder();
+        String[] tokens = new String[100_000];
+        for (int i = 0; i < tokens.length; i++) {
+            StringBuilder token = new StringBuilder();
+            if (random.nextInt(4) == 0)
+                token.append(random.nextBoolean() ? '-' : '+');
+            // Up to 25 digits either side of the point, so both the fast path and the fallback are taken
+            int before = random.nextInt(12);
+            int after = random.nextInt(random.nextInt(4) == 0 ? 25 : 8);
+            for (int d = 0; d < before; d++) {
+                token.append((char) ('0' + random.nextInt(10)));
+            }
+            if (after > 0 || before == 0)
+                token.append('.');
+            for (int d = 0; d < Math.max(after, before == 0 ? 1 : 0); d++) {
+                token.append((char) ('0' + random.nextInt(10)));
+            }
+            if (random.nextInt(3) == 0)
+                token.append(random.nextBoolean() ? 'e' : 'E').append(random.nextInt(80) - 40);
+            tokens[i] = token.toString();
+            sb.append(tokens[i]).append(random.nextBoolean() ? " " : "\n");
+        }
+        ScriptReader reader = reader(sb.toString());
+        for (String token : tokens) {
+            assertEquals(Double.doubleToLongBits(Double.parseDouble(token)),
+                    Double.doubleToLongBits(reader.nextDouble("a number")), token);
+        }
+        assertFalse(reader.hasNext());
+    }
+
+    @Test
+    void fallsBackForNumbersTheFastPathCantRound() throws IOException {
+        String[] tokens = {"9007199254740993", "123456789012345678901234567890", "1e23", "4.9e-324", "1e-400",
+                "2.2250738585072011e-308", "0.1000000000000000055511151231257827", "1.7976931348623157e308", "-0.0"};
+        ScriptReader reader = reader(String.join(" ", tokens));
+        for (String token : tokens) {
+            assertEquals(Double.doubleToLongBits(Double.parseDouble(token)),
+                    Double.doubleToLongBits(reader.nextDouble("a number")), token);
+        }
+    }
+
+    @Test
+    void rejectsNumbersTooLargeToBeFinite() throws IOException {
+        ScriptReader reader = reader("1e400 -1e309\n2e308");
+        assertMessage("Line 1, column 1: 1e400 is too large", reader);
+        assertMessage("Line 1, column 7: -1e309 is too large", reader);
+        assertMessage("Line 2, column 1: 2e308 is too large", reader);
+    }
+
+    @Test
+    void reportsWhereMalformedAnswersAre() throws IOException {
+        ScriptReader reader = reader("  1.5\n\n\t 1e 2.3.4 + .e5 x\r\n 12345678901");
+        assertEquals(1.5, reader.nextDouble("a number"));
+        assertEquals(1, reader.line());
+        assertEquals(3, reader.column());
+        assertMessage("Line 3, column 3: Expected a number, but found '1e'", reader);
+        assertMessage("Line 3, column 6: Expected a number, but found '2.3.4'", reader);
+        assertMessage("Line 3, column 12: Expected a number, but found '+'", reader);
+        assertMessage("Line 3, column 14: Expected a number, but found '.e5'", reader);
+        assertMessage("Line 3, column 18: Expected a number, but found 'x'", reader);
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> reader.nextInt("walls"));
+        assertEquals("Line 4, column 2: 12345678901 is too large", e.getMessage());
+        e = assertThrows(IllegalArgumentException.class, () -> reader.nextInt("walls"));
+        assertEquals("Line 4, column 13: Expected walls, but the input ended", e.getMessage());
+    }
+
+    @Test
+    void readsWholeNumbers() throws IOException {
+        ScriptReader reader = reader("0 -7 +3 2147483647 -2147483648 1.5 2147483648");
+        for (int expected : new int[]{0, -7, 3, Integer.MAX_VALUE, Integer.MIN_VALUE}) {
+            assertEquals(expected, reader.nextInt("a whole number"));
+        }
+        assertThrows(IllegalArgumentException.class, () -> reader.nextInt("a whole number"));
+        assertThrows(IllegalArgumentException.class, () -> reader.nextInt("a whole number"));
+    }
+
+    @Test
+    void rejectsAnswersLongerThanANumberCanBe() {
+        ScriptReader reader = reader("1".repeat(65));
+        assertThrows(IllegalArgumentException.class, () -> reader.nextDouble("a number"));
+    }
+
+    @Test
+    void scriptsEditWallsAndStopAtTheFirstWrongAnswer() {
+        // Two walls, then the first entered again with a window, then a room with a wall too big to be finite
+        String script = "2\n4 2.5 0\n3 2.5 0\n1\n4 2.5 1 1 1 1\n3\n2 2.5\n"
+                + "1\n5 2 0\n0\n1 5\n"
+                + "1\n1e309 2 0\n";
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ByteArrayOutputStream err = new ByteArrayOutputStream();
+        int status = Script.run(new ByteArrayInputStream(script.getBytes(StandardCharsets.US_ASCII)), out,
+                new PrintStream(err, true, StandardCharsets.UTF_8));
+        assertEquals(1, status);
+        // (4 x 2.5 - 1) + 3 x 2.5 = 16.5 m² at 2 coats, then 10 m² at 1 coat
+        assertEquals("53 132.00\n8 40.00\n", out.toString(StandardCharsets.US_ASCII));
+        assertEquals("Line 13, column 1: 1e309 is too large", err.toString(StandardCharsets.UTF_8).strip());
+    }
+
+    @Test
+    void scriptsRejectNegativeDimensions() {
+        ByteArrayOutputStream err = new ByteArrayOutputStream();
+        int status = Script.run(new ByteArrayInputStream("1\n4 2.5 1 2 -0.3\n".getBytes(StandardCharsets.US_ASCII)),
+                new ByteArrayOutputStream(), new PrintStream(err, true, StandardCharsets.UTF_8));
+        assertEquals(1, status);
+        assertEquals("Line 2, column 11: Expected the radius of an obstruction, but found a negative number",
+                err.toString(StandardCharsets.UTF_8).strip());
+    }
+
+    private static void assertMessage(String expected, ScriptReader reader) {
+        assertEquals(expected,
+                assertThrows(IllegalArgumentException.class, () -> reader.nextDouble("a number")).getMessage());
+    }
+
+    private static ScriptReader reader(String text) {
+        return new ScriptReader(new ByteArrayInputStream(text.getBytes(StandardCharsets.US_ASCII)));
+    }
+}
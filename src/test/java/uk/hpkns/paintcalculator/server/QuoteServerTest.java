@@ -0,0 +1,55 @@
+package uk.hpkns.paintcalculator.server;
+
+import org.junit.jupiter.api.Test;
+import uk.hpkns.paintcalculator.json.Json;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class QuoteServerTest {
+    private static HttpResponse<String> post(QuoteServer server, String body) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + server.getPort() + "/quote"))
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+        return HttpClient.newHttpClient().send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    @Test
+    void deeplyNestedRequestIsABadRequest() throws Exception {
+        QuoteServer server = new QuoteServer(0, 0);
+        try {
+            HttpResponse<String> response = post(server, "[".repeat(100_000));
+            assertEquals(400, response.statusCode());
+            assertTrue(response.body().contains(String.format("Nested more than %d deep", Json.MAX_DEPTH)),
+                    response.body());
+
+            response = post(server, "{\"rooms\":[{\"coats\":1,\"walls\":[{\"width\":4,\"height\":2}]}]}");
+            assertEquals(200, response.statusCode(), response.body());
+        } finally {
+            server.stop();
+        }
+    }
+
+    @Test
+    void unexpectedFailureIsAnInternalError() throws Exception {
+        QuoteService broken = new QuoteService() {
+            @Override
+            public String quote(CharSequence request) {
+                throw new StackOverflowError();
+            }
+        };
+        QuoteServer server = new QuoteServer(0, broken);
+        try {
+            HttpResponse<String> response = post(server, "{}");
+            assertEquals(500, response.statusCode());
+            assertEquals("{\"error\":\"Internal error\"}", response.body());
+        } finally {
+            server.stop();
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package uk.hpkns.paintcalculator.server;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.function.Executable;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class QuoteServiceTest {
+    private static final String CATALOGUE = "\"catalogue\":[{\"litres\":2.5,\"pence\":1999},{\"litres\":5,\"pence\":3299}]";
+
+    @Test
+    void cachedQuotesAreIdentical() {
+        Random random = new Random(7);
+        List<List<String>> layouts = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            List<String> walls = new ArrayList<>();
+            for (int w = 0; w < 4; w++) {
+                walls.add(String.format(Locale.ROOT, "{\"width\":%.2f,\"height\":2.4,\"obstructions\":"
+                                + "[{\"shape\":\"circular\",\"radius\":0.3,\"x\":%.2f,\"y\":1.2},"
+                                + "{\"shape\":\"rectangular\",\"width\":0.9,\"height\":0.7,\"x\":1.4,\"y\":1.3}]}",
+                        3 + random.nextDouble(3), 0.5 + random.nextDouble(1)));
+            }
+            layouts.add(walls);
+        }
+        StringBuilder rooms = new StringBuilder();
+        for (int i = 0; i < 60; i++) {
+            List<String> walls = new ArrayList<>(layouts.get(random.nextInt(layouts.size())));
+            Collections.shuffle(walls, random);
+            if (i > 0)
+                rooms.append(',');
+            rooms.append("{\"coats\":").append(1 + random.nextInt(3)).append(",\"walls\":[")
+                    .append(String.join(",", walls)).append("]}");
+        }
+
+        QuoteService uncached = new QuoteService();
+        QuoteService cached = new QuoteService(3);
+        for (String options : new String[]{"\"canSize\":2.5", CATALOGUE, CATALOGUE + ",\"objective\":\"least-waste\""}) {
+            String request = "{" + options + ",\"rooms\":[" + rooms + "]}";
+            String expected = uncached.quote(request);
+            assertEquals(expected, cached.quote(request));
+            assertEquals(expected, cached.quote(request));
+        }
+        assertTrue(cached.getCache().getHits() > 0);
+        assertTrue(cached.getCache().getEvictions() > 0);
+        assertNull(uncached.getCache());
+    }
+
+    @Test
+    void buildingsAreQuotedFromTheCatalogue() {
+        QuoteService service = new QuoteService();
+        String building = "\"building\":{\"name\":\"Office\",\"floors\":[{\"name\":\"Ground\",\"rooms\":["
+                + "{\"name\":\"Kitchen\",\"walls\":[{\"width\":4,\"height\":2.5}]},"
+                + "{\"name\":\"Hall\",\"walls\":[{\"width\":3,\"height\":2}]}]}]}";
+        String catalogue = "\"catalogue\":[{\"litres\":1,\"pence\":1099},{\"litres\":2.5,\"pence\":1999},"
+                + "{\"litres\":5,\"pence\":3299}]";
+        // Each part gets its own best mix, so the building's isn't the sum of its rooms'
+        String whole = "\"cans\":27,\"mix\":[{\"litres\":5.0,\"count\":25},{\"litres\":2.5,\"count\":1},"
+                + "{\"litres\":1.0,\"count\":1}],\"pence\":85573";
+        assertEquals("{\"building\":{\"name\":\"Office\",\"area\":16.0,\"litres\":128.0," + whole
+                        + ",\"floors\":[{\"name\":\"Ground\",\"area\":16.0,\"litres\":128.0," + whole
+                        + ",\"rooms\":["
+                        + "{\"name\":\"Kitchen\",\"area\":10.0,\"litres\":80.0,\"cans\":16,"
+                        + "\"mix\":[{\"litres\":5.0,\"count\":16}],\"pence\":52784},"
+                        + "{\"name\":\"Hall\",\"area\":6.0,\"litres\":48.0,\"cans\":11,\"mix\":[{\"litres\":5.0,"
+                        + "\"count\":9},{\"litres\":2.5,\"count\":1},{\"litres\":1.0,\"count\":1}],\"pence\":32789}]}]}}",
+                service.quote("{\"coats\":2," + catalogue + "," + building + "}"));
+
+        // The catalogue takes the place of a can size, as it does for rooms
+        assertEquals(service.quote("{\"coats\":2," + catalogue + "," + building + "}"),
+                service.quote("{\"coats\":2,\"canSize\":1e-9," + catalogue + "," + building + "}"));
+        assertFalse(service.quote("{\"coats\":2,\"canSize\":5," + building + "}").contains("\"mix\""));
+        assertMessage("Unknown objective 'fastest'",
+                () -> service.quote("{" + catalogue + ",\"objective\":\"fastest\"," + building + "}"));
+    }
+
+    @Test
+    void rejectsQuotesTooBigToWrite() {
+        QuoteService service = new QuoteService();
+        String huge = "{\"walls\":[{\"width\":1e300,\"height\":1e300}]}";
+        assertMessage("Room 1: The area is too big", () -> service.quote(huge));
+        assertMessage("Room 1: The area is too big",
+                () -> service.quote("{\"coats\":2,\"walls\":[{\"width\":1e200,\"height\":1e108}]}"));
+        assertMessage("Building: The area is too big",
+                () -> service.quote("{\"building\":{\"floors\":[{\"rooms\":[" + huge + "]}]}}"));
+        assertMessage("Room 1: Too many cans are needed to count",
+                () -> service.quote("{\"canSize\":1e-9,\"walls\":[{\"width\":3,\"height\":2}]}"));
+
+        // Each room fits, but not all of them together
+        String big = "{\"walls\":[{\"width\":1e300,\"height\":1e7}]}";
+        assertMessage("Total: The area is too big",
+                () -> service.quote("{\"rooms\":[" + String.join(",", Collections.nCopies(100, big)) + "]}"));
+    }
+
+    @Test
+    void rejectsNegativeDimensions() {
+        QuoteService service = new QuoteService();
+        assertMessage("Room 1 wall 1: \"width\" can't be negative",
+                () -> service.quote("{\"walls\":[{\"width\":-4,\"height\":-2.4}]}"));
+        assertMessage("Room 1 wall 2: \"semiMinor\" can't be negative",
+                () -> service.quote("{\"walls\":[{\"width\":4,\"height\":2.4},{\"width\":4,\"height\":2.4,"
+                        + "\"obstructions\":[{\"shape\":\"oval\",\"semiMajor\":0.5,\"semiMinor\":-0.2}]}]}"));
+    }
+
+    private static void assertMessage(String expected, Executable executable) {
+        assertEquals(expected, assertThrows(IllegalArgumentException.class, executable).getMessage());
+    }
+
+    @Test
+    void reportsTheWallWithNoneLeftWhetherOrNotCached() {
+        String request = "{\"rooms\":[{\"walls\":[{\"width\":3,\"height\":2}]},{\"walls\":[{\"width\":3,\"height\":2},"
+                + "{\"width\":1,\"height\":1,\"obstructions\":[{\"shape\":\"rectangular\",\"width\":2,\"height\":2}]}]}]}";
+        for (QuoteService service : new QuoteService[]{new QuoteService(), new QuoteService(10)}) {
+            for (int i = 0; i < 2; i++) {
+                IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                        () -> service.quote(request));
+                assertEquals("Room 2 wall 2: There is no wall left!", e.getMessage());
+            }
+        }
+    }
+}
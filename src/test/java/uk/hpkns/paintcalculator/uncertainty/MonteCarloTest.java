@@ -0,0 +1,76 @@
+package uk.hpkns.paintcalculator.uncertainty;
+
+import org.junit.jupiter.api.Test;
+import uk.hpkns.paintcalculator.Paint;
+import uk.hpkns.paintcalculator.geometry.Shape;
+import uk.hpkns.paintcalculator.geometry.WallStore;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MonteCarloTest {
+    private static final int SAMPLES = 5 * MonteCarlo.BLOCK + 123;
+
+    @Test
+    void sameSeedGivesSamePercentilesOnAnyPool() {
+        WallStore store = randomStore(new SplittableRandom(5), 40);
+        ForkJoinPool one = new ForkJoinPool(1);
+        ForkJoinPool four = new ForkJoinPool(4);
+        try {
+            for (long seed = 0; seed < 4; seed++) {
+                Tolerance tolerance = new Tolerance(0.03, 0.01);
+                Percentiles serial = new MonteCarlo(tolerance, SAMPLES, seed).litres(store, 2, one);
+                Percentiles parallel = new MonteCarlo(tolerance, SAMPLES, seed).litres(store, 2, four);
+                assertEquals(serial, parallel);
+                assertEquals(SAMPLES, serial.samples());
+                assertTrue(serial.p50() <= serial.p90() && serial.p90() <= serial.p99());
+            }
+        } finally {
+            one.shutdown();
+            four.shutdown();
+        }
+    }
+
+    @Test
+    void noToleranceGivesThePointEstimate() {
+        WallStore store = randomStore(new SplittableRandom(6), 10);
+        Percentiles percentiles = new MonteCarlo(new Tolerance(0, 0), 100, 1).litres(store, 3);
+        double litres = Paint.litres(store.totalArea(), 3);
+        assertEquals(litres, percentiles.p50(), 1e-9);
+        assertEquals(litres, percentiles.p99(), 1e-9);
+    }
+
+    @Test
+    void rejectsWallsTheirObstructionsCover() {
+        WallStore store = new WallStore();
+        store.addWall(1, 1);
+        store.addObstruction(Shape.RECTANGULAR, 1.5, 1);
+        MonteCarlo monteCarlo = new MonteCarlo(new Tolerance(0.01, 0.01), 100, 0);
+        assertThrows(IllegalArgumentException.class, () -> monteCarlo.litres(store, 1));
+    }
+
+    @Test
+    void samplesNeverPaintLessThanNothing() {
+        // Just covered as measured, so about half of samples have the obstruction past the wall
+        WallStore store = new WallStore();
+        store.addWall(1, 1);
+        store.addObstruction(Shape.RECTANGULAR, 1, 1);
+        Percentiles percentiles = new MonteCarlo(new Tolerance(0.05, 0.05), 10_000, 0).litres(store, 1);
+        assertTrue(percentiles.p50() >= 0 && percentiles.p50() < 0.01);
+        assertTrue(percentiles.p99() > 0);
+    }
+
+    private static WallStore randomStore(SplittableRandom random, int walls) {
+        WallStore store = new WallStore();
+        for (int i = 0; i < walls; i++) {
+            store.addWall(random.nextDouble(2, 8), random.nextDouble(2, 3));
+            int obstructions = random.nextInt(3);
+            for (int j = 0; j < obstructions; j++) {
+                store.addObstruction(Shape.CIRCULAR, random.nextDouble(0.1, 0.4), 0);
+            }
+        }
+        return store;
+    }
+}